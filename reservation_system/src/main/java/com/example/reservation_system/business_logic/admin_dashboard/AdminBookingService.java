@@ -1,9 +1,15 @@
 package com.example.reservation_system.business_logic.admin_dashboard;
 
+import com.example.reservation_system.business_logic.analytics.DailyStatsService;
+import com.example.reservation_system.business_logic.booking_nights.Booking_nigths_Service;
+import com.example.reservation_system.business_logic.booking_nights.NightCharge;
+import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.bookings.BookingRepository;
+import com.example.reservation_system.business_logic.bookings.BookingStatus;
 import com.example.reservation_system.business_logic.payments.PaymentRepository;
 import com.example.reservation_system.business_logic.pricing.PricingService;
+import com.example.reservation_system.business_logic.room_inventory.InventoryReservationService;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
@@ -11,6 +17,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Service
 public class AdminBookingService {
@@ -18,13 +25,28 @@ public class AdminBookingService {
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
     private final PricingService pricingService;
+    private final BookingRoomsRepository bookingRoomsRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final DashboardCounters dashboardCounters;
+    private final DailyStatsService dailyStatsService;
+    private final Booking_nigths_Service bookingNightsService;
 
     public AdminBookingService(BookingRepository bookingRepository,
                                PaymentRepository paymentRepository,
-                               PricingService pricingService) {
+                               PricingService pricingService,
+                               BookingRoomsRepository bookingRoomsRepository,
+                               InventoryReservationService inventoryReservationService,
+                               DashboardCounters dashboardCounters,
+                               DailyStatsService dailyStatsService,
+                               Booking_nigths_Service bookingNightsService) {
         this.bookingRepository = bookingRepository;
         this.paymentRepository = paymentRepository;
         this.pricingService = pricingService;
+        this.bookingRoomsRepository = bookingRoomsRepository;
+        this.inventoryReservationService = inventoryReservationService;
+        this.dashboardCounters = dashboardCounters;
+        this.dailyStatsService = dailyStatsService;
+        this.bookingNightsService = bookingNightsService;
     }
 
     @Transactional
@@ -40,13 +62,25 @@ public class AdminBookingService {
             throw new IllegalArgumentException("Check-out must be after check-in");
         }
 
+        // move the inventory claim to the new dates; cancelled bookings hold no inventory
+        List<Long> roomIds = bookingRoomsRepository.findRoomIdsByBookingId(bookingId);
+        if (booking.getStatus() != BookingStatus.CANCELLED && !roomIds.isEmpty()) {
+            inventoryReservationService.release(roomIds, booking.getCheck_in(), booking.getCheck_out());
+            inventoryReservationService.reserve(roomIds, newCheckIn, newCheckOut);
+        }
+
+        long nightsBefore = DashboardCounters.nights(booking);
+        dailyStatsService.markStay(booking.getCheck_in(), booking.getCheck_out());
+        dailyStatsService.markStay(newCheckIn, newCheckOut);
         // ✔ Booking expects LocalDate, not LocalDateTime
         booking.setCheck_in(LocalDate.from(newCheckIn));
         booking.setCheck_out(LocalDate.from(newCheckOut));
+        dashboardCounters.datesChanged(booking, nightsBefore);
 
-        // Recalculate total using seasonal rates and booking's rooms (dates already set above)
-        BigDecimal newPrice = pricingService.calculateTotalForBooking(booking);
-        booking.setTotal_amount(newPrice);
+        // Reprice every night at the seasonal rates, rewrite booking_nights and take the total from them
+        List<int[]> nightlyPrices = pricingService.nightlyPrices(newCheckIn, newCheckOut, roomIds);
+        bookingNightsService.replaceNights(bookingId, roomIds, newCheckIn, nightlyPrices);
+        booking.setTotal_amount(PricingService.totalOf(nightlyPrices));
 
         return bookingRepository.save(booking);
     }
@@ -61,12 +95,13 @@ public class AdminBookingService {
                 booking.getCheck_in().atStartOfDay()
         );
 
+        BigDecimal refundable = refundableAmount(booking);
         BigDecimal refund;
 
         if (hoursBeforeCheckIn > 48) {
-            refund = booking.getTotal_amount();
+            refund = refundable;
         } else if (hoursBeforeCheckIn > 0) {
-            refund = booking.getTotal_amount().multiply(BigDecimal.valueOf(0.5));
+            refund = refundable.multiply(BigDecimal.valueOf(0.5));
         } else {
             refund = BigDecimal.ZERO;
         }
@@ -75,5 +110,19 @@ public class AdminBookingService {
         return refund;
     }
 
-
+    // the prices of the nights not yet stayed, from booking_nights; bookings without nights fall back to their total
+    private BigDecimal refundableAmount(Booking booking) {
+        List<NightCharge> charges = bookingNightsService.findCharges(booking.getId());
+        if (charges.isEmpty()) {
+            return booking.getTotal_amount();
+        }
+        LocalDate today = LocalDate.now();
+        long unused = 0;
+        for (NightCharge charge : charges) {
+            if (!charge.night().isBefore(today)) {
+                unused += charge.price();
+            }
+        }
+        return BigDecimal.valueOf(unused).setScale(2);
+    }
 }
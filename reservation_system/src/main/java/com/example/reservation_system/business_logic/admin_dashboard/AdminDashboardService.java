@@ -1,10 +1,7 @@
 package com.example.reservation_system.business_logic.admin_dashboard;
 
 import com.example.reservation_system.business_logic.bookings.Booking;
-import com.example.reservation_system.business_logic.payments.PaymentRepository;
-import com.example.reservation_system.business_logic.bookings.BookingRepository;
-import com.example.reservation_system.business_logic.room.RoomRepository;
-import com.example.reservation_system.model.AppUserRepository;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -16,44 +13,27 @@ import java.util.Map;
 
 @Service
 public class AdminDashboardService {
-    @Autowired
-    private BookingRepository bookingRepository;
-
-    @Autowired
-    private PaymentRepository paymentRepository;
-
-    @Autowired
-    private AppUserRepository appUserRepository;
-
-    @Autowired
-    private RoomRepository roomRepository;
+    private final DashboardCounters dashboardCounters;
+    private final RoomCatalog roomCatalog;
 
     @Autowired
     private  AdminBookingService adminBookingService;
 
-    public AdminDashboardService(BookingRepository bookingRepository ,
-                                 PaymentRepository paymentRepository ,
-                                 AppUserRepository appUserRepository,
-                                 RoomRepository roomRepository) {
-        this.bookingRepository = bookingRepository;
-        this.paymentRepository = paymentRepository;
-        this.appUserRepository = appUserRepository;
-        this.roomRepository = roomRepository;
+    public AdminDashboardService(DashboardCounters dashboardCounters, RoomCatalog roomCatalog) {
+        this.dashboardCounters = dashboardCounters;
+        this.roomCatalog = roomCatalog;
     }
 
+    // reads in-memory counters only; see DashboardCounters for how they are kept
     public Map<String , Object> getDashboardStatus() {
 
-        long totalBookings = bookingRepository.getTotalBookings();
-        long totalUsers = appUserRepository.getAllUsers();
-        long totalRooms = roomRepository.count();
+        long totalBookings = dashboardCounters.get(DashboardCounter.CONFIRMED_BOOKINGS);
+        long totalUsers = dashboardCounters.get(DashboardCounter.USERS);
+        long totalRooms = roomCatalog.findAll().size();
 
-        BigDecimal TotalRevenue = paymentRepository.getTotalRevenue() != null
-                ? paymentRepository.getTotalRevenue()
-                : BigDecimal.valueOf(0.0);
+        BigDecimal TotalRevenue = BigDecimal.valueOf(dashboardCounters.get(DashboardCounter.REVENUE));
 
-        long  totalBookedNights = bookingRepository.getTotalBookedNights() != null
-                ? bookingRepository.getTotalBookedNights()
-                : 0;
+        long  totalBookedNights = dashboardCounters.get(DashboardCounter.BOOKED_NIGHTS);
 
         //🔹 ADR = Total Revenue / Total Booked Nights
         BigDecimal adr =  totalBookedNights > 0
@@ -0,0 +1,14 @@
+package com.example.reservation_system.business_logic.admin_dashboard;
+
+/**
+ * Totals behind the admin dashboard, kept by {@link DashboardCounters}.
+ */
+public enum DashboardCounter {
+    // bookings with status CONFIRMED
+    CONFIRMED_BOOKINGS,
+    // nights (check_out - check_in) of CONFIRMED bookings
+    BOOKED_NIGHTS,
+    // sum of COMPLETED payment amounts
+    REVENUE,
+    USERS
+}
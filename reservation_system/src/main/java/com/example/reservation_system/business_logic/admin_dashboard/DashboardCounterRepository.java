@@ -0,0 +1,30 @@
+package com.example.reservation_system.business_logic.admin_dashboard;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DashboardCounterRepository extends JpaRepository<DashboardCounterRow, String> {
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO dashboard_counters (name, value, updated_at) VALUES (:name, :value, now())
+        ON CONFLICT (name) DO UPDATE SET value = EXCLUDED.value, updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsert(@Param("name") String name, @Param("value") long value);
+
+    // the aggregates below are the source of truth the counters are reconciled against
+
+    @Query(value = "SELECT COUNT(*) FROM bookings WHERE status = 'CONFIRMED'", nativeQuery = true)
+    long countConfirmedBookings();
+
+    @Query(value = "SELECT COALESCE(SUM(check_out - check_in), 0) FROM bookings WHERE status = 'CONFIRMED'", nativeQuery = true)
+    long sumConfirmedNights();
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM payments WHERE status = 'COMPLETED'", nativeQuery = true)
+    long sumCompletedPayments();
+
+    @Query(value = "SELECT COUNT(*) FROM users", nativeQuery = true)
+    long countUsers();
+}
@@ -0,0 +1,25 @@
+package com.example.reservation_system.business_logic.admin_dashboard;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted value of one {@link DashboardCounter}. Written only by {@link DashboardCounters}.
+ */
+@Entity
+@Table(name = "dashboard_counters")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class DashboardCounterRow {
+
+    @Id
+    private String name;
+
+    private long value;
+
+    private LocalDateTime updated_at;
+}
@@ -0,0 +1,183 @@
+package com.example.reservation_system.business_logic.admin_dashboard;
+
+import com.example.reservation_system.business_logic.bookings.Booking;
+import com.example.reservation_system.business_logic.bookings.BookingStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory totals behind the admin dashboard, so reading it costs no queries.
+ *
+ * The booking, cancellation and payment paths report their changes here; a change is applied once
+ * its transaction commits (immediately outside a transaction), so rolled back work never counts.
+ * The values are flushed to dashboard_counters every few seconds and loaded back at startup.
+ *
+ * Rows edited directly in SQL, or changes made by another instance, are not reported, so the
+ * counters are periodically reconciled against the bookings, payments and users tables. The
+ * correction is added rather than set, so a delta applied meanwhile is not lost.
+ */
+@Component
+public class DashboardCounters {
+    private static final Logger log = LoggerFactory.getLogger(DashboardCounters.class);
+
+    private final DashboardCounterRepository dashboardCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<DashboardCounter, AtomicLong> values = new EnumMap<>(DashboardCounter.class);
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public DashboardCounters(DashboardCounterRepository dashboardCounterRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.dashboardCounterRepository = dashboardCounterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (DashboardCounter counter : DashboardCounter.values()) {
+            values.put(counter, new AtomicLong());
+        }
+    }
+
+    public long get(DashboardCounter counter) {
+        return values.get(counter).get();
+    }
+
+    /**
+     * Records a booking status change; only moves into and out of CONFIRMED count.
+     */
+    public void statusChanged(Booking booking, BookingStatus before) {
+        boolean wasConfirmed = before == BookingStatus.CONFIRMED;
+        boolean isConfirmed = booking.getStatus() == BookingStatus.CONFIRMED;
+        if (wasConfirmed == isConfirmed) {
+            return;
+        }
+        int sign = isConfirmed ? 1 : -1;
+        add(DashboardCounter.CONFIRMED_BOOKINGS, sign);
+        add(DashboardCounter.BOOKED_NIGHTS, sign * nights(booking));
+    }
+
+    /**
+     * Records new dates for a booking; call with the booking already holding the new dates.
+     */
+    public void datesChanged(Booking booking, long nightsBefore) {
+        if (booking.getStatus() == BookingStatus.CONFIRMED) {
+            add(DashboardCounter.BOOKED_NIGHTS, nights(booking) - nightsBefore);
+        }
+    }
+
+    public void bookingDeleted(Booking booking) {
+        if (booking.getStatus() == BookingStatus.CONFIRMED) {
+            add(DashboardCounter.CONFIRMED_BOOKINGS, -1);
+            add(DashboardCounter.BOOKED_NIGHTS, -nights(booking));
+        }
+    }
+
+    public void paymentCompleted(long amount) {
+        add(DashboardCounter.REVENUE, amount);
+    }
+
+    public void userRegistered() {
+        add(DashboardCounter.USERS, 1);
+    }
+
+    public static long nights(Booking booking) {
+        if (booking.getCheck_in() == null || booking.getCheck_out() == null) {
+            return 0;
+        }
+        return ChronoUnit.DAYS.between(booking.getCheck_in(), booking.getCheck_out());
+    }
+
+    /**
+     * Adds the delta once the current transaction commits (immediately outside a transaction).
+     */
+    public void add(DashboardCounter counter, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(counter, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(counter, delta);
+            }
+        });
+    }
+
+    private void apply(DashboardCounter counter, long delta) {
+        values.get(counter).addAndGet(delta);
+        dirty.set(true);
+    }
+
+    /**
+     * Loads the last flushed values; reconciles right away when there are none yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<DashboardCounter, Long> stored = new EnumMap<>(DashboardCounter.class);
+        for (DashboardCounterRow row : dashboardCounterRepository.findAll()) {
+            try {
+                stored.put(DashboardCounter.valueOf(row.getName()), row.getValue());
+            } catch (IllegalArgumentException e) {
+                // counter no longer in use
+            }
+        }
+        stored.forEach((counter, value) -> values.get(counter).addAndGet(value));
+
+        if (stored.size() < DashboardCounter.values().length) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.counters.flush-ms:5000}")
+    public void flush() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> values.forEach(
+                (counter, value) -> dashboardCounterRepository.upsert(counter.name(), value.get())));
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.counters.reconcile-ms:600000}",
+               initialDelayString = "${app.dashboard.counters.reconcile-ms:600000}")
+    public void reconcile() {
+        Map<DashboardCounter, Long> truth = transactionTemplate.execute(status -> {
+            Map<DashboardCounter, Long> totals = new EnumMap<>(DashboardCounter.class);
+            totals.put(DashboardCounter.CONFIRMED_BOOKINGS, dashboardCounterRepository.countConfirmedBookings());
+            totals.put(DashboardCounter.BOOKED_NIGHTS, dashboardCounterRepository.sumConfirmedNights());
+            totals.put(DashboardCounter.REVENUE, dashboardCounterRepository.sumCompletedPayments());
+            totals.put(DashboardCounter.USERS, dashboardCounterRepository.countUsers());
+            return totals;
+        });
+        // read right after the aggregates; a change committing while they ran is fixed by the next reconcile
+        Map<DashboardCounter, Long> seen = new EnumMap<>(DashboardCounter.class);
+        values.forEach((counter, value) -> seen.put(counter, value.get()));
+
+        truth.forEach((counter, total) -> {
+            long drift = total - seen.get(counter);
+            if (drift != 0) {
+                log.info("Dashboard counter {} drifted by {}, corrected", counter, drift);
+                apply(counter, drift);
+            }
+        });
+        dirty.set(true);
+        flush();
+    }
+}
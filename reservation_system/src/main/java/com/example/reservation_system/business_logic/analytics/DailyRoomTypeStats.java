@@ -0,0 +1,42 @@
+package com.example.reservation_system.business_logic.analytics;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * One row of the daily_room_type_stats rollup. Written only by {@link DailyStatsService}.
+ */
+@Entity
+@Table(name = "daily_room_type_stats")
+@IdClass(DailyRoomTypeStats.Key.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class DailyRoomTypeStats {
+
+    @Id
+    private LocalDate stat_date;
+
+    @Id
+    private String room_type;
+
+    private int rooms_sold;
+
+    private long revenue;
+
+    private int cancellations;
+
+    private int available_room_nights;
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate stat_date;
+        private String room_type;
+    }
+}
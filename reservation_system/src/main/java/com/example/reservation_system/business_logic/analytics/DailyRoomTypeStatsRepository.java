@@ -0,0 +1,93 @@
+package com.example.reservation_system.business_logic.analytics;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyRoomTypeStatsRepository extends JpaRepository<DailyRoomTypeStats, DailyRoomTypeStats.Key> {
+
+    @Query("SELECT new com.example.reservation_system.business_logic.analytics.PerformanceTotals(" +
+           "COALESCE(SUM(s.rooms_sold), 0), COALESCE(SUM(s.revenue), 0), COALESCE(SUM(s.cancellations), 0), COALESCE(SUM(s.available_room_nights), 0)) " +
+           "FROM DailyRoomTypeStats s WHERE s.stat_date BETWEEN :from AND :to")
+    PerformanceTotals findTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.example.reservation_system.business_logic.analytics.PerformanceTotals(" +
+           "COALESCE(SUM(s.rooms_sold), 0), COALESCE(SUM(s.revenue), 0), COALESCE(SUM(s.cancellations), 0), COALESCE(SUM(s.available_room_nights), 0)) " +
+           "FROM DailyRoomTypeStats s WHERE s.stat_date BETWEEN :from AND :to AND s.room_type = :roomType")
+    PerformanceTotals findTotals(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("roomType") String roomType);
+
+    @Query("SELECT s FROM DailyRoomTypeStats s WHERE s.stat_date BETWEEN :from AND :to ORDER BY s.stat_date, s.room_type")
+    List<DailyRoomTypeStats> findRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT MIN(n.night_date) FROM Booking_nights n")
+    LocalDate findFirstBookedNight();
+
+    /**
+     * Queues the nights [from, to) for recomputation. Meant to run in the transaction that changed them.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO daily_stats_pending (stat_date)
+        SELECT CAST(d AS date) FROM generate_series(CAST(:from AS date), CAST(:to AS date) - 1, INTERVAL '1 day') AS d
+        ON CONFLICT (stat_date) DO NOTHING
+        """, nativeQuery = true)
+    int markPending(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Takes up to {@code limit} of the earliest queued days off the queue. SKIP LOCKED lets several
+     * instances drain it; the days come back if the calling transaction rolls back.
+     * Days are returned as ISO dates, since native date scalars do not map to LocalDate.
+     */
+    @Query(value = """
+        DELETE FROM daily_stats_pending
+        WHERE stat_date IN (
+            SELECT stat_date FROM daily_stats_pending
+            ORDER BY stat_date
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED)
+        RETURNING CAST(stat_date AS varchar)
+        """, nativeQuery = true)
+    List<String> claimPending(@Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM daily_room_type_stats WHERE stat_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Aggregates the days [from, to] into one row per day and room type. Expects the range to be empty.
+     *
+     * A room-night counts as sold while its booking is confirmed or later in the stay, and as a
+     * cancellation once the booking is cancelled; revenue is the nightly price written with the booking.
+     * Available room-nights are the allotments from room_inventory, one per room on nights without a row.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        WITH supply AS (
+            SELECT CAST(d AS date) AS stat_date, r.type AS room_type, SUM(COALESCE(ri.allotment, 1)) AS available
+            FROM generate_series(CAST(:from AS date), CAST(:to AS date), INTERVAL '1 day') AS d
+            CROSS JOIN rooms r
+            LEFT JOIN room_inventory ri ON ri.room_id = r.id AND ri.night_date = CAST(d AS date)
+            GROUP BY 1, 2
+        ),
+        sold AS (
+            SELECT bn.night_date AS stat_date, r.type AS room_type,
+                   COUNT(*) FILTER (WHERE b.status IN ('CONFIRMED', 'CHECKED_IN', 'IN_PROGRESS', 'CHECKED_OUT', 'COMPLETED')) AS rooms_sold,
+                   COALESCE(SUM(bn.price) FILTER (WHERE b.status IN ('CONFIRMED', 'CHECKED_IN', 'IN_PROGRESS', 'CHECKED_OUT', 'COMPLETED')), 0) AS revenue,
+                   COUNT(*) FILTER (WHERE b.status = 'CANCELLED') AS cancellations
+            FROM booking_nights bn
+            JOIN bookings b ON b.id = bn.booking_id
+            JOIN rooms r ON r.id = bn.room_id
+            WHERE bn.night_date BETWEEN :from AND :to
+            GROUP BY 1, 2
+        )
+        INSERT INTO daily_room_type_stats (stat_date, room_type, rooms_sold, revenue, cancellations, available_room_nights)
+        SELECT s.stat_date, s.room_type, COALESCE(x.rooms_sold, 0), COALESCE(x.revenue, 0), COALESCE(x.cancellations, 0), s.available
+        FROM supply s
+        LEFT JOIN sold x ON x.stat_date = s.stat_date AND x.room_type = s.room_type
+        """, nativeQuery = true)
+    int materialize(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,157 @@
+package com.example.reservation_system.business_logic.analytics;
+
+import com.example.reservation_system.business_logic.room.RoomCatalogRefreshedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the daily_room_type_stats rollup and answers revenue and occupancy reports from it.
+ *
+ * Booking changes queue the nights they touch in daily_stats_pending, in their own transaction.
+ * A job drains the queue every few seconds and recomputes only those days, one contiguous run of
+ * days per statement. Room and allotment changes move the supply of every future night, so a daily
+ * job recomputes the window from lookback-days ago to horizon-days ahead; on an empty rollup the
+ * whole history is built at startup.
+ *
+ * Reports sum at most one row per day and room type and never read bookings.
+ */
+@Service
+public class DailyStatsService {
+    private static final Logger log = LoggerFactory.getLogger(DailyStatsService.class);
+
+    private final DailyRoomTypeStatsRepository dailyRoomTypeStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    // the catalog event arrives from a scheduled reload or from afterCommit, never inside a usable transaction
+    private final TransactionTemplate requiresNew;
+
+    @Value("${app.analytics.daily-stats.batch-size:366}")
+    private int batchSize = 366;
+
+    @Value("${app.analytics.daily-stats.lookback-days:30}")
+    private int lookbackDays = 30;
+
+    @Value("${app.analytics.daily-stats.horizon-days:365}")
+    private int horizonDays = 365;
+
+    public DailyStatsService(DailyRoomTypeStatsRepository dailyRoomTypeStatsRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.dailyRoomTypeStatsRepository = dailyRoomTypeStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Totals and ratios for the nights [from, to], for one room type or all of them (roomType null).
+     */
+    @Transactional(readOnly = true)
+    public PerformanceReport report(LocalDate from, LocalDate to, String roomType) {
+        PerformanceTotals totals = roomType == null
+                ? dailyRoomTypeStatsRepository.findTotals(from, to)
+                : dailyRoomTypeStatsRepository.findTotals(from, to, roomType);
+        return PerformanceReport.of(from, to, roomType, totals);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyRoomTypeStats> findDaily(LocalDate from, LocalDate to) {
+        return dailyRoomTypeStatsRepository.findRange(from, to);
+    }
+
+    /**
+     * Queues the nights of a stay [checkIn, checkOut) for recomputation.
+     * Call from the transaction that changes the booking, so the queue entry commits with it.
+     */
+    @Transactional
+    public void markStay(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            return;
+        }
+        dailyRoomTypeStatsRepository.markPending(checkIn, checkOut);
+    }
+
+    // a changed room list changes the supply of every night ahead; past nights keep the rooms they had.
+    // A failure here must not fail the room change that triggered the reload: the daily window refresh catches up
+    @EventListener
+    public void onRoomCatalogRefreshed(RoomCatalogRefreshedEvent event) {
+        LocalDate today = LocalDate.now();
+        try {
+            requiresNew.executeWithoutResult(status ->
+                dailyRoomTypeStatsRepository.markPending(today, today.plusDays(horizonDays)));
+        } catch (RuntimeException e) {
+            log.warn("Could not queue daily stats after room catalog version {}", event.version(), e);
+        }
+    }
+
+    /**
+     * Recomputes the queued days. Days claimed here go back on the queue if the recomputation fails.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.daily-stats.drain-ms:5000}")
+    public void drain() {
+        Integer drained;
+        do {
+            drained = transactionTemplate.execute(status -> {
+                List<LocalDate> days = dailyRoomTypeStatsRepository.claimPending(batchSize).stream()
+                    .map(LocalDate::parse)
+                    .sorted()
+                    .toList();
+                refreshDays(days);
+                return days.size();
+            });
+        } while (drained != null && drained == batchSize);
+    }
+
+    /**
+     * Recomputes the rollup for the days [from, to].
+     */
+    @Transactional
+    public void refresh(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return;
+        }
+        dailyRoomTypeStatsRepository.deleteRange(from, to);
+        dailyRoomTypeStatsRepository.materialize(from, to);
+    }
+
+    @Scheduled(cron = "${app.analytics.daily-stats.refresh-cron:0 15 0 * * *}")
+    public void refreshWindow() {
+        LocalDate today = LocalDate.now();
+        transactionTemplate.executeWithoutResult(status ->
+            refresh(today.minusDays(lookbackDays), today.plusDays(horizonDays)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (dailyRoomTypeStatsRepository.count() > 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate firstNight = dailyRoomTypeStatsRepository.findFirstBookedNight();
+        LocalDate from = firstNight == null || firstNight.isAfter(today) ? today.minusDays(lookbackDays) : firstNight;
+        LocalDate to = today.plusDays(horizonDays);
+        transactionTemplate.executeWithoutResult(status -> refresh(from, to));
+        log.info("Daily room type stats built from {} to {}", from, to);
+    }
+
+    // each run of consecutive days is recomputed with one statement
+    private void refreshDays(List<LocalDate> days) {
+        int start = 0;
+        for (int i = 1; i <= days.size(); i++) {
+            if (i == days.size() || !days.get(i).equals(days.get(i - 1).plusDays(1))) {
+                refresh(days.get(start), days.get(i - 1));
+                start = i;
+            }
+        }
+    }
+}
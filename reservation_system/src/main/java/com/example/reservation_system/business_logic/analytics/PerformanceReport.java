@@ -0,0 +1,41 @@
+package com.example.reservation_system.business_logic.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Revenue and occupancy of the nights [from, to], for one room type or all of them (roomType null).
+ *
+ * ADR = revenue / rooms sold, occupancy = rooms sold / available room-nights (in percent),
+ * RevPAR = revenue / available room-nights.
+ */
+public record PerformanceReport(LocalDate from,
+                                LocalDate to,
+                                String roomType,
+                                long roomsSold,
+                                long availableRoomNights,
+                                long cancellations,
+                                BigDecimal revenue,
+                                BigDecimal adr,
+                                BigDecimal occupancy,
+                                BigDecimal revPar) {
+
+    static PerformanceReport of(LocalDate from, LocalDate to, String roomType, PerformanceTotals totals) {
+        BigDecimal revenue = BigDecimal.valueOf(totals.revenue());
+        BigDecimal adr = totals.roomsSold() > 0
+                ? revenue.divide(BigDecimal.valueOf(totals.roomsSold()), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        BigDecimal occupancy = totals.availableRoomNights() > 0
+                ? BigDecimal.valueOf(totals.roomsSold())
+                    .divide(BigDecimal.valueOf(totals.availableRoomNights()), 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    .setScale(2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        BigDecimal revPar = totals.availableRoomNights() > 0
+                ? revenue.divide(BigDecimal.valueOf(totals.availableRoomNights()), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        return new PerformanceReport(from, to, roomType, totals.roomsSold(), totals.availableRoomNights(),
+                totals.cancellations(), revenue, adr, occupancy, revPar);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.reservation_system.business_logic.analytics;
+
+/**
+ * Sums of the daily rollup rows over a date range.
+ */
+public record PerformanceTotals(long roomsSold, long revenue, long cancellations, long availableRoomNights) {
+}
@@ -0,0 +1,48 @@
+package com.example.reservation_system.business_logic.analytics;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+// revenue and occupancy over any date range, read from the daily rollup
+@RestController
+@RequestMapping("/api/admin/reports")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+    private static final int MAX_DAILY_DAYS = 731;
+
+    private final DailyStatsService dailyStatsService;
+
+    public ReportController(DailyStatsService dailyStatsService) {
+        this.dailyStatsService = dailyStatsService;
+    }
+
+    // ADR, occupancy and RevPAR for the nights [from, to]; roomType narrows it to one room type
+    @GetMapping("/performance")
+    public ResponseEntity<?> performance(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         @RequestParam(required = false) String roomType) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body("'to' must not be before 'from'");
+        }
+        return ResponseEntity.ok(dailyStatsService.report(from, to, roomType));
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<?> daily(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAILY_DAYS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_DAILY_DAYS + " days per request");
+        }
+        List<DailyRoomTypeStats> rows = dailyStatsService.findDaily(from, to);
+        return ResponseEntity.ok(rows);
+    }
+}
@@ -1,11 +1,27 @@
 package com.example.reservation_system.business_logic.booking_nights;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 public interface Booking_nights_repository extends JpaRepository<Booking_nights , Long> {
     Optional<Booking_nights> findByPrice(int price);
-    Optional<Booking_nights> findByNightDate(LocalDate night_date);
+
+    // the attribute is night_date, which a derived findByNightDate cannot resolve
+    @Query("SELECT n FROM Booking_nights n WHERE n.night_date = :nightDate ORDER BY n.id LIMIT 1")
+    Optional<Booking_nights> findByNightDate(@Param("nightDate") LocalDate night_date);
+
+    // served by idx_booking_nights_booking_id; no booking or room entities are loaded
+    @Query("SELECT new com.example.reservation_system.business_logic.booking_nights.NightCharge(r.id, r.number, n.night_date, n.price) " +
+           "FROM Booking_nights n JOIN n.room r WHERE n.booking.id = :bookingId ORDER BY r.number, n.night_date")
+    List<NightCharge> findChargesByBookingId(@Param("bookingId") Long bookingId);
+
+    @Modifying
+    @Query(value = "DELETE FROM booking_nights WHERE booking_id = :bookingId", nativeQuery = true)
+    int deleteByBookingId(@Param("bookingId") Long bookingId);
 }
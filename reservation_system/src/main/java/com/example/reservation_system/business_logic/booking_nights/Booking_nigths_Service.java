@@ -1,15 +1,37 @@
 package com.example.reservation_system.business_logic.booking_nights;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * booking_nights holds one row per booked room and night with the price it was sold at; it is the
+ * fact table behind analytics, invoice lines and refunds.
+ *
+ * Rows are written with plain JDBC batches: the entity uses IDENTITY ids, which makes Hibernate
+ * insert one row per statement. With reWriteBatchedInserts on the datasource URL the driver sends
+ * each batch as multi-row INSERTs.
+ */
 @Service
 public class Booking_nigths_Service {
+    private static final String INSERT_NIGHT =
+        "INSERT INTO booking_nights (booking_id, room_id, night_date, price) VALUES (?, ?, ?, ?)";
+
     private final Booking_nights_repository bookingNightsRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.booking.nights.batch-size:500}")
+    private int batchSize = 500;
 
-    public Booking_nigths_Service(Booking_nights_repository bookingNightsRepository) {
+    public Booking_nigths_Service(Booking_nights_repository bookingNightsRepository, JdbcTemplate jdbcTemplate) {
         this.bookingNightsRepository = bookingNightsRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public Booking_nights findByPrice (int price) {
@@ -21,4 +43,47 @@ public class Booking_nigths_Service {
         return bookingNightsRepository.findByNightDate(night_date)
                 .orElseThrow(() -> new IllegalStateException("not found by this night date " + night_date ));
     }
+
+    @Transactional(readOnly = true)
+    public List<NightCharge> findCharges(Long bookingId) {
+        return bookingNightsRepository.findChargesByBookingId(bookingId);
+    }
+
+    /**
+     * Writes the nights of a stay starting at checkIn: nightlyPrices.get(i)[n] is the price of room i
+     * on night n, as returned by {@link com.example.reservation_system.business_logic.pricing.PricingService#nightlyPrices}.
+     * Must run in the transaction that created the booking.
+     */
+    @Transactional
+    public void writeNights(Long bookingId, List<Long> roomIds, LocalDate checkIn, List<int[]> nightlyPrices) {
+        List<NightRow> rows = new ArrayList<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            int[] prices = nightlyPrices.get(i);
+            for (int night = 0; night < prices.length; night++) {
+                rows.add(new NightRow(roomIds.get(i), checkIn.plusDays(night), prices[night]));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_NIGHT, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, bookingId);
+            ps.setLong(2, row.roomId());
+            ps.setDate(3, Date.valueOf(row.night()));
+            ps.setInt(4, row.price());
+        });
+    }
+
+    /**
+     * Replaces the nights of a booking whose dates changed.
+     */
+    @Transactional
+    public void replaceNights(Long bookingId, List<Long> roomIds, LocalDate checkIn, List<int[]> nightlyPrices) {
+        bookingNightsRepository.deleteByBookingId(bookingId);
+        writeNights(bookingId, roomIds, checkIn, nightlyPrices);
+    }
+
+    private record NightRow(Long roomId, LocalDate night, int price) {
+    }
 }
@@ -0,0 +1,9 @@
+package com.example.reservation_system.business_logic.booking_nights;
+
+import java.time.LocalDate;
+
+/**
+ * One booked room-night and the price it was sold at, as stored in booking_nights.
+ */
+public record NightCharge(Long roomId, String roomNumber, LocalDate night, int price) {
+}
@@ -1,6 +1,9 @@
 package com.example.reservation_system.business_logic.booking_rooms;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.reservation_system.business_logic.bookings.Booking;
@@ -9,12 +12,22 @@ import java.util.List;
 @Repository 
 public interface BookingRoomsRepository extends JpaRepository<BookingRooms , Long> {
 
+    @EntityGraph(attributePaths = "room")
     List<BookingRooms> findByBooking(Booking booking);
 
+    @EntityGraph(attributePaths = "room")
     List<BookingRooms> findByBookingId(Long bookingId);
 
+    @EntityGraph(attributePaths = "room")
     List<BookingRooms> findByBookingIn(List<Booking> bookings);
 
+    // room ids straight from the foreign key column; no booking, room or user rows are loaded
+    @Query("SELECT br.room.id FROM BookingRooms br WHERE br.booking.id = :bookingId")
+    List<Long> findRoomIdsByBookingId(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT DISTINCT br.room.id FROM BookingRooms br WHERE br.booking IN :bookings")
+    List<Long> findRoomIdsByBookingIn(@Param("bookings") List<Booking> bookings);
+
     void deleteByBookingId(Long bookingId);
     
 }
@@ -37,7 +37,7 @@ public class Booking {
 
     private LocalDate updated_at;
 
-    private Long payment_intent_id;
+    private String payment_intent_id;
 
     private String invoice_no ;
 
@@ -49,7 +49,7 @@ public class Booking {
     )
     private AppUser appUser;
 
-    public  Booking (BookingStatus status , BigDecimal total_amount ,  String currency ,  LocalDate  check_in ,  LocalDate  check_out , LocalDate  created_at , LocalDate  updated_at , Long payment_intent_id , String invoice_no ) {
+    public  Booking (BookingStatus status , BigDecimal total_amount ,  String currency ,  LocalDate  check_in ,  LocalDate  check_out , LocalDate  created_at , LocalDate  updated_at , String payment_intent_id , String invoice_no ) {
         this.status = status;
         this.check_in = check_in;
         this.check_out = check_out;
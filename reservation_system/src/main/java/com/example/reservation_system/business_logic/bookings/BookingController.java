@@ -1,8 +1,14 @@
 package com.example.reservation_system.business_logic.bookings;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -10,10 +16,15 @@ import java.time.LocalDate;
 @RequestMapping("/api/admin/bookings")
 @PreAuthorize("hasRole('ADMIN')")
 public class BookingController {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
-    public BookingController (BookingService bookingService ){
+    public BookingController (BookingService bookingService, ObjectMapper objectMapper){
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -21,6 +32,45 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getTotalBookings());
     }
 
+    // bookings whose stay overlaps [checkIn, checkOut), as summaries with their guest
+    @GetMapping("/between")
+    public ResponseEntity<Slice<BookingSummary>> getBookingsBetween(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkIn,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkOut,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        return ResponseEntity.ok(bookingService.findRoomsBookedBetween(checkIn, checkOut, pageRequest));
+    }
+
+    // newest first; pass nextCursor back as cursor for the following page
+    @GetMapping("/feed")
+    public ResponseEntity<BookingPage> getBookingFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(bookingService.findBookingPage(cursor, Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+    }
+
+    // every booking as newline-delimited JSON, newest first; read page by page, so memory stays at one page
+    @GetMapping("/feed/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingFeed() {
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                BookingPage page = bookingService.findBookingPage(cursor, MAX_PAGE_SIZE);
+                for (BookingSummary booking : page.items()) {
+                    out.write(objectMapper.writeValueAsBytes(booking));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.nextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<Booking> updateStatus(
             @PathVariable Long id,
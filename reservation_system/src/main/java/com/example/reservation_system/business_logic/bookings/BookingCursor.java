@@ -0,0 +1,37 @@
+package com.example.reservation_system.business_logic.bookings;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a booking list ordered by (created_at, id) descending. Clients get it as an opaque
+ * string and pass it back to fetch the rows after it.
+ */
+public record BookingCursor(LocalDate createdAt, Long id) {
+
+    static BookingCursor after(BookingSummary last) {
+        return new BookingCursor(last.createdAt(), last.id());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static BookingCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid booking cursor");
+            }
+            return new BookingCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid booking cursor", e);
+        }
+    }
+}
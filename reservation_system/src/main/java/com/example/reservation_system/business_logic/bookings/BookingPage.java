@@ -0,0 +1,8 @@
+package com.example.reservation_system.business_logic.bookings;
+
+import java.util.List;
+
+/**
+ * One keyset page of bookings; nextCursor is null on the last page.
+ */
+public record BookingPage(List<BookingSummary> items, String nextCursor) {}
@@ -1,8 +1,13 @@
 package com.example.reservation_system.business_logic.bookings;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import jakarta.persistence.LockModeType;
 
@@ -12,7 +17,9 @@ import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking , Long> {
+    // the guest is needed by almost every caller (ownership checks, invoices); load it in the same query
     @SuppressWarnings("null")
+    @EntityGraph(attributePaths = "appUser")
     Optional<Booking> findById(Long id);
     
     @Query("SELECT b FROM Booking b WHERE b.id = :id")
@@ -21,18 +28,43 @@ public interface BookingRepository extends JpaRepository<Booking , Long> {
     
     Optional<Booking> findByDateCheckIn (LocalDate check_in);
     Optional<Booking> findByCreatedAt (LocalDate created_at);
-    List<Booking> findRoomsBookedBetween(LocalDate check_in ,LocalDate checked_out);
+
+    /**
+     * Bookings whose stay overlaps [checkIn, checkOut), answered from the GiST index on bookings.stay.
+     */
+    @Query(value = """
+        SELECT * FROM bookings b
+        WHERE b.stay && daterange(:checkIn, :checkOut, '[)')
+        ORDER BY b.check_in, b.id
+        """, nativeQuery = true)
+    List<Booking> findRoomsBookedBetween(@Param("checkIn") LocalDate checkIn, @Param("checkOut") LocalDate checkOut);
+
+    /**
+     * One page of the bookings overlapping [checkIn, checkOut) as summary rows, with the guest joined in,
+     * so no entity or user is loaded per row. A Slice avoids counting all overlapping rows.
+     */
+    @Query(value = """
+        SELECT b.id AS "id", b.check_in AS "checkIn", b.check_out AS "checkOut", b.total_amount AS "totalAmount",
+               b.currency AS "currency", b.status AS "status", b.created_at AS "createdAt", b.updated_at AS "updatedAt",
+               u.id AS "userId", u.username AS "username", u.full_name AS "fullName", u.email AS "email"
+        FROM bookings b JOIN users u ON u.id = b.user_id
+        WHERE b.stay && daterange(:checkIn, :checkOut, '[)')
+        ORDER BY b.check_in, b.id
+        """, nativeQuery = true)
+    Slice<BookingSummaryRow> findSummariesBookedBetween(@Param("checkIn") LocalDate checkIn, @Param("checkOut") LocalDate checkOut, Pageable pageable);
 
     @Query ("SELECT count(b) , 0  FROM Booking b WHERE b.status = 'CONFIRMED'")
     long getTotalBookings();
 
+    // room-nights of confirmed bookings, one booking_nights row each
     @Query ("""
-        SELECT SUM(DATEDIFF(b.check_in , b.check_out))
-        FROM Booking b 
-        WHERE b.status = 'CONFIRMED'
+        SELECT COUNT(n)
+        FROM Booking_nights n
+        WHERE n.booking.status = 'CONFIRMED'
         """)
     Long getTotalBookedNights();
 
+    @EntityGraph(attributePaths = "appUser")
     @Query ("SELECT b FROM Booking b ORDER BY b.created_at DESC")
     List<Booking> findBookings();
 
@@ -42,5 +74,70 @@ public interface BookingRepository extends JpaRepository<Booking , Long> {
     @Query ("SELECT count(b) FROM Booking b WHERE b.status = 'CANCALED'")
     long getCancelledBookings();
 
-    List<Booking> findByUserId(Long userId);
+    @EntityGraph(attributePaths = "appUser")
+    @Query("SELECT b FROM Booking b WHERE b.appUser.id = :userId ORDER BY b.created_at DESC, b.id DESC")
+    List<Booking> findByUserId(@Param("userId") Long userId);
+
+    /**
+     * Bookings of one guest as {@link BookingSummary} rows, newest first; a single query with the user joined in.
+     */
+    @Query("""
+        SELECT new com.example.reservation_system.business_logic.bookings.BookingSummary(
+            b.id, b.check_in, b.check_out, b.total_amount, b.currency, b.status, b.created_at, b.updated_at,
+            u.id, u.username, u.full_name, u.email)
+        FROM Booking b JOIN b.appUser u
+        WHERE u.id = :userId
+        ORDER BY b.created_at DESC, b.id DESC
+        """)
+    List<BookingSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    /*
+     * Keyset pages over (created_at, id) descending, served by idx_bookings_created_at_id and
+     * idx_bookings_user_created_at_id. The first conjunct bounds the index range; the second skips
+     * the rows of the cursor's day that were already returned. created_at is a DATE column (V12), so
+     * the cursor's LocalDate matches the stored value exactly and rows sharing a day are told apart by id.
+     */
+
+    @Query("""
+        SELECT new com.example.reservation_system.business_logic.bookings.BookingSummary(
+            b.id, b.check_in, b.check_out, b.total_amount, b.currency, b.status, b.created_at, b.updated_at,
+            u.id, u.username, u.full_name, u.email)
+        FROM Booking b JOIN b.appUser u
+        ORDER BY b.created_at DESC, b.id DESC
+        """)
+    List<BookingSummary> findFirstSummaryPage(Limit limit);
+
+    @Query("""
+        SELECT new com.example.reservation_system.business_logic.bookings.BookingSummary(
+            b.id, b.check_in, b.check_out, b.total_amount, b.currency, b.status, b.created_at, b.updated_at,
+            u.id, u.username, u.full_name, u.email)
+        FROM Booking b JOIN b.appUser u
+        WHERE b.created_at <= :createdAt AND (b.created_at < :createdAt OR b.id < :id)
+        ORDER BY b.created_at DESC, b.id DESC
+        """)
+    List<BookingSummary> findSummaryPage(@Param("createdAt") LocalDate createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("""
+        SELECT new com.example.reservation_system.business_logic.bookings.BookingSummary(
+            b.id, b.check_in, b.check_out, b.total_amount, b.currency, b.status, b.created_at, b.updated_at,
+            u.id, u.username, u.full_name, u.email)
+        FROM Booking b JOIN b.appUser u
+        WHERE u.id = :userId
+        ORDER BY b.created_at DESC, b.id DESC
+        """)
+    List<BookingSummary> findFirstSummaryPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+        SELECT new com.example.reservation_system.business_logic.bookings.BookingSummary(
+            b.id, b.check_in, b.check_out, b.total_amount, b.currency, b.status, b.created_at, b.updated_at,
+            u.id, u.username, u.full_name, u.email)
+        FROM Booking b JOIN b.appUser u
+        WHERE u.id = :userId AND b.created_at <= :createdAt AND (b.created_at < :createdAt OR b.id < :id)
+        ORDER BY b.created_at DESC, b.id DESC
+        """)
+    List<BookingSummary> findSummaryPageByUserId(@Param("userId") Long userId, @Param("createdAt") LocalDate createdAt,
+                                                 @Param("id") Long id, Limit limit);
+
+    @Query("SELECT b FROM Booking b WHERE b.payment_intent_id = :paymentIntentId")
+    Optional<Booking> findByPaymentIntentId(@Param("paymentIntentId") String paymentIntentId);
 }
@@ -0,0 +1,90 @@
+package com.example.reservation_system.business_logic.bookings;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a booking attempt that lost an inventory race may run again.
+ *
+ * Retries are bounded twice: per call by max-attempts, and globally by a retry budget that
+ * earns a fraction of a token for every successful booking and spends a whole token per retry.
+ * Under heavy contention the budget drains and callers fail fast instead of multiplying load.
+ * Waits use full jitter: a random delay between 0 and min(max-backoff, base × 2^attempt).
+ */
+@Component
+public class BookingRetryPolicy {
+    private static final long MILLI_TOKENS_PER_RETRY = 1000;
+
+    @Value("${app.booking.inventory.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${app.booking.inventory.retry-backoff-ms:50}")
+    private long baseBackoffMs = 50;
+
+    @Value("${app.booking.inventory.max-backoff-ms:1000}")
+    private long maxBackoffMs = 1000;
+
+    // tokens earned per successful booking, e.g. 0.1 allows one retry per ten successes
+    @Value("${app.booking.inventory.retry-budget-ratio:0.1}")
+    private double budgetRatio = 0.1;
+
+    // most retries the budget can bank; it starts full
+    @Value("${app.booking.inventory.retry-budget-max:10}")
+    private long budgetMaxRetries = 10;
+
+    private final AtomicLong budgetMilliTokens = new AtomicLong(-1);
+
+    /**
+     * Returns true and spends one retry token when another attempt is allowed after {@code attempt} failed.
+     */
+    public boolean tryAcquireRetry(int attempt) {
+        if (attempt >= maxAttempts) {
+            return false;
+        }
+
+        long cap = budgetCapMilliTokens();
+        while (true) {
+            long current = currentBudget(cap);
+            if (current < MILLI_TOKENS_PER_RETRY) {
+                return false;
+            }
+            if (budgetMilliTokens.compareAndSet(current, current - MILLI_TOKENS_PER_RETRY)) {
+                return true;
+            }
+        }
+    }
+
+    public void recordSuccess() {
+        long cap = budgetCapMilliTokens();
+        long earned = Math.round(budgetRatio * MILLI_TOKENS_PER_RETRY);
+        budgetMilliTokens.updateAndGet(current -> Math.min(cap, (current < 0 ? cap : current) + earned));
+    }
+
+    public void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        long delay = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry booking", e);
+        }
+    }
+
+    private long currentBudget(long cap) {
+        long current = budgetMilliTokens.get();
+        if (current < 0) {
+            // first use: start with a full budget
+            budgetMilliTokens.compareAndSet(current, cap);
+            return budgetMilliTokens.get();
+        }
+        return current;
+    }
+
+    private long budgetCapMilliTokens() {
+        return budgetMaxRetries * MILLI_TOKENS_PER_RETRY;
+    }
+}
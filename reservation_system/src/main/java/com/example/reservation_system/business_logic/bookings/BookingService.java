@@ -1,35 +1,71 @@
 package com.example.reservation_system.business_logic.bookings;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import com.example.reservation_system.business_logic.admin_dashboard.DashboardCounters;
+import com.example.reservation_system.business_logic.analytics.DailyStatsService;
 import com.example.reservation_system.model.AppUserRepository;
+import com.example.reservation_system.business_logic.booking_nights.Booking_nigths_Service;
 import com.example.reservation_system.business_logic.booking_rooms.BookingRooms;
 import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
-import com.example.reservation_system.business_logic.room_inventory.RoomInventory;
-import com.example.reservation_system.business_logic.room_inventory.RoomInventoryRepository;
+import com.example.reservation_system.business_logic.pricing.PricingService;
+import com.example.reservation_system.business_logic.pricing.QuoteTokenService;
+import com.example.reservation_system.business_logic.rates.RateSnapshot;
+import com.example.reservation_system.business_logic.room.RoomRepository;
+import com.example.reservation_system.business_logic.room_inventory.InventoryReservationService;
 import com.example.reservation_system.model.AppUser;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
     private final BookingRepository bookingRepository;
     private final BookingRoomsRepository bookingRoomsRepository;
-    private final RoomInventoryRepository roomInventoryRepository;
+    private final RoomRepository roomRepository;
+    private final InventoryReservationService inventoryReservationService;
     private final AppUserRepository appUserRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingRetryPolicy bookingRetryPolicy;
+    private final QuoteTokenService quoteTokenService;
+    private final DashboardCounters dashboardCounters;
+    private final DailyStatsService dailyStatsService;
+    private final PricingService pricingService;
+    private final Booking_nigths_Service bookingNightsService;
 
     public BookingService(BookingRepository bookingRepository,
                          BookingRoomsRepository bookingRoomsRepository,
-                         RoomInventoryRepository roomInventoryRepository,
-                         AppUserRepository appUserRepository) {
+                         RoomRepository roomRepository,
+                         InventoryReservationService inventoryReservationService,
+                         AppUserRepository appUserRepository,
+                         PlatformTransactionManager transactionManager,
+                         BookingRetryPolicy bookingRetryPolicy,
+                         QuoteTokenService quoteTokenService,
+                         DashboardCounters dashboardCounters,
+                         DailyStatsService dailyStatsService,
+                         PricingService pricingService,
+                         Booking_nigths_Service bookingNightsService) {
         this.bookingRepository = bookingRepository;
         this.bookingRoomsRepository = bookingRoomsRepository ; 
-        this.roomInventoryRepository = roomInventoryRepository;
+        this.roomRepository = roomRepository;
+        this.inventoryReservationService = inventoryReservationService;
         this.appUserRepository = appUserRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookingRetryPolicy = bookingRetryPolicy;
+        this.quoteTokenService = quoteTokenService;
+        this.dashboardCounters = dashboardCounters;
+        this.dailyStatsService = dailyStatsService;
+        this.pricingService = pricingService;
+        this.bookingNightsService = bookingNightsService;
     }
 
     @Transactional(readOnly = true)
@@ -50,7 +86,15 @@ public class BookingService {
                 .orElseThrow(() -> new IllegalStateException("No booking found for this " + created_at ));
     }
 
-    @Transactional
+    /**
+     * Creates a booking and claims its inventory. Each attempt runs in its own transaction, so when
+     * it loses an inventory race (lock timeout, deadlock or stale version) the whole attempt is rolled back
+     * and retried as long as {@link BookingRetryPolicy} allows it.
+     * The stay is priced once, before the inventory transaction, from a single rate snapshot: the
+     * nightly prices written to booking_nights and the booking total both come from it, so they always
+     * agree. A quote token must have been issued from the same snapshot and carry the same total;
+     * without a token any total on the command is ignored.
+     */
     public Booking createBooking(CreateBookingCmd cmd) {
         if (cmd.getCheckIn().isAfter(cmd.getCheckOut())){
             throw new IllegalArgumentException("Check-in date must be before check-out date");
@@ -60,25 +104,42 @@ public class BookingService {
             throw new IllegalArgumentException("Number of rooms must match number of adults and children");
         }
 
-        AppUser user = appUserRepository.findById(cmd.getUserId())
-                .orElseThrow(() -> new IllegalArgumentException("User not found by this id" + cmd.getUserId()));
+        if (new HashSet<>(cmd.getRoomIds()).size() != cmd.getRoomIds().size()) {
+            throw new IllegalArgumentException("Each room can only be booked once per booking");
+        }
+
+        RateSnapshot rates = pricingService.rateSnapshot();
+        List<int[]> nightlyPrices = pricingService.nightlyPrices(rates, cmd.getCheckIn(), cmd.getCheckOut(), cmd.getRoomIds());
+        BigDecimal total = PricingService.totalOf(nightlyPrices);
 
-        //lock inventory rows for all rooms and dates 
-        List<RoomInventory> lockedInventories = new ArrayList<>();
-        
-        for (Long roomId : cmd.getRoomIds()){
-            List<RoomInventory> roomInventories = roomInventoryRepository.findByRoomIdAndNightDateBetween(roomId, cmd.getCheckIn(), cmd.getCheckOut());
-        
-            //check availability for each night 
-            for (RoomInventory inventory : roomInventories){
-                if (inventory.getBooked_count() >= inventory.getAllotment()){
-                    throw new IllegalArgumentException("Room " + roomId + " is not available on " + inventory.getNight_date() + 
-                        ". Booked: " + inventory.getBooked_count() + "/" + inventory.getAllotment());
+        if (cmd.getQuoteToken() != null) {
+            BigDecimal quoted = quoteTokenService.verify(cmd.getQuoteToken(), cmd.getCheckIn(), cmd.getCheckOut(), cmd.getRoomIds(), cmd.getCurrency(), rates);
+            if (quoted.compareTo(total) != 0) {
+                throw new IllegalArgumentException("Quoted total " + quoted + " does not match the nightly prices " + total + ", please request a new quote");
+            }
+        }
+        cmd.setTotalAmount(total);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Booking booking = transactionTemplate.execute(status -> createBookingInTransaction(cmd, nightlyPrices));
+                bookingRetryPolicy.recordSuccess();
+                return booking;
+            } catch (ConcurrencyFailureException e) {
+                if (!bookingRetryPolicy.tryAcquireRetry(attempt)) {
+                    throw e;
                 }
+                bookingRetryPolicy.backOff(attempt);
             }
-
-            lockedInventories.addAll(roomInventories);
         }
+    }
+
+    private Booking createBookingInTransaction(CreateBookingCmd cmd, List<int[]> nightlyPrices) {
+        AppUser user = appUserRepository.findById(cmd.getUserId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found by this id" + cmd.getUserId()));
+
+        //claim every (room, night) of the stay; rolled back with the booking on failure
+        inventoryReservationService.reserve(cmd.getRoomIds(), cmd.getCheckIn(), cmd.getCheckOut());
 
         //create booking with Pending_payment status 
         Booking booking = new Booking();
@@ -98,7 +159,7 @@ public class BookingService {
         for(int i = 0 ; i < cmd.getRoomIds().size() ; i++) {
             BookingRooms bookingRoom = new BookingRooms (
                 booking ,
-                null , 
+                roomRepository.getReferenceById(cmd.getRoomIds().get(i)) , 
                 cmd.getAdults().get(i), 
                 cmd.getChildren().get(i), 
                 LocalDate.now()
@@ -107,12 +168,8 @@ public class BookingService {
             bookingRoomsRepository.save(bookingRoom);
         }
 
-        //update inventory booked counts 
-
-        for(RoomInventory inventory : lockedInventories){
-            inventory.setBooked_count(inventory.getBooked_count() + 1);
-            roomInventoryRepository.save(inventory);
-        }
+        //one booking_nights row per room and night, written as a JDBC batch
+        bookingNightsService.writeNights(booking.getId(), cmd.getRoomIds(), cmd.getCheckIn(), nightlyPrices);
 
         return booking;
     }
@@ -129,8 +186,11 @@ public class BookingService {
         Booking existing = bookingRepository.findById(id)
                 .orElseThrow(() -> new IllegalStateException("Booking not found by this id" + id));
 
+        BookingStatus before = existing.getStatus();
         existing.setStatus(BookingStatus.valueOf(status));
         existing.setUpdated_at(LocalDate.now());
+        dashboardCounters.statusChanged(existing, before);
+        dailyStatsService.markStay(existing.getCheck_in(), existing.getCheck_out());
         return bookingRepository.save(existing);
     }
 
@@ -139,19 +199,35 @@ public class BookingService {
         Booking existingBooking =  bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalStateException("Not found by this id" + bookingId));
 
+        //move the inventory claim along with the stay; cancelled bookings hold no inventory
+        List<Long> roomIds = findRoomIds(bookingId);
+        if (existingBooking.getStatus() != BookingStatus.CANCELLED && !roomIds.isEmpty()) {
+            inventoryReservationService.release(roomIds, existingBooking.getCheck_in(), existingBooking.getCheck_out());
+            inventoryReservationService.reserve(roomIds, newCheckIn, newCheckedOut);
+        }
+
+        long nightsBefore = DashboardCounters.nights(existingBooking);
+        dailyStatsService.markStay(existingBooking.getCheck_in(), existingBooking.getCheck_out());
+        dailyStatsService.markStay(newCheckIn, newCheckedOut);
+        //reprice the new stay from the same nightly prices written to booking_nights
+        List<int[]> nightlyPrices = pricingService.nightlyPrices(newCheckIn, newCheckedOut, roomIds);
+        bookingNightsService.replaceNights(bookingId, roomIds, newCheckIn, nightlyPrices);
+        existingBooking.setTotal_amount(PricingService.totalOf(nightlyPrices));
         existingBooking.setCheck_in(newCheckIn);
         existingBooking.setCheck_out(newCheckedOut);
         existingBooking.setUpdated_at(LocalDate.now());
+        dashboardCounters.datesChanged(existingBooking, nightsBefore);
 
         return bookingRepository.save(existingBooking);
     }
 
     @Transactional 
     public void deleteBooking(Long id) {
-        if (!bookingRepository.existsById(id)){
-            throw new IllegalStateException("Booking not found by this Id" + id);
-        }
+        Booking existing = bookingRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Booking not found by this Id" + id));
         bookingRepository.deleteById(id);
+        dashboardCounters.bookingDeleted(existing);
+        dailyStatsService.markStay(existing.getCheck_in(), existing.getCheck_out());
     }
 
     @Transactional 
@@ -159,21 +235,33 @@ public class BookingService {
         Booking existingBooking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalStateException("Not found by this id" + bookingId));
 
+        if (existingBooking.getStatus() != BookingStatus.CANCELLED) {
+            List<Long> roomIds = findRoomIds(bookingId);
+            if (!roomIds.isEmpty()) {
+                inventoryReservationService.release(roomIds, existingBooking.getCheck_in(), existingBooking.getCheck_out());
+            }
+        }
+
+        BookingStatus before = existingBooking.getStatus();
         existingBooking.setStatus(BookingStatus.CANCELLED);
         existingBooking.setUpdated_at(LocalDate.now());
+        dashboardCounters.statusChanged(existingBooking, before);
+        dailyStatsService.markStay(existingBooking.getCheck_in(), existingBooking.getCheck_out());
         return bookingRepository.save(existingBooking);
     }
 
+    private List<Long> findRoomIds(Long bookingId) {
+        return bookingRoomsRepository.findRoomIdsByBookingId(bookingId);
+    }
+
     @Transactional(readOnly = true)
     public List<Booking> findRoomsBookedBetween(LocalDate check_in, LocalDate check_out) {
-        List<Booking> allBookings = bookingRepository.findAll();
+        return bookingRepository.findRoomsBookedBetween(check_in, check_out);
+    }
 
-        return allBookings.stream()
-                .filter(booking ->
-                        booking.getCheck_in().isBefore(check_out) &&
-                                booking.getCheck_out().isAfter(check_in)
-                )
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Slice<BookingSummary> findRoomsBookedBetween(LocalDate check_in, LocalDate check_out, Pageable pageable) {
+        return bookingRepository.findSummariesBookedBetween(check_in, check_out, pageable).map(BookingSummaryRow::toSummary);
     }
 
     @Transactional(readOnly = true)
@@ -187,4 +275,54 @@ public class BookingService {
         return bookingRepository.findByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
+    public List<BookingSummary> findSummariesByUserId(Long userId) {
+        return bookingRepository.findSummariesByUserId(userId);
+    }
+
+    /**
+     * All bookings, newest first, one keyset page at a time.
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public BookingPage findBookingPage(String cursor, int size) {
+        // one extra row tells whether there is a next page without counting
+        Limit limit = Limit.of(size + 1);
+        List<BookingSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookingRepository.findFirstSummaryPage(limit);
+        } else {
+            BookingCursor after = BookingCursor.decode(cursor);
+            rows = bookingRepository.findSummaryPage(after.createdAt(), after.id(), limit);
+        }
+        return toPage(rows, size);
+    }
+
+    /**
+     * Bookings of one guest, newest first, one keyset page at a time.
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public BookingPage findBookingPageByUserId(Long userId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<BookingSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookingRepository.findFirstSummaryPageByUserId(userId, limit);
+        } else {
+            BookingCursor after = BookingCursor.decode(cursor);
+            rows = bookingRepository.findSummaryPageByUserId(userId, after.createdAt(), after.id(), limit);
+        }
+        return toPage(rows, size);
+    }
+
+    private static BookingPage toPage(List<BookingSummary> rows, int size) {
+        if (rows.size() <= size) {
+            return new BookingPage(rows, null);
+        }
+        List<BookingSummary> items = rows.subList(0, size);
+        return new BookingPage(List.copyOf(items), BookingCursor.after(items.get(size - 1)).encode());
+    }
+
 }
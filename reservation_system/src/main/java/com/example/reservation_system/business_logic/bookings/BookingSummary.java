@@ -0,0 +1,23 @@
+package com.example.reservation_system.business_logic.bookings;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a booking and its guest, filled directly by a JPQL constructor expression so
+ * listing bookings loads no entities and needs no per-row queries for the user.
+ */
+public record BookingSummary(
+    Long id,
+    LocalDate checkIn,
+    LocalDate checkOut,
+    BigDecimal totalAmount,
+    String currency,
+    BookingStatus status,
+    LocalDate createdAt,
+    LocalDate updatedAt,
+    Long userId,
+    String username,
+    String fullName,
+    String email
+) {}
@@ -0,0 +1,28 @@
+package com.example.reservation_system.business_logic.bookings;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A {@link BookingSummary} as read by a native query; the column aliases match the getters.
+ * Used where the query needs PostgreSQL operators that JPQL cannot express.
+ */
+public interface BookingSummaryRow {
+    Long getId();
+    LocalDate getCheckIn();
+    LocalDate getCheckOut();
+    BigDecimal getTotalAmount();
+    String getCurrency();
+    BookingStatus getStatus();
+    LocalDate getCreatedAt();
+    LocalDate getUpdatedAt();
+    Long getUserId();
+    String getUsername();
+    String getFullName();
+    String getEmail();
+
+    default BookingSummary toSummary() {
+        return new BookingSummary(getId(), getCheckIn(), getCheckOut(), getTotalAmount(), getCurrency(), getStatus(),
+            getCreatedAt(), getUpdatedAt(), getUserId(), getUsername(), getFullName(), getEmail());
+    }
+}
@@ -18,9 +18,10 @@ public class CreateBookingCmd {
     private List<Long> roomIds; // List of room IDs for multi-room booking
     private List<Integer> adults; // Adults count per room
     private List<Integer> children; // Children count per room
-    private BigDecimal totalAmount;
+    private BigDecimal totalAmount; // set by BookingService from the nightly prices; any value passed in is replaced
     private String currency = "USD";
     private Long userId;
+    private String quoteToken; // signed quote from PricingService; its total must match the nightly prices
     
     public CreateBookingCmd(LocalDate checkIn, LocalDate checkOut, List<Long> roomIds, 
                           List<Integer> adults, List<Integer> children, 
@@ -1,6 +1,7 @@
 package com.example.reservation_system.business_logic.invoice;
 
 import org.springframework.stereotype.Service;
+import com.example.reservation_system.business_logic.booking_nights.Booking_nigths_Service;
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.lowagie.text.DocumentException;
 
@@ -13,11 +14,14 @@ import java.util.Optional;
 public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final PdfInvoiceService pdfInvoiceService;
+    private final Booking_nigths_Service bookingNightsService;
 
     
-    public InvoiceService(InvoiceRepository invoiceRepository, PdfInvoiceService pdfInvoiceService) {
+    public InvoiceService(InvoiceRepository invoiceRepository, PdfInvoiceService pdfInvoiceService,
+                          Booking_nigths_Service bookingNightsService) {
         this.invoiceRepository = invoiceRepository;
         this.pdfInvoiceService = pdfInvoiceService;
+        this.bookingNightsService = bookingNightsService;
     }
 
     public Invoice findByPDFPath(String pdf_path) {
@@ -37,6 +41,7 @@ public class InvoiceService {
 
      /**
      * Creates a professional PDF invoice for the booking, saves it to disk, and persists the invoice record.
+     * Line items come from the booking's nights in booking_nights.
      * Idempotent: if an invoice already exists for this booking, returns it without creating a duplicate.
      */
 
@@ -52,7 +57,7 @@ public class InvoiceService {
             : "INV-" + booking.getId() + "-" + System.currentTimeMillis();
 
         try {
-            String pdfPath = pdfInvoiceService.generateAndSavedPdf(booking, invoiceNumber, issueDate);
+            String pdfPath = pdfInvoiceService.generateAndSavedPdf(booking, bookingNightsService.findCharges(booking.getId()), invoiceNumber, issueDate);
             Invoice invoice = new Invoice(booking , pdfPath , issueDate);
             return invoiceRepository.save(invoice);
         }catch (IOException | DocumentException e) {
@@ -76,7 +81,7 @@ public class InvoiceService {
             ? booking.getInvoice_no()
             : "INV-" + booking.getId();
 
-        return pdfInvoiceService.generatedPdfBytes(booking, invoiceNumber, LocalDate.now());
+        return pdfInvoiceService.generatedPdfBytes(booking, bookingNightsService.findCharges(booking.getId()), invoiceNumber, LocalDate.now());
      }
    
 }
@@ -1,5 +1,6 @@
 package com.example.reservation_system.business_logic.invoice;
 
+import com.example.reservation_system.business_logic.booking_nights.NightCharge;
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
@@ -14,6 +15,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Generates professional PDF invoices using OpenPDF.
@@ -30,12 +33,13 @@ public class PdfInvoiceService {
 
     /*
     Generates a PDF invoice for the given booking and returns the PDF as bytes.
+    The charges are the booking's rows from booking_nights; without them the stay is one line.
      */
 
-    public byte[] generatedPdfBytes(Booking booking, String invoiceNumber, LocalDate issueDate) throws DocumentException {
+    public byte[] generatedPdfBytes(Booking booking, List<NightCharge> charges, String invoiceNumber, LocalDate issueDate) throws DocumentException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         try {
-            buildDocument(booking, invoiceNumber, issueDate, out);
+            buildDocument(booking, charges, invoiceNumber, issueDate, out);
         } catch (IOException e) {
             throw new com.lowagie.text.DocumentException(e);
         } catch (DocumentException e) {
@@ -46,7 +50,7 @@ public class PdfInvoiceService {
 
     /* * Generates a PDF invoice, saves it to the configured directory, and returns the relative path.*/
 
-    public String generateAndSavedPdf(Booking booking , String invoiceNumber , LocalDate issueDate) throws IOException , DocumentException {
+    public String generateAndSavedPdf(Booking booking , List<NightCharge> charges , String invoiceNumber , LocalDate issueDate) throws IOException , DocumentException {
         Path basePath = Path.of(invoicesBaseDir);
         Files.createDirectories(basePath);
 
@@ -54,14 +58,14 @@ public class PdfInvoiceService {
         Path filePath = basePath.resolve(safeFileName);
 
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            buildDocument(booking , invoiceNumber , issueDate , out);
+            buildDocument(booking , charges , invoiceNumber , issueDate , out);
             Files.write(filePath , out.toByteArray());
         }
 
         return filePath.toString();
     }
 
-    private void buildDocument(Booking booking , String invoiceNumber , LocalDate issueDate, ByteArrayOutputStream out)throws DocumentException , IOException {
+    private void buildDocument(Booking booking , List<NightCharge> charges , String invoiceNumber , LocalDate issueDate, ByteArrayOutputStream out)throws DocumentException , IOException {
         Document document = new Document(PageSize.A4 , MARGIN , MARGIN , 50 , 40);
         PdfWriter writer = PdfWriter.getInstance(document, out);
 
@@ -115,12 +119,23 @@ public class PdfInvoiceService {
         table.setSpacingAfter(15);
 
         addTableHeader(table , "Description" , "Check-in" , "Check-out" , "Amount");
-        String description = "Accomodation - " + formatDate(booking.getCheck_in()) + " to " + formatDate(booking.getCheck_out());
         String amountStr = formatMoney(booking.getTotal_amount() , booking.getCurrency());
-        table.addCell(cell(description , Element.ALIGN_LEFT));
-        table.addCell(cell(formatDate(booking.getCheck_in()) , Element.ALIGN_LEFT));
-        table.addCell(cell(formatDate(booking.getCheck_out()) , Element.ALIGN_LEFT));
-        table.addCell(cell(amountStr , Element.ALIGN_RIGHT));
+        if (charges == null || charges.isEmpty()) {
+            String description = "Accomodation - " + formatDate(booking.getCheck_in()) + " to " + formatDate(booking.getCheck_out());
+            table.addCell(cell(description , Element.ALIGN_LEFT));
+            table.addCell(cell(formatDate(booking.getCheck_in()) , Element.ALIGN_LEFT));
+            table.addCell(cell(formatDate(booking.getCheck_out()) , Element.ALIGN_LEFT));
+            table.addCell(cell(amountStr , Element.ALIGN_RIGHT));
+        } else {
+            for (LineItem item : lineItems(charges)) {
+                String description = "Room " + item.roomNumber() + " - " + item.nights() + (item.nights() == 1 ? " night" : " nights")
+                        + " x " + formatMoney(BigDecimal.valueOf(item.price()) , booking.getCurrency());
+                table.addCell(cell(description , Element.ALIGN_LEFT));
+                table.addCell(cell(formatDate(item.from()) , Element.ALIGN_LEFT));
+                table.addCell(cell(formatDate(item.from().plusDays(item.nights())) , Element.ALIGN_LEFT));
+                table.addCell(cell(formatMoney(BigDecimal.valueOf((long) item.price() * item.nights()) , booking.getCurrency()) , Element.ALIGN_RIGHT));
+            }
+        }
 
         document.add(table);
 
@@ -142,6 +157,28 @@ public class PdfInvoiceService {
         document.close();
     }
 
+    // consecutive nights of the same room at the same price become one line
+    private List<LineItem> lineItems(List<NightCharge> charges) {
+        List<LineItem> items = new ArrayList<>();
+        LineItem current = null;
+        for (NightCharge charge : charges) {
+            if (current != null
+                    && current.roomId().equals(charge.roomId())
+                    && current.price() == charge.price()
+                    && current.from().plusDays(current.nights()).equals(charge.night())) {
+                current = new LineItem(current.roomId(), current.roomNumber(), current.from(), current.nights() + 1, current.price());
+                items.set(items.size() - 1, current);
+            } else {
+                current = new LineItem(charge.roomId(), charge.roomNumber(), charge.night(), 1, charge.price());
+                items.add(current);
+            }
+        }
+        return items;
+    }
+
+    private record LineItem(Long roomId, String roomNumber, LocalDate from, int nights, int price) {
+    }
+
     private void addMetadata(Document document , String invoiceNumber) {
         document.addTitle("Invoice " + invoiceNumber  );
         document.addSubject("Reservation Invoice");
@@ -2,6 +2,7 @@ package com.example.reservation_system.business_logic.payments;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
@@ -11,7 +12,10 @@ import java.util.Optional;
 public interface PaymentRepository extends JpaRepository<Payment , Long> {
 
     Optional<Payment> findByProvider (String provider);
-    Optional<Payment> findByProviderRef (String provider_ref);
+
+    // provider_ref is unique (V13): one row per Stripe payment intent
+    @Query("SELECT p FROM Payment p WHERE p.provider_ref = :providerRef")
+    Optional<Payment> findByProviderRef(@Param("providerRef") String providerRef);
 
     @Query("SELECT COALESCE(count(p.amount) , 0)FROM Payment p")
     BigDecimal getTotalAmount();
@@ -1,9 +1,10 @@
 package com.example.reservation_system.business_logic.payments;
 
+import com.example.reservation_system.business_logic.admin_dashboard.DashboardCounters;
+import com.example.reservation_system.business_logic.analytics.DailyStatsService;
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.bookings.BookingRepository;
 import com.example.reservation_system.business_logic.bookings.BookingStatus;
-import com.example.reservation_system.business_logic.invoice.InvoiceService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
@@ -15,6 +16,7 @@ import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /*
 The Stripe Java library is a client/wrapper that makes it easy 
@@ -56,19 +58,32 @@ public class StripeService {
     @Value("${stripe.webhook-sercret")
     private String webhookSecret;
 
+    /* Optional base URL of a local Stripe stand-in (e.g. stripe-mock) for tests and development. */
+    @Value("${stripe.api-base:}")
+    private String stripeApiBase;
+
+    @Value("${app.payments.webhook.reconciliation:ON_MISMATCH}")
+    private WebhookReconciliation reconciliation = WebhookReconciliation.ON_MISMATCH;
+
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
-    private final InvoiceService invoiceService;
+    private final DashboardCounters dashboardCounters;
+    private final DailyStatsService dailyStatsService;
 
-    public StripeService(BookingRepository bookingRepository, PaymentRepository paymentRepository, InvoiceService invoiceService) {
+    public StripeService(BookingRepository bookingRepository, PaymentRepository paymentRepository,
+                         DashboardCounters dashboardCounters, DailyStatsService dailyStatsService) {
         this.bookingRepository = bookingRepository;
         this.paymentRepository = paymentRepository;
-        this.invoiceService = invoiceService;
+        this.dashboardCounters = dashboardCounters;
+        this.dailyStatsService = dailyStatsService;
     }
 
     @PostConstruct 
     public void init() {
         Stripe.apiKey = stripeSecretKey; 
+        if (stripeApiBase != null && !stripeApiBase.isEmpty()) {
+            Stripe.overrideApiBase(stripeApiBase);
+        }
     }
 
     /**
@@ -81,9 +96,7 @@ public class StripeService {
 
     public String createPaymentIntent(Booking booking) throws StripeException {
          // Convert BigDecimal to cents (Stripe uses smallest currency unit)
-         long amountInCents = booking.getTotal_amount()
-         .multiply(BigDecimal.valueOf(100))
-         .longValue();
+         long amountInCents = toMinorUnits(booking.getTotal_amount());
 
          Map<String , String> metadata = createMetadata(booking);
 
@@ -103,17 +116,9 @@ public class StripeService {
          PaymentIntentCreateParams params = paramsBuilder.build();
          PaymentIntent paymentIntent = PaymentIntent.create(params);
 
-         //Store payment intent ID in booking
-
-         String paymentIntentId = paymentIntent.getId();
-         String numericPart = paymentIntentId.replace("pi_" , "");
-
-         try {
-            booking.setPayment_intent_id(Long.parseLong(numericPart));
-            bookingRepository.save(booking);
-         }catch (NumberFormatException e) {
-            throw new IllegalStateException("Failed to parse payment intent ID :" + paymentIntentId );
-         }
+         //Store payment intent ID in booking, webhooks look the booking up by it
+         booking.setPayment_intent_id(paymentIntent.getId());
+         bookingRepository.save(booking);
 
          return paymentIntent.getClientSecret();
     }
@@ -125,36 +130,45 @@ public class StripeService {
      */
 
      public Booking handlePaymentSuccess(String paymentIntentId) throws StripeException {
-        PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-
-        //Find booking by payment intent ID
-        String paymentIntentIdStr = paymentIntent.getId();
-        Long paymentIntentIdLong = Long.parseLong(paymentIntentIdStr.replace("pi_" , ""));
-
-        Booking booking = bookingRepository.findAll().stream()
-            .filter(b -> b.getPayment_intent_id() != null && 
-                    b.getPayment_intent_id().equals(paymentIntentIdLong))
-            .findFirst()
-            .orElseThrow(() -> new IllegalStateException("Booking not found for payment intent: " + paymentIntentId));
-     
+        return handlePaymentSuccess(PaymentIntent.retrieve(paymentIntentId));
+    }
+
+    /**
+     * Handles successful payment from the PaymentIntent carried by a verified webhook event.
+     * Stripe is only asked again when the reconciliation mode requires it. A redelivered event for a
+     * booking that is already confirmed and paid by this intent changes nothing. The invoice is not
+     * generated here: it renders a PDF, so the caller issues it once this transaction has committed.
+     */
+    public Booking handlePaymentSuccess(PaymentIntent eventIntent) throws StripeException {
+        Booking booking = findBooking(eventIntent)
+            .orElseThrow(() -> new IllegalStateException("Booking not found for payment intent: " + eventIntent.getId()));
+
+        Optional<Payment> existing = paymentRepository.findByProviderRef(eventIntent.getId());
+        boolean paid = existing.filter(p -> p.getStatus() == PayementStatus.COMPLETED).isPresent();
+        if (paid && booking.getStatus() == BookingStatus.CONFIRMED) {
+            return booking;
+        }
+
+        PaymentIntent paymentIntent = reconcile(eventIntent, "succeeded", booking);
+
+        BookingStatus before = booking.getStatus();
         booking.setStatus(BookingStatus.CONFIRMED);
         booking.setUpdated_at(java.time.LocalDate.now());
         bookingRepository.save(booking);
+        dashboardCounters.statusChanged(booking, before);
+        dailyStatsService.markStay(booking.getCheck_in(), booking.getCheck_out());
 
-        Payment payment = new Payment();
-        payment.setProvider("stripe");
-        payment.setProvider_ref(paymentIntentId);
-        payment.setAmount(paymentIntent.getAmount().intValue());
-        payment.setStatus(PayementStatus.COMPLETED);
-        payment.setCreated_at(java.time.LocalDate.now());
-        payment.setBooking(booking);
-        paymentRepository.save(payment);
-
-        // Generate professional PDF invoice (idempotent)
-        try {
-            invoiceService.createInvoiceForBooking(booking);
-        } catch (Exception e) {
-            // Log but do not fail webhook; invoice can be generated later via API
+        if (!paid) {
+            // One row per intent (unique provider_ref): an earlier failed attempt is upgraded in place
+            Payment payment = existing.orElseGet(Payment::new);
+            payment.setProvider("stripe");
+            payment.setProvider_ref(paymentIntent.getId());
+            payment.setAmount(paymentIntent.getAmount().intValue());
+            payment.setStatus(PayementStatus.COMPLETED);
+            payment.setCreated_at(java.time.LocalDate.now());
+            payment.setBooking(booking);
+            paymentRepository.save(payment);
+            dashboardCounters.paymentCompleted(payment.getAmount());
         }
 
         return booking;
@@ -166,21 +180,22 @@ public class StripeService {
     */
 
     public void handlePaymentFailure(String paymentIntedId) throws StripeException {
-        PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntedId);
+        handlePaymentFailure(PaymentIntent.retrieve(paymentIntedId));
+    }
 
-        String paymentIntendIdStr = paymentIntent.getId();
-        Long paymentIntendIdLong = Long.parseLong(paymentIntendIdStr.replace("pi_" , "" ));
+    /*
+     * Records the failed attempt once per intent. A failure arriving after the intent was paid
+     * (events can be delivered out of order) never downgrades the completed payment.
+     */
+    public void handlePaymentFailure(PaymentIntent eventIntent) throws StripeException {
+        Booking booking = findBooking(eventIntent).orElse(null);
 
-        Booking booking = bookingRepository.findAll().stream()
-            .filter(b -> b.getPayment_intent_id() != null && 
-                    b.getPayment_intent_id().equals(paymentIntendIdLong))
-            .findFirst()
-            .orElse(null);
+        if(booking != null && paymentRepository.findByProviderRef(eventIntent.getId()).isEmpty()) {
+            PaymentIntent paymentIntent = reconcile(eventIntent, "requires_payment_method", booking);
 
-        if(booking != null) {
             Payment payment = new Payment();
             payment.setProvider("stripe");
-            payment.setProvider_ref(paymentIntedId);
+            payment.setProvider_ref(paymentIntent.getId());
             payment.setAmount(paymentIntent.getAmount().intValue());
             payment.setStatus(PayementStatus.REJECTED);
             payment.setCreated_at(java.time.LocalDate.now());
@@ -189,6 +204,66 @@ public class StripeService {
         }
     }
 
+    /*
+     * The booking is found by the indexed payment intent id; metadata.booking_id covers intents
+     * whose id was never stored on the booking (e.g. created from the Stripe dashboard).
+     */
+    private Optional<Booking> findBooking(PaymentIntent paymentIntent) {
+        Optional<Booking> booking = bookingRepository.findByPaymentIntentId(paymentIntent.getId());
+        if (booking.isPresent()) {
+            return booking;
+        }
+
+        String bookingId = paymentIntent.getMetadata() != null ? paymentIntent.getMetadata().get("booking_id") : null;
+        if (bookingId == null) {
+            return Optional.empty();
+        }
+        long id;
+        try {
+            id = Long.parseLong(bookingId);
+        } catch (NumberFormatException e) {
+            throw new UnprocessableWebhookEventException("Invalid booking_id metadata '" + bookingId + "' on payment intent " + paymentIntent.getId());
+        }
+        return bookingRepository.findById(id)
+            .filter(b -> b.getPayment_intent_id() == null || b.getPayment_intent_id().equals(paymentIntent.getId()));
+    }
+
+    /*
+     * Returns the intent to work from: the event payload itself, or a fresh copy from Stripe when the
+     * reconciliation mode asks for it (always, or when the payload disagrees with what we expect).
+     * A fresh copy that still disagrees fails the event, so the inbox retries it and eventually parks it.
+     */
+    private PaymentIntent reconcile(PaymentIntent eventIntent, String expectedStatus, Booking booking) throws StripeException {
+        boolean refetch = switch (reconciliation) {
+            case ALWAYS -> true;
+            case NEVER -> false;
+            case ON_MISMATCH -> !matches(eventIntent, expectedStatus, booking);
+        };
+        if (!refetch) {
+            return eventIntent;
+        }
+
+        PaymentIntent paymentIntent = PaymentIntent.retrieve(eventIntent.getId());
+        if (!matches(paymentIntent, expectedStatus, booking)) {
+            throw new IllegalStateException("Payment intent " + paymentIntent.getId() + " (" + paymentIntent.getStatus() + ", "
+                + paymentIntent.getAmount() + " " + paymentIntent.getCurrency() + ") does not match booking " + booking.getId()
+                + " (" + expectedStatus + ", " + toMinorUnits(booking.getTotal_amount()) + " " + booking.getCurrency() + ")");
+        }
+        return paymentIntent;
+    }
+
+    private static boolean matches(PaymentIntent paymentIntent, String expectedStatus, Booking booking) {
+        return expectedStatus.equals(paymentIntent.getStatus())
+            && paymentIntent.getAmount() != null
+            && paymentIntent.getAmount() == toMinorUnits(booking.getTotal_amount())
+            && paymentIntent.getCurrency() != null
+            && paymentIntent.getCurrency().equalsIgnoreCase(booking.getCurrency());
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.multiply(BigDecimal.valueOf(100)).longValue();
+    }
+
     private Map<String , String> createMetadata(Booking booking) {
         Map<String , String> metadata = new HashMap<>();
         metadata.put("booking_id" , booking.getId().toString());
@@ -0,0 +1,46 @@
+package com.example.reservation_system.business_logic.payments;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One verified Stripe webhook event waiting in (or done with) the inbox.
+ */
+@Entity
+@Table(name = "stripe_webhook_inbox")
+@Getter
+@Setter
+@NoArgsConstructor
+
+public class StripeWebhookEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String event_id;
+
+    private String event_type;
+
+    private String payment_intent_id;
+
+    private String booking_key;
+
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    private WebhookEventStatus status;
+
+    private int attempts;
+
+    private String last_error;
+
+    private LocalDateTime received_at;
+
+    private LocalDateTime available_at;
+
+    private LocalDateTime claimed_at;
+
+    private LocalDateTime processed_at;
+}
@@ -0,0 +1,94 @@
+package com.example.reservation_system.business_logic.payments;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent , Long> {
+
+    /**
+     * Appends the event unless an event with the same Stripe id is already in the inbox.
+     * @return 1 when appended, 0 for a redelivered event
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO stripe_webhook_inbox (event_id, event_type, payment_intent_id, booking_key, payload)
+        VALUES (:eventId, :eventType, :paymentIntentId, :bookingKey, :payload)
+        ON CONFLICT (event_id) DO NOTHING
+        """, nativeQuery = true)
+    int appendIfAbsent(@Param("eventId") String eventId,
+                       @Param("eventType") String eventType,
+                       @Param("paymentIntentId") String paymentIntentId,
+                       @Param("bookingKey") String bookingKey,
+                       @Param("payload") String payload);
+
+    /**
+     * Claims up to {@code limit} due events and marks them PROCESSING.
+     * Only the oldest open event of each booking is eligible, so events of one booking are handled
+     * strictly in arrival order while different bookings proceed in parallel. SKIP LOCKED lets
+     * several application instances poll the same inbox.
+     */
+    @Query(value = """
+        UPDATE stripe_webhook_inbox
+        SET status = 'PROCESSING',
+            claimed_at = now(),
+            attempts = attempts + 1
+        WHERE id IN (
+            SELECT i.id FROM stripe_webhook_inbox i
+            WHERE i.status = 'PENDING'
+              AND i.available_at <= now()
+              AND NOT EXISTS (
+                  SELECT 1 FROM stripe_webhook_inbox o
+                  WHERE o.booking_key = i.booking_key
+                    AND o.id < i.id
+                    AND o.status IN ('PENDING', 'PROCESSING'))
+            ORDER BY i.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED)
+        RETURNING *
+        """, nativeQuery = true)
+    List<StripeWebhookEvent> claimNext(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+        UPDATE stripe_webhook_inbox
+        SET status = 'DONE',
+            processed_at = now(),
+            last_error = NULL
+        WHERE id = :id
+        """, nativeQuery = true)
+    int markDone(@Param("id") Long id);
+
+    /**
+     * Schedules another attempt after {@code delayMs}, or parks the event as FAILED once it used up its attempts.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE stripe_webhook_inbox
+        SET status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END,
+            available_at = now() + make_interval(secs => :delayMs / 1000.0),
+            last_error = :error
+        WHERE id = :id
+        """, nativeQuery = true)
+    int markFailed(@Param("id") Long id,
+                   @Param("error") String error,
+                   @Param("maxAttempts") int maxAttempts,
+                   @Param("delayMs") long delayMs);
+
+    /**
+     * Returns events claimed by a worker that died before finishing them.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE stripe_webhook_inbox
+        SET status = 'PENDING'
+        WHERE status = 'PROCESSING'
+          AND claimed_at < now() - make_interval(secs => :leaseMs / 1000.0)
+        """, nativeQuery = true)
+    int releaseExpiredClaims(@Param("leaseMs") long leaseMs);
+}
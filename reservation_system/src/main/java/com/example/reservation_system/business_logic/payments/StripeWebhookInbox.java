@@ -0,0 +1,51 @@
+package com.example.reservation_system.business_logic.payments;
+
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeObject;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+/**
+ * Durable inbox for verified Stripe webhook events. The webhook endpoint only appends here and
+ * acknowledges; {@link StripeWebhookWorker} does the actual booking and payment work later.
+ */
+@Service
+public class StripeWebhookInbox {
+    static final String PAYMENT_SUCCEEDED = "payment_intent.succeeded";
+    static final String PAYMENT_FAILED = "payment_intent.payment_failed";
+
+    private static final Set<String> HANDLED_TYPES = Set.of(PAYMENT_SUCCEEDED, PAYMENT_FAILED);
+
+    private final StripeWebhookEventRepository stripeWebhookEventRepository;
+
+    public StripeWebhookInbox(StripeWebhookEventRepository stripeWebhookEventRepository) {
+        this.stripeWebhookEventRepository = stripeWebhookEventRepository;
+    }
+
+    public boolean handles(Event event) {
+        return HANDLED_TYPES.contains(event.getType());
+    }
+
+    /**
+     * Stores the event with its raw payload. Redelivered events (same Stripe event id) are ignored.
+     * @return true when the event was new
+     */
+    @Transactional
+    public boolean append(Event event, String payload) {
+        String paymentIntentId = null;
+        String bookingKey = event.getId();
+
+        StripeObject object = event.getDataObjectDeserializer().getObject().orElse(null);
+        if (object instanceof PaymentIntent paymentIntent) {
+            paymentIntentId = paymentIntent.getId();
+            String bookingId = paymentIntent.getMetadata() != null ? paymentIntent.getMetadata().get("booking_id") : null;
+            // events of one booking must be processed in order; fall back to the intent when metadata is missing
+            bookingKey = bookingId != null ? "booking:" + bookingId : "intent:" + paymentIntentId;
+        }
+
+        return stripeWebhookEventRepository.appendIfAbsent(event.getId(), event.getType(), paymentIntentId, bookingKey, payload) == 1;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.reservation_system.business_logic.payments;
+
+import com.example.reservation_system.business_logic.bookings.Booking;
+import com.example.reservation_system.business_logic.invoice.InvoiceService;
+import com.google.gson.JsonParseException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeObject;
+import com.stripe.net.ApiResource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Drains the Stripe webhook inbox on virtual threads.
+ *
+ * The poller claims at most as many events as there are free worker permits, so the number of
+ * events in flight never exceeds max-concurrency. The claim query only hands out the oldest open
+ * event of each booking, which keeps per-booking ordering without any in-memory bookkeeping.
+ * Each event is handled and marked DONE in one transaction; failures are retried with backoff
+ * until max-attempts, then parked as FAILED for manual inspection. Events that can never succeed
+ * (unreadable payload, malformed metadata) are parked on their first attempt.
+ * The invoice for a paid booking is rendered only after that transaction has committed, so the PDF
+ * work neither holds the database connection nor rolls back the payment when it fails.
+ */
+@Component
+public class StripeWebhookWorker {
+    private static final Logger log = LoggerFactory.getLogger(StripeWebhookWorker.class);
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final StripeWebhookEventRepository stripeWebhookEventRepository;
+    private final StripeService stripeService;
+    private final InvoiceService invoiceService;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore permits;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.payments.webhook.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${app.payments.webhook.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    @Value("${app.payments.webhook.claim-lease-ms:300000}")
+    private long claimLeaseMs = 300000;
+
+    public StripeWebhookWorker(StripeWebhookEventRepository stripeWebhookEventRepository,
+                               StripeService stripeService,
+                               InvoiceService invoiceService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.payments.webhook.max-concurrency:16}") int maxConcurrency) {
+        this.stripeWebhookEventRepository = stripeWebhookEventRepository;
+        this.stripeService = stripeService;
+        this.invoiceService = invoiceService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.webhook.poll-interval-ms:200}")
+    public void poll() {
+        int free = permits.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<StripeWebhookEvent> claimed = transactionTemplate.execute(status -> stripeWebhookEventRepository.claimNext(free));
+        for (StripeWebhookEvent event : claimed) {
+            permits.acquireUninterruptibly();
+            workers.submit(() -> {
+                try {
+                    process(event);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.webhook.claim-lease-ms:300000}")
+    public void releaseExpiredClaims() {
+        Integer released = transactionTemplate.execute(status -> stripeWebhookEventRepository.releaseExpiredClaims(claimLeaseMs));
+        if (released != null && released > 0) {
+            log.warn("Released {} webhook events whose worker did not finish within {} ms", released, claimLeaseMs);
+        }
+    }
+
+    void process(StripeWebhookEvent event) {
+        Booking paid;
+        try {
+            paid = transactionTemplate.execute(status -> {
+                Booking booking = dispatch(event);
+                stripeWebhookEventRepository.markDone(event.getId());
+                return booking;
+            });
+        } catch (UnprocessableWebhookEventException e) {
+            log.error("Parking webhook event {} ({}): {}", event.getEvent_id(), event.getEvent_type(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                stripeWebhookEventRepository.markFailed(event.getId(), truncate(e.toString()), 0, 0));
+            return;
+        } catch (RuntimeException e) {
+            long delay = retryBackoffMs << Math.min(event.getAttempts() - 1, 10);
+            log.warn("Webhook event {} ({}) failed on attempt {}: {}", event.getEvent_id(), event.getEvent_type(), event.getAttempts(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                stripeWebhookEventRepository.markFailed(event.getId(), truncate(e.toString()), maxAttempts, delay));
+            return;
+        }
+        if (paid != null) {
+            issueInvoice(paid);
+        }
+    }
+
+    /*
+     * The event is already DONE at this point, so a failure here is only logged: the invoice is
+     * idempotent and can be generated later through the invoice API.
+     */
+    private void issueInvoice(Booking booking) {
+        try {
+            invoiceService.createInvoiceForBooking(booking);
+        } catch (RuntimeException e) {
+            log.warn("Invoice for booking {} was not generated: {}", booking.getId(), e.getMessage());
+        }
+    }
+
+    /*
+     * Returns the booking a successful payment confirmed, or null for events that confirm nothing.
+     */
+    private Booking dispatch(StripeWebhookEvent event) {
+        PaymentIntent paymentIntent = paymentIntentFromPayload(event);
+        try {
+            switch (event.getEvent_type()) {
+                case StripeWebhookInbox.PAYMENT_SUCCEEDED -> {
+                    return paymentIntent != null
+                        ? stripeService.handlePaymentSuccess(paymentIntent)
+                        : stripeService.handlePaymentSuccess(event.getPayment_intent_id());
+                }
+                case StripeWebhookInbox.PAYMENT_FAILED -> {
+                    if (paymentIntent != null) {
+                        stripeService.handlePaymentFailure(paymentIntent);
+                    } else {
+                        stripeService.handlePaymentFailure(event.getPayment_intent_id());
+                    }
+                    return null;
+                }
+                default -> {
+                    log.debug("Ignoring webhook event {} of type {}", event.getEvent_id(), event.getEvent_type());
+                    return null;
+                }
+            }
+        } catch (StripeException e) {
+            throw new IllegalStateException("Stripe call failed for event " + event.getEvent_id(), e);
+        }
+    }
+
+    /*
+     * The payload was verified before it was stored, so the PaymentIntent it carries can be used as-is.
+     * Returns null when the payload has no payment intent object, or one Stripe cannot deserialize for
+     * this library's API version; the caller then fetches the intent by id.
+     */
+    PaymentIntent paymentIntentFromPayload(StripeWebhookEvent event) {
+        Event stripeEvent;
+        try {
+            stripeEvent = ApiResource.GSON.fromJson(event.getPayload(), Event.class);
+        } catch (JsonParseException e) {
+            throw new UnprocessableWebhookEventException("Unreadable payload for webhook event " + event.getEvent_id() + ": " + e.getMessage());
+        }
+        if (stripeEvent == null || stripeEvent.getData() == null) {
+            throw new UnprocessableWebhookEventException("Webhook event " + event.getEvent_id() + " has no data object");
+        }
+
+        StripeObject object = stripeEvent.getDataObjectDeserializer().getObject().orElse(null);
+        return object instanceof PaymentIntent paymentIntent ? paymentIntent : null;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
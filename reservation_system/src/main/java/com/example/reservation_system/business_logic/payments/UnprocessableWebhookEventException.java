@@ -0,0 +1,12 @@
+package com.example.reservation_system.business_logic.payments;
+
+/**
+ * Thrown for a webhook event that can never be handled, e.g. because its metadata is malformed.
+ * {@link StripeWebhookWorker} parks such events right away instead of retrying them.
+ */
+class UnprocessableWebhookEventException extends RuntimeException {
+
+    UnprocessableWebhookEventException(String message) {
+        super(message);
+    }
+}
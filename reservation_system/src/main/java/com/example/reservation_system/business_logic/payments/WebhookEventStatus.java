@@ -0,0 +1,8 @@
+package com.example.reservation_system.business_logic.payments;
+
+public enum WebhookEventStatus {
+    PENDING ,
+    PROCESSING ,
+    DONE ,
+    FAILED ,
+}
@@ -0,0 +1,13 @@
+package com.example.reservation_system.business_logic.payments;
+
+/**
+ * When webhook handling asks Stripe for the PaymentIntent again instead of trusting the verified event payload.
+ */
+public enum WebhookReconciliation {
+    /** Always work from the payload. */
+    NEVER,
+    /** Re-fetch when the payload is incomplete, has an unexpected status or an amount that differs from the booking. */
+    ON_MISMATCH,
+    /** Re-fetch every intent, as before events were processed from their payload. */
+    ALWAYS
+}
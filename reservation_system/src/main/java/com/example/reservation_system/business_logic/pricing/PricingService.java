@@ -2,33 +2,46 @@ package com.example.reservation_system.business_logic.pricing;
 
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
-import com.example.reservation_system.business_logic.rates.Rates;
-import com.example.reservation_system.business_logic.rates.RatesRepository;
-import com.example.reservation_system.business_logic.room.RoomRepository;
+import com.example.reservation_system.business_logic.rates.RateIndex;
+import com.example.reservation_system.business_logic.rates.RateSnapshot;
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Calculates seasonal rates and total amounts for bookings.
- * Uses the rates table (room_type + start_date/end_date) to resolve price per night.
+ * Uses the rates table (room_type + start_date/end_date) to resolve price per night,
+ * read through the in-memory {@link RateIndex} so quotes do not query the database per night.
  */
 @Service
 public class PricingService {
-    private final RatesRepository ratesRepository;
+    private final RateIndex rateIndex;
     private final BookingRoomsRepository bookingRoomsRepository;
-    private final RoomRepository roomRepository;
+    private final RoomCatalog roomCatalog;
+    private final QuoteTokenService quoteTokenService;
 
-    public PricingService(RatesRepository ratesRepository,
+    // the rates table has no currency column; every rate and quote is in this one
+    @Value("${app.pricing.currency:USD}")
+    private String currency = "USD";
+
+    public PricingService(RateIndex rateIndex,
                          BookingRoomsRepository bookingRoomsRepository,
-                         RoomRepository roomRepository) {
-        this.ratesRepository = ratesRepository;
+                         RoomCatalog roomCatalog,
+                         QuoteTokenService quoteTokenService) {
+        this.rateIndex = rateIndex;
         this.bookingRoomsRepository = bookingRoomsRepository;
-        this.roomRepository = roomRepository;
+        this.roomCatalog = roomCatalog;
+        this.quoteTokenService = quoteTokenService;
     }
 
     /**
@@ -37,23 +50,27 @@ public class PricingService {
      */
 
     public int getSeasonRatePerNightPrice(String roomType, LocalDate nightDate) {
-        List<Rates> applicable = ratesRepository.findApplicableRatesForDate(roomType, nightDate);
-        if (applicable.isEmpty()) {
-            throw new IllegalStateException(
-                "No seasonal rate defined for that room type: " + roomType + " " + nightDate
-            );
-        }
-        return applicable.get(0).getPrice();
+        return rateIndex.priceFor(roomType, nightDate);
     }
 
 
       /**
      * Calculates the total amount for a stay: for each night from check-in (inclusive) to
      * check-out (exclusive), and for each room type, adds the seasonal rate.
-     * So total = sum over (each night × each room) of getSeasonalRateForNight(roomType, night).
+     * Each distinct room type is priced once by sweeping its rate segments (see
+     * {@link com.example.reservation_system.business_logic.rates.RateTimeline#stayTotalMinorUnits})
+     * and multiplied by the number of rooms of that type; sums stay in long cents until the end.
      */
 
       public BigDecimal calculateTotalAmount (LocalDate checkIn, LocalDate checkOut , List<String> roomTypes) {
+            return calculateTotalAmount(rateIndex.snapshot(), checkIn, checkOut, roomTypes);
+      }
+
+      /**
+       * Same as {@link #calculateTotalAmount(LocalDate, LocalDate, List)} against a given rate snapshot,
+       * so a batch of quotes is priced consistently.
+       */
+      public BigDecimal calculateTotalAmount (RateSnapshot rates, LocalDate checkIn, LocalDate checkOut , List<String> roomTypes) {
             if (checkOut == null || !checkOut.isAfter(checkIn)) {
                 return BigDecimal.ZERO;
             }
@@ -61,17 +78,16 @@ public class PricingService {
             if (roomTypes == null || roomTypes.isEmpty()) {
                 return BigDecimal.ZERO;
             }
-            BigDecimal total = BigDecimal.ZERO;
-            LocalDate night = checkIn;
 
-            while (night.isBefore(checkOut)) {
-                for (String roomType : roomTypes) {
-                    int price = getSeasonRatePerNightPrice(roomType, night);
-                    total = total.add(BigDecimal.valueOf(price));
-                }
-                night = night.plusDays(1);
+            Map<String, Long> roomsPerType = roomTypes.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+            long totalMinorUnits = 0;
+            for (Map.Entry<String, Long> entry : roomsPerType.entrySet()) {
+                long stayPerRoom = rates.timeline(entry.getKey()).stayTotalMinorUnits(checkIn, checkOut);
+                totalMinorUnits = Math.addExact(totalMinorUnits, Math.multiplyExact(stayPerRoom, entry.getValue()));
             }
-            return total ;
+            return BigDecimal.valueOf(totalMinorUnits, 2);
       }
 
     /**
@@ -95,13 +111,79 @@ public class PricingService {
         if (roomIds == null || roomIds.isEmpty()) {
             return BigDecimal.ZERO;
         }
-        List<String> roomTypes = roomIds.stream()
-            .map(roomRepository::findById)
-            .filter(opt -> opt.isPresent())
-            .map(opt -> opt.get().getType())
+        return calculateTotalAmount(checkIn , checkOut , findRoomTypes(roomIds));
+    }
+
+    /**
+     * Prices the stay against the given rate snapshot and signs the result, so the booking can be
+     * created from the quote without pricing again. The room types are already resolved, one per
+     * room id and in the same order.
+     * @throws IllegalStateException if any night of the stay has no rate for one of the room types
+     */
+    public Quote issueQuote(RateSnapshot rates, QuoteRequest request, List<String> roomTypes) {
+        BigDecimal total = calculateTotalAmount(rates, request.checkIn(), request.checkOut(), roomTypes);
+        Instant expiresAt = quoteTokenService.nextExpiry();
+        String token = quoteTokenService.issue(request.checkIn(), request.checkOut(), request.roomIds(), total, currency, rates.version(), expiresAt);
+        return new Quote(request.checkIn(), request.checkOut(), request.roomIds(), total, currency, token, expiresAt, null);
+    }
+
+    /**
+     * Nightly prices of the stay [checkIn, checkOut) for each room, in the order of the room ids;
+     * entry i holds one price per night for room i. These are the prices written to booking_nights,
+     * and they add up to {@link #calculateTotalForRoomIds}.
+     * @throws IllegalArgumentException if one of the rooms does not exist
+     * @throws IllegalStateException if any night of the stay has no rate for one of the room types
+     */
+    public List<int[]> nightlyPrices(LocalDate checkIn, LocalDate checkOut, List<Long> roomIds) {
+        return nightlyPrices(rateIndex.snapshot(), checkIn, checkOut, roomIds);
+    }
+
+    /**
+     * Same as {@link #nightlyPrices(LocalDate, LocalDate, List)} against a given rate snapshot, so a
+     * booking's nights and its total come from the same rates.
+     */
+    public List<int[]> nightlyPrices(RateSnapshot rates, LocalDate checkIn, LocalDate checkOut, List<Long> roomIds) {
+        List<Room> rooms = roomCatalog.findAllById(roomIds);
+        if (rooms.size() != roomIds.size()) {
+            throw new IllegalArgumentException("Room not found for one of the room ids " + roomIds);
+        }
+
+        return rooms.stream()
+            .map(room -> {
+                if (room.getType() == null) {
+                    throw new IllegalStateException("No seasonal rate defined for room without a type: " + room.getId());
+                }
+                return rates.timeline(room.getType()).nightlyPrices(checkIn, checkOut);
+            })
             .collect(Collectors.toList());
+    }
 
-        return calculateTotalAmount(checkIn , checkOut , roomTypes);
+    /**
+     * Total of the nightly prices returned by {@link #nightlyPrices}; the rates are whole currency units.
+     */
+    public static BigDecimal totalOf(List<int[]> nightlyPrices) {
+        long total = 0;
+        for (int[] prices : nightlyPrices) {
+            for (int price : prices) {
+                total = Math.addExact(total, price);
+            }
+        }
+        return BigDecimal.valueOf(total).setScale(2);
+    }
+
+    /**
+     * The current rates; price every part of one booking against the same snapshot.
+     */
+    public RateSnapshot rateSnapshot() {
+        return rateIndex.snapshot();
+    }
+
+    // a room listed twice is priced twice
+    private List<String> findRoomTypes(List<Long> roomIds) {
+        return roomCatalog.findAllById(roomIds).stream()
+            .map(Room::getType)
+            .filter(type -> type != null)
+            .collect(Collectors.toList());
     }
 
 
@@ -0,0 +1,25 @@
+package com.example.reservation_system.business_logic.pricing;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of one {@link QuoteRequest}. Either total, currency, quoteToken and expiresAt are set, or error is.
+ * The quote token is passed back when booking the stay; see {@link QuoteTokenService}.
+ */
+public record Quote(
+    LocalDate checkIn,
+    LocalDate checkOut,
+    List<Long> roomIds,
+    BigDecimal total,
+    String currency,
+    String quoteToken,
+    Instant expiresAt,
+    String error
+) {
+    static Quote failed(QuoteRequest request, String error) {
+        return new Quote(request.checkIn(), request.checkOut(), request.roomIds(), null, null, null, null, error);
+    }
+}
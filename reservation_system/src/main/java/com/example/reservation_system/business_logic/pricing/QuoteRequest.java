@@ -0,0 +1,13 @@
+package com.example.reservation_system.business_logic.pricing;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One stay to quote: the nights [checkIn, checkOut) in the given rooms. A room listed twice is priced twice.
+ */
+public record QuoteRequest(
+    LocalDate checkIn,
+    LocalDate checkOut,
+    List<Long> roomIds
+) {}
@@ -0,0 +1,158 @@
+package com.example.reservation_system.business_logic.pricing;
+
+import com.example.reservation_system.business_logic.rates.RateIndex;
+import com.example.reservation_system.business_logic.rates.RateSnapshot;
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices many stays in one call for channel managers.
+ *
+ * A batch costs no queries: rooms come from the {@link RoomCatalog} in one lookup over every room id
+ * in it, and all quotes are priced against the same {@link RateSnapshot}. The pricing itself is
+ * CPU-only, so large batches are split into chunks on a pool sized to the cores. The pool's queue
+ * is bounded; when it is full the calling request thread prices the chunk itself.
+ *
+ * A quote that cannot be priced (unknown room, night without a rate, bad dates) carries an error
+ * and does not fail the rest of the batch.
+ */
+@Service
+public class QuoteService {
+    private final PricingService pricingService;
+    private final RoomCatalog roomCatalog;
+    private final RateIndex rateIndex;
+    private final ThreadPoolExecutor pool;
+    private final int parallelism;
+
+    @Value("${app.pricing.quote.max-batch-size:500}")
+    private int maxBatchSize = 500;
+
+    // batches up to this size are priced on the request thread; handing them off costs more than it saves
+    @Value("${app.pricing.quote.min-chunk-size:32}")
+    private int minChunkSize = 32;
+
+    public QuoteService(PricingService pricingService,
+                        RoomCatalog roomCatalog,
+                        RateIndex rateIndex,
+                        @Value("${app.pricing.quote.parallelism:0}") int parallelism,
+                        @Value("${app.pricing.quote.queue-capacity:256}") int queueCapacity) {
+        this.pricingService = pricingService;
+        this.roomCatalog = roomCatalog;
+        this.rateIndex = rateIndex;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofPlatform().name("quote-", 0).daemon(true).factory(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public Quote quote(QuoteRequest request) {
+        return quoteBatch(List.of(request)).get(0);
+    }
+
+    /**
+     * Prices every request; the result list has the same order as the input.
+     * @throws IllegalArgumentException if the batch is larger than max-batch-size
+     */
+    public List<Quote> quoteBatch(List<QuoteRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " quotes per batch");
+        }
+
+        Map<Long, String> typeById = roomTypes(requests);
+        RateSnapshot rates = rateIndex.snapshot();
+
+        if (requests.size() <= minChunkSize) {
+            return price(requests, typeById, rates);
+        }
+
+        int chunkSize = Math.max(minChunkSize, (requests.size() + parallelism - 1) / parallelism);
+        List<CompletableFuture<List<Quote>>> chunks = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<QuoteRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> price(chunk, typeById, rates), pool));
+        }
+
+        List<Quote> quotes = new ArrayList<>(requests.size());
+        for (CompletableFuture<List<Quote>> chunk : chunks) {
+            quotes.addAll(chunk.join());
+        }
+        return quotes;
+    }
+
+    private Map<Long, String> roomTypes(List<QuoteRequest> requests) {
+        Set<Long> roomIds = new LinkedHashSet<>();
+        for (QuoteRequest request : requests) {
+            if (request != null && request.roomIds() != null) {
+                request.roomIds().stream().filter(id -> id != null).forEach(roomIds::add);
+            }
+        }
+
+        Map<Long, String> typeById = new HashMap<>();
+        if (!roomIds.isEmpty()) {
+            for (Room room : roomCatalog.findAllById(roomIds)) {
+                if (room.getType() != null) {
+                    typeById.put(room.getId(), room.getType());
+                }
+            }
+        }
+        return typeById;
+    }
+
+    private List<Quote> price(List<QuoteRequest> requests, Map<Long, String> typeById, RateSnapshot rates) {
+        List<Quote> quotes = new ArrayList<>(requests.size());
+        for (QuoteRequest request : requests) {
+            quotes.add(price(request, typeById, rates));
+        }
+        return quotes;
+    }
+
+    private Quote price(QuoteRequest request, Map<Long, String> typeById, RateSnapshot rates) {
+        if (request == null) {
+            return new Quote(null, null, null, null, null, null, null, "Empty quote request");
+        }
+        if (request.checkIn() == null || request.checkOut() == null || !request.checkOut().isAfter(request.checkIn())) {
+            return Quote.failed(request, "Check-out must be after check-in");
+        }
+        if (request.roomIds() == null || request.roomIds().isEmpty()) {
+            return Quote.failed(request, "At least one room is required");
+        }
+
+        List<String> roomTypes = new ArrayList<>(request.roomIds().size());
+        for (Long roomId : request.roomIds()) {
+            String type = typeById.get(roomId);
+            if (type == null) {
+                return Quote.failed(request, "Room not found: " + roomId);
+            }
+            roomTypes.add(type);
+        }
+
+        try {
+            return pricingService.issueQuote(rates, request, roomTypes);
+        } catch (IllegalStateException | ArithmeticException e) {
+            return Quote.failed(request, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.reservation_system.business_logic.pricing;
+
+import com.example.reservation_system.business_logic.rates.RateSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies signed quote tokens, so a booking can take its total from a quote the
+ * server made instead of from the client, without pricing the stay again.
+ *
+ * A token is {@code base64url(claims).base64url(HMAC-SHA256(claims))}; the claims are the stay
+ * (dates and sorted room ids), the total and its currency, the
+ * {@link com.example.reservation_system.business_logic.rates.RateSnapshot#version()} it was priced from
+ * and an expiry. A token is accepted only for the same stay in the same currency, before it expires
+ * and while the effective rates are unchanged.
+ */
+@Component
+public class QuoteTokenService {
+    private static final Logger log = LoggerFactory.getLogger(QuoteTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    // Mac is not thread-safe; one initialized instance per thread
+    private final ThreadLocal<Mac> macs;
+
+    public QuoteTokenService(@Value("${app.pricing.quote-token.secret:}") String secret,
+                             @Value("${app.pricing.quote-token.ttl-seconds:900}") long ttlSeconds) {
+        this.key = new SecretKeySpec(secretBytes(secret), ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Expiry for a quote issued now.
+     */
+    public Instant nextExpiry() {
+        return Instant.ofEpochSecond(Instant.now().getEpochSecond() + ttlSeconds);
+    }
+
+    /**
+     * Signs a quote for the stay priced against the rate snapshot with the given version.
+     */
+    public String issue(LocalDate checkIn, LocalDate checkOut, List<Long> roomIds, BigDecimal total, String currency,
+                        long rateVersion, Instant expiresAt) {
+        String claims = String.join("|",
+            checkIn.toString(),
+            checkOut.toString(),
+            sortedIds(roomIds),
+            total.toPlainString(),
+            Long.toString(rateVersion),
+            Long.toString(expiresAt.getEpochSecond()),
+            currency);
+        String encodedClaims = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return encodedClaims + "." + ENCODER.encodeToString(sign(encodedClaims));
+    }
+
+    /**
+     * Checks the token against the stay being booked and returns the quoted total.
+     * The signature is compared in constant time before any claim is trusted.
+     * @param rates the snapshot the booking is priced from; the quote must have been issued from the same rates
+     * @throws IllegalArgumentException if the token is malformed, forged, for another stay or currency,
+     *         expired, or priced from rates that have changed since
+     */
+    public BigDecimal verify(String token, LocalDate checkIn, LocalDate checkOut, List<Long> roomIds, String currency, RateSnapshot rates) {
+        String[] claims = claims(token);
+
+        if (!claims[0].equals(checkIn.toString()) || !claims[1].equals(checkOut.toString()) || !claims[2].equals(sortedIds(roomIds))) {
+            throw new IllegalArgumentException("Quote does not match the requested stay");
+        }
+        if (!claims[6].equalsIgnoreCase(currency)) {
+            throw new IllegalArgumentException("Quote was issued in " + claims[6] + ", not " + currency);
+        }
+        if (Instant.now().getEpochSecond() > Long.parseLong(claims[5])) {
+            throw new IllegalArgumentException("Quote has expired, please request a new one");
+        }
+        if (Long.parseLong(claims[4]) != rates.version()) {
+            throw new IllegalArgumentException("Rates have changed since the quote, please request a new one");
+        }
+        return new BigDecimal(claims[3]);
+    }
+
+    private String[] claims(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            throw new IllegalArgumentException("Invalid quote token");
+        }
+        String encodedClaims = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedClaims))) {
+                throw new IllegalArgumentException("Invalid quote token");
+            }
+            String[] claims = new String(DECODER.decode(encodedClaims), StandardCharsets.UTF_8).split("\\|", -1);
+            if (claims.length != 7) {
+                throw new IllegalArgumentException("Invalid quote token");
+            }
+            return claims;
+        } catch (IllegalArgumentException e) {
+            // also covers bad base64, which Base64.Decoder reports as IllegalArgumentException
+            throw new IllegalArgumentException("Invalid quote token", e);
+        }
+    }
+
+    private byte[] sign(String encodedClaims) {
+        return macs.get().doFinal(encodedClaims.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String sortedIds(List<Long> roomIds) {
+        return roomIds.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        // tokens then only verify on this instance and until restart
+        log.warn("app.pricing.quote-token.secret is not set; using a random per-process key");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.reservation_system.business_logic.rates;
+
+import java.time.LocalDate;
+
+/**
+ * Effective price of a room type on one night, as read from the price calendar.
+ */
+public record NightlyPrice(LocalDate night, int price) {}
@@ -0,0 +1,37 @@
+package com.example.reservation_system.business_logic.rates;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * One row of the price_calendar projection: the effective price of a room type on one night.
+ * Written only by {@link PriceCalendarService}.
+ */
+@Entity
+@Table(name = "price_calendar")
+@IdClass(PriceCalendar.Key.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PriceCalendar {
+
+    @Id
+    private String room_type;
+
+    @Id
+    private LocalDate night;
+
+    private int price;
+
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String room_type;
+        private LocalDate night;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.reservation_system.business_logic.rates;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PriceCalendarRepository extends JpaRepository<PriceCalendar, PriceCalendar.Key> {
+
+    /**
+     * Prices of one room type for the nights [from, to], in night order; nights without a rate are absent.
+     */
+    @Query("SELECT new com.example.reservation_system.business_logic.rates.NightlyPrice(p.night, p.price) FROM PriceCalendar p " +
+           "WHERE p.room_type = :roomType AND p.night BETWEEN :from AND :to ORDER BY p.night")
+    List<NightlyPrice> findRange(@Param("roomType") String roomType, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = "SELECT MAX(night) FROM price_calendar", nativeQuery = true)
+    LocalDate findLastNight();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM price_calendar WHERE room_type = :roomType AND night BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("roomType") String roomType, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM price_calendar WHERE night BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM price_calendar WHERE night < :night", nativeQuery = true)
+    int deleteBefore(@Param("night") LocalDate night);
+
+    /**
+     * Writes the effective price of one room type for every night in [from, to] that a rate covers.
+     * Expects the range to be empty; on overlapping rates the lowest id wins.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        INSERT INTO price_calendar (room_type, night, price)
+        SELECT DISTINCT ON (n.night) r.room_type, CAST(n.night AS date), r.price
+        FROM rates r
+        CROSS JOIN LATERAL generate_series(GREATEST(r.start_date, :from), LEAST(r.end_date, :to), INTERVAL '1 day') AS n(night)
+        WHERE r.room_type = :roomType
+        ORDER BY n.night, r.id
+        """, nativeQuery = true)
+    int materialize(@Param("roomType") String roomType, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Same as {@link #materialize(String, LocalDate, LocalDate)} for every room type.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        INSERT INTO price_calendar (room_type, night, price)
+        SELECT DISTINCT ON (r.room_type, n.night) r.room_type, CAST(n.night AS date), r.price
+        FROM rates r
+        CROSS JOIN LATERAL generate_series(GREATEST(r.start_date, :from), LEAST(r.end_date, :to), INTERVAL '1 day') AS n(night)
+        ORDER BY r.room_type, n.night, r.id
+        """, nativeQuery = true)
+    int materialize(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,112 @@
+package com.example.reservation_system.business_logic.rates;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the price_calendar projection: the effective price of every room type for each night
+ * from today to horizon-days ahead.
+ *
+ * Rate changes through {@link RatesService} rewrite only the nights the old and new row cover, in
+ * the same transaction as the change. A daily roll drops past nights and materializes the days that
+ * entered the window; the whole window is rebuilt at startup to pick up rows edited directly in SQL.
+ */
+@Service
+public class PriceCalendarService {
+    private static final Logger log = LoggerFactory.getLogger(PriceCalendarService.class);
+
+    private final PriceCalendarRepository priceCalendarRepository;
+
+    @Value("${app.pricing.calendar.horizon-days:365}")
+    private int horizonDays = 365;
+
+    public PriceCalendarService(PriceCalendarRepository priceCalendarRepository) {
+        this.priceCalendarRepository = priceCalendarRepository;
+    }
+
+    /**
+     * Prices of the room type for the nights [from, to] that lie inside the calendar window.
+     */
+    @Transactional(readOnly = true)
+    public List<NightlyPrice> findCalendar(String roomType, LocalDate from, LocalDate to) {
+        return priceCalendarRepository.findRange(roomType, from, to);
+    }
+
+    /**
+     * Re-materializes the nights a changed rate row used to cover and now covers.
+     * Either side may be null (insert, delete). Must run in the transaction that changed the rate.
+     */
+    @Transactional
+    public void onRateChanged(Rates before, Rates after) {
+        if (before != null) {
+            refresh(before.getRoom_type(), before.getStart_date(), before.getEnd_date());
+        }
+        if (after != null) {
+            refresh(after.getRoom_type(), after.getStart_date(), after.getEnd_date());
+        }
+    }
+
+    /**
+     * Recomputes the calendar of one room type for the nights [from, to], clamped to the window.
+     */
+    @Transactional
+    public void refresh(String roomType, LocalDate from, LocalDate to) {
+        if (roomType == null || from == null || to == null) {
+            return;
+        }
+        LocalDate start = from.isBefore(windowStart()) ? windowStart() : from;
+        LocalDate end = to.isAfter(windowEnd()) ? windowEnd() : to;
+        if (end.isBefore(start)) {
+            return;
+        }
+        priceCalendarRepository.deleteRange(roomType, start, end);
+        priceCalendarRepository.materialize(roomType, start, end);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        LocalDate start = windowStart();
+        LocalDate end = windowEnd();
+        priceCalendarRepository.deleteBefore(start);
+        priceCalendarRepository.deleteRange(start, end);
+        int nights = priceCalendarRepository.materialize(start, end);
+        log.info("Price calendar rebuilt: {} room type nights from {} to {}", nights, start, end);
+    }
+
+    /**
+     * Drops nights that are now in the past and fills in the days that entered the window
+     * since the last roll (one day normally, more after downtime).
+     */
+    @Scheduled(cron = "${app.pricing.calendar.roll-cron:0 5 0 * * *}")
+    @Transactional
+    public void roll() {
+        LocalDate start = windowStart();
+        LocalDate end = windowEnd();
+        priceCalendarRepository.deleteBefore(start);
+
+        LocalDate lastNight = priceCalendarRepository.findLastNight();
+        LocalDate from = lastNight == null || lastNight.isBefore(start) ? start : lastNight.plusDays(1);
+        if (!from.isAfter(end)) {
+            priceCalendarRepository.deleteRange(from, end);
+            priceCalendarRepository.materialize(from, end);
+        }
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now();
+    }
+
+    private LocalDate windowEnd() {
+        return windowStart().plusDays(horizonDays - 1L);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.reservation_system.business_logic.rates;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the rates table, one {@link RateTimeline} per room type, so quotes resolve
+ * nightly prices without touching the database.
+ *
+ * Loaded lazily on first use and dropped whenever rates change through {@link RatesService};
+ * a periodic reload also picks up rows edited directly in the database.
+ */
+@Component
+public class RateIndex {
+    private final RatesRepository ratesRepository;
+
+    // null means "reload on next read"
+    private volatile RateSnapshot loaded;
+
+    public RateIndex(RatesRepository ratesRepository) {
+        this.ratesRepository = ratesRepository;
+    }
+
+    /**
+     * Returns the price per night for the room type on the given night.
+     * @throws IllegalStateException if no rate is defined for that room type and date
+     */
+    public int priceFor(String roomType, LocalDate night) {
+        Integer price = timeline(roomType).priceOn(night);
+        if (price == null) {
+            throw new IllegalStateException("No seasonal rate defined for that room type: " + roomType + " " + night);
+        }
+        return price;
+    }
+
+    public RateTimeline timeline(String roomType) {
+        return snapshot().timeline(roomType);
+    }
+
+    /**
+     * Drops the loaded rates once the current transaction commits (immediately outside a transaction).
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clear();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.rate-index.refresh-ms:300000}")
+    public synchronized void refresh() {
+        loaded = load();
+    }
+
+    // synchronized with loading, so a load that started before a rate change cannot be installed after it
+    private synchronized void clear() {
+        loaded = null;
+    }
+
+    /**
+     * The current rates; use one snapshot for all quotes of a request so they see the same prices.
+     */
+    public RateSnapshot snapshot() {
+        RateSnapshot current = loaded;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (loaded == null) {
+                loaded = load();
+            }
+            return loaded;
+        }
+    }
+
+    private RateSnapshot load() {
+        Map<String, List<Rates>> byType = ratesRepository.findAll().stream()
+            .filter(rate -> rate.getRoom_type() != null && rate.getStart_date() != null && rate.getEnd_date() != null)
+            .collect(Collectors.groupingBy(Rates::getRoom_type));
+
+        Map<String, RateTimeline> timelines = new HashMap<>();
+        byType.forEach((type, rates) -> timelines.put(type, RateTimeline.of(type, rates)));
+        return new RateSnapshot(timelines);
+    }
+}
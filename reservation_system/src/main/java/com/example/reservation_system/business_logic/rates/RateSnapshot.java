@@ -0,0 +1,41 @@
+package com.example.reservation_system.business_logic.rates;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable view of all rate timelines as loaded at one point in time.
+ * Quotes computed from the same snapshot are consistent even if rates change meanwhile.
+ */
+public final class RateSnapshot {
+    private final Map<String, RateTimeline> timelines;
+    private final long version;
+
+    RateSnapshot(Map<String, RateTimeline> timelines) {
+        this.timelines = Map.copyOf(timelines);
+        this.version = fingerprint(timelines);
+    }
+
+    public RateTimeline timeline(String roomType) {
+        RateTimeline timeline = timelines.get(roomType);
+        return timeline != null ? timeline : RateTimeline.of(roomType, List.of());
+    }
+
+    /**
+     * Identifies the effective prices rather than the load: reloading unchanged rates (periodic refresh,
+     * another instance) gives the same version, any change to an effective price gives a different one.
+     */
+    public long version() {
+        return version;
+    }
+
+    private static long fingerprint(Map<String, RateTimeline> timelines) {
+        long hash = 17;
+        for (Map.Entry<String, RateTimeline> entry : new TreeMap<>(timelines).entrySet()) {
+            hash = 31 * hash + entry.getKey().hashCode();
+            hash = 31 * hash + entry.getValue().fingerprint();
+        }
+        return hash;
+    }
+}
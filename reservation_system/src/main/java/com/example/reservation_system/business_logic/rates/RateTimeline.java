@@ -0,0 +1,191 @@
+package com.example.reservation_system.business_logic.rates;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The seasonal rates of one room type as sorted, non-overlapping segments [start, end] (inclusive,
+ * in epoch days) with one price each. Immutable; built by {@link RateIndex}.
+ *
+ * Overlapping rows in the rates table are resolved once here: on every night the rate with the
+ * lowest id wins, and adjacent segments with the same price are merged.
+ */
+public final class RateTimeline {
+    // the rates table stores whole currency units; totals are computed in cents
+    private static final long MINOR_UNITS_PER_UNIT = 100;
+
+    private final String roomType;
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] prices;
+
+    private RateTimeline(String roomType, long[] starts, long[] ends, int[] prices) {
+        this.roomType = roomType;
+        this.starts = starts;
+        this.ends = ends;
+        this.prices = prices;
+    }
+
+    static RateTimeline of(String roomType, List<Rates> rates) {
+        List<Rates> byPriority = new ArrayList<>(rates);
+        byPriority.sort(Comparator.comparing(Rates::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        // every start and every day after an end can change the winning rate
+        TreeSet<Long> boundaries = new TreeSet<>();
+        for (Rates rate : byPriority) {
+            boundaries.add(rate.getStart_date().toEpochDay());
+            boundaries.add(rate.getEnd_date().toEpochDay() + 1);
+        }
+
+        List<long[]> segments = new ArrayList<>();
+        Long previous = null;
+        for (Long boundary : boundaries) {
+            if (previous != null) {
+                Integer price = winningPrice(byPriority, previous);
+                if (price != null) {
+                    long[] last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                    if (last != null && last[1] == previous - 1 && last[2] == price) {
+                        last[1] = boundary - 1;
+                    } else {
+                        segments.add(new long[] {previous, boundary - 1, price});
+                    }
+                }
+            }
+            previous = boundary;
+        }
+
+        long[] starts = new long[segments.size()];
+        long[] ends = new long[segments.size()];
+        int[] prices = new int[segments.size()];
+        for (int i = 0; i < segments.size(); i++) {
+            starts[i] = segments.get(i)[0];
+            ends[i] = segments.get(i)[1];
+            prices[i] = (int) segments.get(i)[2];
+        }
+        return new RateTimeline(roomType, starts, ends, prices);
+    }
+
+    private static Integer winningPrice(List<Rates> byPriority, long day) {
+        for (Rates rate : byPriority) {
+            if (rate.getStart_date().toEpochDay() <= day && day <= rate.getEnd_date().toEpochDay()) {
+                return rate.getPrice();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Index of the segment containing the night, or -1 when no rate covers it. Binary search.
+     */
+    int segmentOf(LocalDate night) {
+        long day = night.toEpochDay();
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] > day) {
+                high = mid - 1;
+            } else if (ends[mid] < day) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Price of the night, or null when no rate covers it.
+     */
+    public Integer priceOn(LocalDate night) {
+        int segment = segmentOf(night);
+        return segment < 0 ? null : prices[segment];
+    }
+
+    /**
+     * Price of the stay [checkIn, checkOut) for one room, in minor units (cents).
+     * Intersects the stay with the segments and adds nights × price per segment, so the cost is
+     * O(log segments + segments touched) regardless of the length of the stay.
+     * @throws IllegalStateException if any night of the stay has no rate
+     */
+    public long stayTotalMinorUnits(LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (to <= from) {
+            return 0;
+        }
+
+        int segment = firstSegmentEndingOnOrAfter(from);
+        long cursor = from;
+        long total = 0;
+        while (cursor < to) {
+            if (segment >= starts.length || starts[segment] > cursor) {
+                throw new IllegalStateException("No seasonal rate defined for that room type: " + roomType + " " + LocalDate.ofEpochDay(cursor));
+            }
+            long segmentEnd = Math.min(ends[segment] + 1, to);
+            total += (segmentEnd - cursor) * prices[segment];
+            cursor = segmentEnd;
+            segment++;
+        }
+        return total * MINOR_UNITS_PER_UNIT;
+    }
+
+    /**
+     * Price of every night of the stay [checkIn, checkOut) for one room, in whole currency units,
+     * indexed by night offset from check-in.
+     * @throws IllegalStateException if any night of the stay has no rate
+     */
+    public int[] nightlyPrices(LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (to <= from) {
+            return new int[0];
+        }
+
+        int[] nightly = new int[Math.toIntExact(to - from)];
+        int segment = firstSegmentEndingOnOrAfter(from);
+        long cursor = from;
+        while (cursor < to) {
+            if (segment >= starts.length || starts[segment] > cursor) {
+                throw new IllegalStateException("No seasonal rate defined for that room type: " + roomType + " " + LocalDate.ofEpochDay(cursor));
+            }
+            long segmentEnd = Math.min(ends[segment] + 1, to);
+            Arrays.fill(nightly, (int) (cursor - from), (int) (segmentEnd - from), prices[segment]);
+            cursor = segmentEnd;
+            segment++;
+        }
+        return nightly;
+    }
+
+    private int firstSegmentEndingOnOrAfter(long day) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long fingerprint() {
+        long hash = 1;
+        for (int i = 0; i < starts.length; i++) {
+            hash = 31 * hash + starts[i];
+            hash = 31 * hash + ends[i];
+            hash = 31 * hash + prices[i];
+        }
+        return hash;
+    }
+
+    public int segmentCount() {
+        return starts.length;
+    }
+}
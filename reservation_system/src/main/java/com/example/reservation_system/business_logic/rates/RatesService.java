@@ -2,6 +2,7 @@ package com.example.reservation_system.business_logic.rates;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -9,9 +10,13 @@ import java.util.Optional;
 @Service
 public class RatesService {
     private final RatesRepository ratesRepository;
+    private final RateIndex rateIndex;
+    private final PriceCalendarService priceCalendarService;
 
-    public RatesService(RatesRepository ratesRepository) {
+    public RatesService(RatesRepository ratesRepository, RateIndex rateIndex, PriceCalendarService priceCalendarService) {
         this.ratesRepository = ratesRepository;
+        this.rateIndex = rateIndex;
+        this.priceCalendarService = priceCalendarService;
     }
 
     public Rates findByRoomType (String room_type) {
@@ -23,4 +28,24 @@ public class RatesService {
         return ratesRepository.findByStartDate(start_date)
                 .orElseThrow(() -> new IllegalStateException("Not found by this start date " + start_date));
     }
+
+    @Transactional
+    public Rates save(Rates rates) {
+        // copy, because saving merges into the managed instance
+        Rates before = rates.getId() == null ? null : ratesRepository.findById(rates.getId())
+            .map(existing -> new Rates(existing.getRoom_type(), existing.getStart_date(), existing.getEnd_date(), existing.getPrice()))
+            .orElse(null);
+        Rates saved = ratesRepository.save(rates);
+        rateIndex.invalidate();
+        priceCalendarService.onRateChanged(before, saved);
+        return saved;
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        Rates before = ratesRepository.findById(id).orElse(null);
+        ratesRepository.deleteById(id);
+        rateIndex.invalidate();
+        priceCalendarService.onRateChanged(before, null);
+    }
 }
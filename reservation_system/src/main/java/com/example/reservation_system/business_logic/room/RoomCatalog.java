@@ -0,0 +1,202 @@
+package com.example.reservation_system.business_logic.room;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory copy of the rooms table with lookups by id, number, name and type, so hot paths
+ * (search, pricing, quotes) resolve rooms without going through JPA.
+ *
+ * Each load builds an immutable {@link Snapshot} of room records that replaces the previous one in a
+ * single write; readers always see one complete version. {@link RoomService} reloads the catalog after every
+ * committed room change, and a periodic reload picks up rows edited directly in the database.
+ * Listeners are told about new versions through {@link RoomCatalogRefreshedEvent}.
+ *
+ * Every lookup returns new detached Room objects built from those records. Callers may change them
+ * freely; the catalog itself never changes until the next load.
+ */
+@Component
+public class RoomCatalog {
+    private final RoomRepository roomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // null until first use
+    private volatile Snapshot loaded;
+
+    public RoomCatalog(RoomRepository roomRepository, ApplicationEventPublisher eventPublisher) {
+        this.roomRepository = roomRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Optional<Room> findById(Long id) {
+        return Optional.ofNullable(snapshot().byId.get(id)).map(RoomRow::toRoom);
+    }
+
+    /**
+     * Rooms for the ids, in the order of the ids; unknown ids are skipped and repeated ids repeat the room.
+     */
+    public List<Room> findAllById(Collection<Long> ids) {
+        Snapshot current = snapshot();
+        List<Room> rooms = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            RoomRow row = current.byId.get(id);
+            if (row != null) {
+                rooms.add(row.toRoom());
+            }
+        }
+        return rooms;
+    }
+
+    public Optional<Room> findByNumber(String number) {
+        return Optional.ofNullable(snapshot().byNumber.get(number)).map(RoomRow::toRoom);
+    }
+
+    public Optional<Room> findByName(String name) {
+        return Optional.ofNullable(snapshot().byName.get(name)).map(RoomRow::toRoom);
+    }
+
+    /**
+     * Rooms of exactly this type, ordered by id.
+     */
+    public List<Room> findAllByType(String type) {
+        return toRooms(snapshot().byType.getOrDefault(type, List.of()));
+    }
+
+    public List<Room> findAllByTypeIgnoreCase(String type) {
+        List<RoomRow> rows = new ArrayList<>();
+        snapshot().byType.forEach((roomType, ofType) -> {
+            if (roomType.equalsIgnoreCase(type)) {
+                rows.addAll(ofType);
+            }
+        });
+        rows.sort(Comparator.comparing(RoomRow::id));
+        return toRooms(rows);
+    }
+
+    /**
+     * All rooms ordered by id.
+     */
+    public List<Room> findAll() {
+        return toRooms(snapshot().all);
+    }
+
+    public long version() {
+        return snapshot().version;
+    }
+
+    /**
+     * Reloads the catalog once the current transaction commits (immediately outside a transaction).
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.rooms.catalog.refresh-ms:300000}")
+    public void refresh() {
+        Snapshot installed = reload();
+        if (installed != null) {
+            eventPublisher.publishEvent(new RoomCatalogRefreshedEvent(installed.version));
+        }
+    }
+
+    // returns the new snapshot, or null when the rooms are unchanged and the current one was kept
+    private synchronized Snapshot reload() {
+        Snapshot current = loaded;
+        List<Room> rooms = roomRepository.findAll();
+        if (current != null && current.sameRooms(rooms)) {
+            return null;
+        }
+        loaded = new Snapshot(current == null ? 1 : current.version + 1, rooms);
+        return loaded;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = loaded;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (loaded == null) {
+                loaded = new Snapshot(1, roomRepository.findAll());
+            }
+            return loaded;
+        }
+    }
+
+    private static List<Room> toRooms(List<RoomRow> rows) {
+        return rows.stream().map(RoomRow::toRoom).toList();
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<RoomRow> all;
+        private final Map<Long, RoomRow> byId = new HashMap<>();
+        private final Map<String, RoomRow> byNumber = new HashMap<>();
+        private final Map<String, RoomRow> byName = new HashMap<>();
+        private final Map<String, List<RoomRow>> byType;
+
+        private Snapshot(long version, List<Room> rooms) {
+            this.version = version;
+            this.all = rows(rooms);
+
+            Map<String, List<RoomRow>> types = new HashMap<>();
+            for (RoomRow room : all) {
+                byId.put(room.id(), room);
+                // numbers and names are expected to be unique; on duplicates the lowest id wins
+                if (room.number() != null) {
+                    byNumber.putIfAbsent(room.number(), room);
+                }
+                if (room.name() != null) {
+                    byName.putIfAbsent(room.name(), room);
+                }
+                if (room.type() != null) {
+                    types.computeIfAbsent(room.type(), type -> new ArrayList<>()).add(room);
+                }
+            }
+            types.replaceAll((type, ofType) -> List.copyOf(ofType));
+            this.byType = types;
+        }
+
+        private boolean sameRooms(List<Room> rooms) {
+            return all.equals(rows(rooms));
+        }
+
+        private static List<RoomRow> rows(List<Room> rooms) {
+            return rooms.stream().map(RoomRow::of).sorted(Comparator.comparing(RoomRow::id)).toList();
+        }
+    }
+
+    private record RoomRow(Long id, String number, String name, String type, int capacity, int basePrice,
+                           BigDecimal pricePerNight, RoomStatus status) {
+        private static RoomRow of(Room room) {
+            return new RoomRow(room.getId(), room.getNumber(), room.getName(), room.getType(), room.getCapacity(),
+                room.getBase_price(), room.getPricePerNight(), room.getStatus());
+        }
+
+        // a new detached entity per call, so no caller can change what the next one reads
+        private Room toRoom() {
+            return new Room(id, number, name, type, capacity, basePrice, pricePerNight, status);
+        }
+    }
+}
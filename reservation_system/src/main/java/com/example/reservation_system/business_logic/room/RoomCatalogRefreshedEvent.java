@@ -0,0 +1,6 @@
+package com.example.reservation_system.business_logic.room;
+
+/**
+ * Published by {@link RoomCatalog} after a reload that changed the rooms.
+ */
+public record RoomCatalogRefreshedEvent(long version) {}
@@ -1,23 +1,33 @@
 package com.example.reservation_system.business_logic.room;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Room administration and lookups. Lookups are answered from the {@link RoomCatalog}; every change
+ * reloads the catalog once it has committed.
+ */
 @Service
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomCatalog roomCatalog;
 
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository, RoomCatalog roomCatalog) {
         this.roomRepository = roomRepository;
+        this.roomCatalog = roomCatalog;
     }
 
+    @Transactional
     public Room createRoom (Room room) {
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        roomCatalog.refreshAfterCommit();
+        return saved;
     }
 
+    @Transactional
     public Room updateRoom (Long Id ,Room updatedRoom ){
         Room existing = roomRepository.findById(Id)
                 .orElseThrow(()-> new  IllegalStateException("Room doesn't exist: " + Id));
@@ -27,37 +37,38 @@ public class RoomService {
         existing.setCapacity(updatedRoom.getCapacity());
         existing.setStatus(updatedRoom.getStatus());
         existing.setBase_price(updatedRoom.getBase_price());
-        return roomRepository.save(existing);
+        Room saved = roomRepository.save(existing);
+        roomCatalog.refreshAfterCommit();
+        return saved;
     };
 
+    @Transactional
     public void deleteRoom(Long Id) {
         if (!roomRepository.existsById(Id)){
             throw new IllegalStateException("Room not found by this Id" + Id);
         }
         roomRepository.deleteById(Id);
+        roomCatalog.refreshAfterCommit();
     }
 
     public Room findByName (String name) {
-        return roomRepository.findByName(name)
+        return roomCatalog.findByName(name)
                 .orElseThrow(() -> new IllegalStateException("Not found by this name " + name ));
     }
 
     public Room findByNumber(String number) {
-        return roomRepository.findByNumber(number)
+        return roomCatalog.findByNumber(number)
                 .orElseThrow(() -> new IllegalStateException("Not found by this number " + number));
     }
 
     public Room findByType (String type) {
-        return roomRepository.findByType(type)
+        return roomCatalog.findAllByType(type).stream()
+                .findFirst()
                 .orElseThrow(() ->new IllegalStateException("Not found by this type"));
     }
 
     public List<Room> findAllByType(String type){
-        List<Room> allRooms = roomRepository.findAll();
-
-        return allRooms.stream()
-                .filter(room ->room.getType().equalsIgnoreCase(type))
-                .collect(Collectors.toList());
+        return roomCatalog.findAllByTypeIgnoreCase(type);
     }
 
 
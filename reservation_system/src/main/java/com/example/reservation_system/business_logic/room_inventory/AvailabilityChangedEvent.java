@@ -0,0 +1,11 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Published by {@link AvailabilityLedger} after committed bookings or releases changed the counters
+ * of the given rooms for the nights in [checkIn, checkOut).
+ */
+public record AvailabilityChangedEvent(Set<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+}
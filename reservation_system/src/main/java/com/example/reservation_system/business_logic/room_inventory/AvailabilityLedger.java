@@ -0,0 +1,304 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-process copy of room_inventory used to answer availability reads without a database round trip.
+ *
+ * Every room owns one int[] holding (allotment, booked_count) pairs indexed by day offset from the
+ * day the ledger was warmed. Rooms are spread over shards; each shard has its own lock, so writers
+ * for different rooms never contend and readers use optimistic stamps that almost never block.
+ *
+ * The database stays the system of record: bookings are always validated against room_inventory,
+ * and the ledger only receives committed changes from {@link InventoryReservationService}. It is
+ * rebuilt from the table at startup and once a day, which also moves the horizon forward and
+ * repairs any drift caused by changes made outside the booking paths.
+ */
+@Component
+public class AvailabilityLedger {
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityLedger.class);
+
+    private final RoomInventoryRepository roomInventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.availability.ledger.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.availability.ledger.horizon-days:730}")
+    private int horizonDays = 730;
+
+    @Value("${app.availability.ledger.shards:64}")
+    private int shardCount = 64;
+
+    // null until the first warm-up finished; replaced as a whole on every rebuild
+    private volatile Calendar calendar;
+    // guards the calendar swap against apply(), so every delta lands in exactly one of the two calendars
+    private final Object lock = new Object();
+    // deltas applied while a rebuild is loading, replayed onto the new calendar before it is installed
+    private List<Delta> appliedDuringWarm;
+
+    public AvailabilityLedger(RoomInventoryRepository roomInventoryRepository, ApplicationEventPublisher eventPublisher) {
+        this.roomInventoryRepository = roomInventoryRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (enabled) {
+            warm();
+        }
+    }
+
+    @Scheduled(cron = "${app.availability.ledger.rewarm-cron:0 30 3 * * *}")
+    public void rewarm() {
+        if (enabled) {
+            warm();
+        }
+    }
+
+    /**
+     * Loads [today, today + horizon) from room_inventory and swaps it in atomically.
+     * Deltas applied while the table is read are replayed onto the new calendar, so they are not lost
+     * with the old one. A change that committed just before the read started may then be counted twice;
+     * that window is far shorter than the read itself and the next rebuild repairs it.
+     */
+    public synchronized void warm() {
+        LocalDate origin = LocalDate.now();
+        Calendar next = new Calendar(origin.toEpochDay(), horizonDays, shardCount);
+
+        synchronized (lock) {
+            appliedDuringWarm = new ArrayList<>();
+        }
+        List<NightAvailability> nights;
+        try {
+            nights = roomInventoryRepository.findNightAvailability(origin, origin.plusDays(horizonDays));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                appliedDuringWarm = null;
+            }
+            throw e;
+        }
+        for (NightAvailability night : nights) {
+            next.load(night);
+        }
+
+        synchronized (lock) {
+            for (Delta delta : appliedDuringWarm) {
+                update(next, delta.roomIds(), delta.checkIn(), delta.checkOut(), delta.delta());
+            }
+            appliedDuringWarm = null;
+            calendar = next;
+        }
+        log.info("Availability ledger warmed with {} room nights from {} for {} days", nights.size(), origin, horizonDays);
+        eventPublisher.publishEvent(new AvailabilityLedgerWarmedEvent(origin, origin.plusDays(horizonDays)));
+    }
+
+    public boolean isReady() {
+        return enabled && calendar != null;
+    }
+
+    /**
+     * True when the room has capacity on every night in [checkIn, checkOut).
+     * Nights outside the warmed horizon count as unavailable, like nights without an inventory row.
+     */
+    public boolean isAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        Calendar current = requireCalendar();
+        int from = current.offset(checkIn);
+        int to = current.offset(checkOut);
+        if (from < 0 || to > current.days) {
+            return false;
+        }
+
+        Shard shard = current.shardFor(roomId);
+        int[] cells = shard.rooms.get(roomId);
+        if (cells == null) {
+            return false;
+        }
+
+        long stamp = shard.lock.tryOptimisticRead();
+        boolean available = hasCapacity(cells, from, to);
+        if (!shard.lock.validate(stamp)) {
+            stamp = shard.lock.readLock();
+            try {
+                available = hasCapacity(cells, from, to);
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Every known night of the room in [checkIn, checkOut), sold out or not.
+     */
+    public List<NightAvailability> nights(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        Calendar current = requireCalendar();
+        List<NightAvailability> result = new ArrayList<>();
+        collect(current, current.shardFor(roomId), roomId, checkIn, checkOut, false, result);
+        return result;
+    }
+
+    /**
+     * Nights in [checkIn, checkOut) that still have capacity, across all rooms.
+     */
+    public List<NightAvailability> availableNights(LocalDate checkIn, LocalDate checkOut) {
+        Calendar current = requireCalendar();
+        List<NightAvailability> result = new ArrayList<>();
+        for (Shard shard : current.shards) {
+            for (Long roomId : shard.rooms.keySet()) {
+                collect(current, shard, roomId, checkIn, checkOut, true, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds {@code delta} to booked_count of every night in [checkIn, checkOut) of the given rooms.
+     * Called with committed changes only; nights outside the horizon are ignored.
+     * Listeners are notified through {@link AvailabilityChangedEvent} once the counters are updated.
+     */
+    public void apply(Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut, int delta) {
+        Calendar current;
+        synchronized (lock) {
+            current = calendar;
+            if (appliedDuringWarm != null) {
+                appliedDuringWarm.add(new Delta(List.copyOf(roomIds), checkIn, checkOut, delta));
+            } else if (current == null) {
+                return;
+            }
+        }
+        if (current != null) {
+            update(current, roomIds, checkIn, checkOut, delta);
+        }
+
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(Set.copyOf(roomIds), checkIn, checkOut));
+    }
+
+    private static void update(Calendar current, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut, int delta) {
+        int from = Math.max(0, current.offset(checkIn));
+        int to = Math.min(current.days, current.offset(checkOut));
+
+        for (Long roomId : roomIds) {
+            Shard shard = current.shardFor(roomId);
+            int[] cells = shard.rooms.get(roomId);
+            if (cells == null) {
+                continue;
+            }
+            long stamp = shard.lock.writeLock();
+            try {
+                for (int day = from; day < to; day++) {
+                    cells[2 * day + 1] = Math.max(0, cells[2 * day + 1] + delta);
+                }
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private void collect(Calendar current, Shard shard, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                         boolean availableOnly, List<NightAvailability> result) {
+        int[] cells = shard.rooms.get(roomId);
+        if (cells == null) {
+            return;
+        }
+        int from = Math.max(0, current.offset(checkIn));
+        int to = Math.min(current.days, current.offset(checkOut));
+
+        long stamp = shard.lock.readLock();
+        try {
+            for (int day = from; day < to; day++) {
+                int allotment = cells[2 * day];
+                int booked = cells[2 * day + 1];
+                if (allotment == 0 || (availableOnly && booked >= allotment)) {
+                    continue;
+                }
+                result.add(new NightAvailability(roomId, current.date(day), booked, allotment));
+            }
+        } finally {
+            shard.lock.unlockRead(stamp);
+        }
+    }
+
+    private static boolean hasCapacity(int[] cells, int from, int to) {
+        for (int day = from; day < to; day++) {
+            if (cells[2 * day + 1] >= cells[2 * day]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Calendar requireCalendar() {
+        Calendar current = calendar;
+        if (current == null) {
+            throw new IllegalStateException("Availability ledger is not warmed yet");
+        }
+        return current;
+    }
+
+    /**
+     * One immutable set of rooms over a fixed date range. Only the counters inside the arrays change
+     * after publication, always under the owning shard's write lock.
+     */
+    private static final class Calendar {
+        private final long originEpochDay;
+        private final int days;
+        private final Shard[] shards;
+
+        private Calendar(long originEpochDay, int days, int shardCount) {
+            this.originEpochDay = originEpochDay;
+            this.days = days;
+            this.shards = new Shard[Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1];
+            for (int i = 0; i < shards.length; i++) {
+                shards[i] = new Shard();
+            }
+        }
+
+        private void load(NightAvailability night) {
+            int day = offset(night.nightDate());
+            if (day < 0 || day >= days) {
+                return;
+            }
+            int[] cells = shardFor(night.roomId()).rooms.computeIfAbsent(night.roomId(), id -> new int[2 * days]);
+            cells[2 * day] = night.allotment();
+            cells[2 * day + 1] = night.bookedCount();
+        }
+
+        private int offset(LocalDate date) {
+            return (int) (date.toEpochDay() - originEpochDay);
+        }
+
+        private LocalDate date(int offset) {
+            return LocalDate.ofEpochDay(originEpochDay + offset);
+        }
+
+        private Shard shardFor(Long roomId) {
+            long mixed = roomId * 0x9E3779B97F4A7C15L;
+            return shards[(int) (mixed >>> 32) & (shards.length - 1)];
+        }
+    }
+
+    private record Delta(List<Long> roomIds, LocalDate checkIn, LocalDate checkOut, int delta) {
+    }
+
+    private static final class Shard {
+        private final StampedLock lock = new StampedLock();
+        private final Map<Long, int[]> rooms = new HashMap<>();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+import java.time.LocalDate;
+
+/**
+ * Published by {@link AvailabilityLedger} after it was (re)built; it now covers the nights in [from, to).
+ */
+public record AvailabilityLedgerWarmedEvent(LocalDate from, LocalDate to) {
+}
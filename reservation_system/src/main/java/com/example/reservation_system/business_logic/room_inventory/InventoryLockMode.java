@@ -0,0 +1,14 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+/**
+ * How the booking path claims room_inventory rows.
+ * Selected per deployment with app.booking.inventory.lock-mode.
+ */
+public enum InventoryLockMode {
+    /** One conditional UPDATE for all rooms and nights, capacity checked by affected-row count. */
+    BULK ,
+    /** SELECT ... FOR UPDATE of all rows in (room_id, night_date) order, then increment. */
+    PESSIMISTIC ,
+    /** Plain read, then version-checked increments; conflicts surface as retryable failures. */
+    OPTIMISTIC
+}
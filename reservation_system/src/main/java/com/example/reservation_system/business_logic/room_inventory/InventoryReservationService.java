@@ -0,0 +1,124 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Claims one unit of room_inventory for every room and night of a stay.
+ * Must run inside the booking transaction so the claim is rolled back together with the booking.
+ * Committed claims and releases are mirrored into {@link AvailabilityLedger}.
+ */
+@Service
+public class InventoryReservationService {
+    private final RoomInventoryRepository roomInventoryRepository;
+    private final AvailabilityLedger availabilityLedger;
+
+    @Value("${app.booking.inventory.lock-mode:BULK}")
+    private InventoryLockMode lockMode = InventoryLockMode.BULK;
+
+    @Value("${app.booking.inventory.lock-timeout-ms:2000}")
+    private long lockTimeoutMs = 2000;
+
+    public InventoryReservationService(RoomInventoryRepository roomInventoryRepository, AvailabilityLedger availabilityLedger) {
+        this.roomInventoryRepository = roomInventoryRepository;
+        this.availabilityLedger = availabilityLedger;
+    }
+
+    /**
+     * Books every night in [checkIn, checkOut) for the given rooms.
+     * @throws IllegalArgumentException if any room is sold out or has no inventory for one of the nights
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+        long expectedRows = ChronoUnit.DAYS.between(checkIn, checkOut) * roomIds.size();
+
+        switch (lockMode) {
+            case PESSIMISTIC -> reserveWithRowLocks(roomIds, checkIn, checkOut, expectedRows);
+            case OPTIMISTIC -> reserveWithVersionCheck(roomIds, checkIn, checkOut, expectedRows);
+            default -> reserveWithBulkUpdate(roomIds, checkIn, checkOut, expectedRows);
+        }
+
+        applyToLedgerAfterCommit(roomIds, checkIn, checkOut, 1);
+    }
+
+    /**
+     * Gives back every night in [checkIn, checkOut) for the given rooms, e.g. when a booking is cancelled or moved.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+        roomInventoryRepository.releaseNights(roomIds, checkIn, checkOut);
+
+        applyToLedgerAfterCommit(roomIds, checkIn, checkOut, -1);
+    }
+
+    private void applyToLedgerAfterCommit(Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut, int delta) {
+        Set<Long> rooms = Set.copyOf(roomIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            availabilityLedger.apply(rooms, checkIn, checkOut, delta);
+            return;
+        }
+        // a rolled back booking must never show up in the ledger
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                availabilityLedger.apply(rooms, checkIn, checkOut, delta);
+            }
+        });
+    }
+
+    private void reserveWithBulkUpdate(Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut, long expectedRows) {
+        int reservedRows = roomInventoryRepository.reserveNights(roomIds, checkIn, checkOut);
+
+        if (reservedRows != expectedRows) {
+            throw new IllegalArgumentException("Rooms " + roomIds + " are not available for every night between "
+                + checkIn + " and " + checkOut + ". Reserved: " + reservedRows + "/" + expectedRows);
+        }
+    }
+
+    private void reserveWithRowLocks(Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut, long expectedRows) {
+        roomInventoryRepository.setLocalLockTimeout(lockTimeoutMs + "ms");
+
+        // sorted ids keep the statement identical for the same rooms; the query itself orders the locks
+        List<RoomInventory> lockedRows = roomInventoryRepository.lockNightsInOrder(new TreeSet<>(roomIds), checkIn, checkOut);
+
+        incrementBookedCounts(lockedRows, roomIds, checkIn, checkOut, expectedRows);
+        roomInventoryRepository.saveAll(lockedRows);
+    }
+
+    private void reserveWithVersionCheck(Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut, long expectedRows) {
+        List<RoomInventory> rows = roomInventoryRepository.findNightsInOrder(new TreeSet<>(roomIds), checkIn, checkOut);
+
+        incrementBookedCounts(rows, roomIds, checkIn, checkOut, expectedRows);
+        // flush now so a concurrent change fails this attempt with ObjectOptimisticLockingFailureException
+        roomInventoryRepository.saveAllAndFlush(rows);
+    }
+
+    private void incrementBookedCounts(List<RoomInventory> rows, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut, long expectedRows) {
+        if (rows.size() != expectedRows) {
+            throw new IllegalArgumentException("Rooms " + roomIds + " have no inventory for every night between "
+                + checkIn + " and " + checkOut + ". Found: " + rows.size() + "/" + expectedRows);
+        }
+
+        for (RoomInventory inventory : rows) {
+            if (inventory.getBooked_count() >= inventory.getAllotment()) {
+                throw new IllegalArgumentException("Room " + inventory.getRoom().getId() + " is not available on " + inventory.getNight_date() +
+                    ". Booked: " + inventory.getBooked_count() + "/" + inventory.getAllotment());
+            }
+        }
+
+        for (RoomInventory inventory : rows) {
+            inventory.setBooked_count(inventory.getBooked_count() + 1);
+        }
+    }
+}
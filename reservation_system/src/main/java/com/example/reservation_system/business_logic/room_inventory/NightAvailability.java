@@ -0,0 +1,13 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+import java.time.LocalDate;
+
+/**
+ * Capacity of one room on one night, as held by {@link AvailabilityLedger}.
+ */
+public record NightAvailability(Long roomId, LocalDate nightDate, int bookedCount, int allotment) {
+
+    public boolean isAvailable() {
+        return bookedCount < allotment;
+    }
+}
@@ -24,6 +24,9 @@ public class RoomInventory {
 
     private int allotment;
 
+    @Version
+    private long version;
+
     @ManyToOne
     @JoinColumn(
             name = "room_id",
@@ -2,11 +2,13 @@ package com.example.reservation_system.business_logic.room_inventory;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +27,105 @@ public interface RoomInventoryRepository extends JpaRepository<RoomInventory, Lo
     @Query("SELECT ri FROM RoomInventory ri WHERE ri.nightDate BETWEEN :startDate AND :endDate AND ri.bookedCount < ri.allotment")
     List<RoomInventory> findAvailableInventory(@Param("startDate") LocalDate startDate, 
                                               @Param("endDate") LocalDate endDate);
+
+    /**
+     * Books one unit on every night in [checkIn, checkOut) for all given rooms in a single statement.
+     * Only rows that still have capacity are touched, so the returned count is lower than
+     * rooms × nights when any night is sold out or has no inventory row.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE room_inventory
+        SET booked_count = booked_count + 1,
+            version = version + 1
+        WHERE room_id IN (:roomIds)
+          AND night_date >= :checkIn
+          AND night_date < :checkOut
+          AND booked_count < allotment
+        """, nativeQuery = true)
+    int reserveNights(@Param("roomIds") Collection<Long> roomIds,
+                      @Param("checkIn") LocalDate checkIn,
+                      @Param("checkOut") LocalDate checkOut);
+
+    /**
+     * Gives back one unit on every night in [checkIn, checkOut) for all given rooms.
+     * Counts never go below zero, so releasing a stay twice cannot create phantom capacity.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE room_inventory
+        SET booked_count = booked_count - 1,
+            version = version + 1
+        WHERE room_id IN (:roomIds)
+          AND night_date >= :checkIn
+          AND night_date < :checkOut
+          AND booked_count > 0
+        """, nativeQuery = true)
+    int releaseNights(@Param("roomIds") Collection<Long> roomIds,
+                      @Param("checkIn") LocalDate checkIn,
+                      @Param("checkOut") LocalDate checkOut);
+
+    /**
+     * Locks every inventory row of the stay [checkIn, checkOut) for all given rooms.
+     * Rows are locked in (room_id, night_date) order so concurrent bookings always
+     * acquire overlapping locks in the same sequence and cannot deadlock each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT ri FROM RoomInventory ri
+        WHERE ri.room.id IN :roomIds
+          AND ri.night_date >= :checkIn
+          AND ri.night_date < :checkOut
+        ORDER BY ri.room.id, ri.night_date
+        """)
+    List<RoomInventory> lockNightsInOrder(@Param("roomIds") Collection<Long> roomIds,
+                                          @Param("checkIn") LocalDate checkIn,
+                                          @Param("checkOut") LocalDate checkOut);
+
+    /**
+     * Same rows as {@link #lockNightsInOrder} without taking locks; used by the optimistic mode,
+     * which relies on the version column to detect concurrent changes at flush time.
+     */
+    @Query("""
+        SELECT ri FROM RoomInventory ri
+        WHERE ri.room.id IN :roomIds
+          AND ri.night_date >= :checkIn
+          AND ri.night_date < :checkOut
+        ORDER BY ri.room.id, ri.night_date
+        """)
+    List<RoomInventory> findNightsInOrder(@Param("roomIds") Collection<Long> roomIds,
+                                          @Param("checkIn") LocalDate checkIn,
+                                          @Param("checkOut") LocalDate checkOut);
+
+    /**
+     * Sets the PostgreSQL lock_timeout for the current transaction only (e.g. "2000ms").
+     */
+    @Query(value = "SELECT set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+    String setLocalLockTimeout(@Param("timeout") String timeout);
+
+    /**
+     * Counters of every room-night in [from, to) without loading entities; used to warm {@link AvailabilityLedger}.
+     */
+    @Query("""
+        SELECT new com.example.reservation_system.business_logic.room_inventory.NightAvailability(
+            ri.room.id, ri.night_date, ri.booked_count, ri.allotment)
+        FROM RoomInventory ri
+        WHERE ri.night_date >= :from
+          AND ri.night_date < :to
+        """)
+    List<NightAvailability> findNightAvailability(@Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to);
+
+    @Query("""
+        SELECT new com.example.reservation_system.business_logic.room_inventory.NightAvailability(
+            ri.room.id, ri.night_date, ri.booked_count, ri.allotment)
+        FROM RoomInventory ri
+        WHERE ri.room.id = :roomId
+          AND ri.night_date >= :from
+          AND ri.night_date < :to
+        ORDER BY ri.night_date
+        """)
+    List<NightAvailability> findNightAvailabilityByRoom(@Param("roomId") Long roomId,
+                                                        @Param("from") LocalDate from,
+                                                        @Param("to") LocalDate to);
 }
@@ -2,14 +2,17 @@ package com.example.reservation_system.business_logic.room_inventory;
 
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
 public class RoomInventoryService {
     private final RoomInventoryRepository roomInventoryRepository;
+    private final AvailabilityLedger availabilityLedger;
 
-    public RoomInventoryService(RoomInventoryRepository roomInventoryRepository) {
+    public RoomInventoryService(RoomInventoryRepository roomInventoryRepository, AvailabilityLedger availabilityLedger) {
         this.roomInventoryRepository = roomInventoryRepository;
+        this.availabilityLedger = availabilityLedger;
     }
 
     public RoomInventory findByRoomIdAndNightDate(Long roomId, LocalDate nightDate) {
@@ -25,6 +28,38 @@ public class RoomInventoryService {
         return roomInventoryRepository.findAvailableInventory(startDate, endDate);
     }
 
+    /**
+     * Every night of the room in [checkIn, checkOut). Served from {@link AvailabilityLedger}
+     * once it is warmed, from the database before that.
+     */
+    public List<NightAvailability> findNights(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        if (availabilityLedger.isReady()) {
+            return availabilityLedger.nights(roomId, checkIn, checkOut);
+        }
+        return roomInventoryRepository.findNightAvailabilityByRoom(roomId, checkIn, checkOut);
+    }
+
+    /**
+     * Nights in [checkIn, checkOut) that still have capacity, across all rooms.
+     */
+    public List<NightAvailability> findAvailableNights(LocalDate checkIn, LocalDate checkOut) {
+        if (availabilityLedger.isReady()) {
+            return availabilityLedger.availableNights(checkIn, checkOut);
+        }
+        return roomInventoryRepository.findNightAvailability(checkIn, checkOut).stream()
+                .filter(NightAvailability::isAvailable)
+                .toList();
+    }
+
+    public boolean isAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        if (availabilityLedger.isReady()) {
+            return availabilityLedger.isAvailable(roomId, checkIn, checkOut);
+        }
+        List<NightAvailability> nights = roomInventoryRepository.findNightAvailabilityByRoom(roomId, checkIn, checkOut);
+        return nights.size() == ChronoUnit.DAYS.between(checkIn, checkOut)
+                && nights.stream().allMatch(NightAvailability::isAvailable);
+    }
+
     public RoomInventory save(RoomInventory roomInventory) {
         return roomInventoryRepository.save(roomInventory);
     }
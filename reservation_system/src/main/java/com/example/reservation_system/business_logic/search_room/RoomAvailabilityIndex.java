@@ -0,0 +1,259 @@
+package com.example.reservation_system.business_logic.search_room;
+
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
+import com.example.reservation_system.business_logic.room.RoomCatalogRefreshedEvent;
+import com.example.reservation_system.business_logic.room_inventory.AvailabilityChangedEvent;
+import com.example.reservation_system.business_logic.room_inventory.AvailabilityLedger;
+import com.example.reservation_system.business_logic.room_inventory.AvailabilityLedgerWarmedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bitmaps of free rooms per room type and night, used to answer multi-night searches.
+ *
+ * Every room of a type gets a slot; for each night the type keeps a long[] with one bit per slot,
+ * set while the room still has capacity that night. "Free for every night of the stay" is the AND
+ * of the night bitmaps, so a search costs nights × (rooms / 64) word operations no matter how many
+ * bookings exist.
+ *
+ * The bits are derived from {@link AvailabilityLedger}: the index is rebuilt whenever the ledger is
+ * warmed and patched whenever the ledger applies a committed booking or release. Rooms come from the
+ * {@link RoomCatalog}; when rooms are added, removed or change type the index is rebuilt over the same nights.
+ */
+@Component
+public class RoomAvailabilityIndex {
+    private static final Logger log = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+
+    private final RoomCatalog roomCatalog;
+    private final AvailabilityLedger availabilityLedger;
+
+    // null until the ledger was warmed for the first time
+    private volatile Snapshot snapshot;
+    // guards the snapshot swap against onAvailabilityChanged(), so no change is patched only into the old snapshot
+    private final Object lock = new Object();
+    // changes seen while a rebuild reads the ledger, patched into the new snapshot before it is installed
+    private List<AvailabilityChangedEvent> changedDuringRebuild;
+
+    public RoomAvailabilityIndex(RoomCatalog roomCatalog, AvailabilityLedger availabilityLedger) {
+        this.roomCatalog = roomCatalog;
+        this.availabilityLedger = availabilityLedger;
+    }
+
+    @EventListener
+    public void onLedgerWarmed(AvailabilityLedgerWarmedEvent event) {
+        rebuild(event.from(), (int) (event.to().toEpochDay() - event.from().toEpochDay()));
+    }
+
+    @EventListener
+    public void onRoomCatalogRefreshed(RoomCatalogRefreshedEvent event) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            rebuild(current.date(0), current.days);
+        }
+    }
+
+    private synchronized void rebuild(LocalDate from, int days) {
+        synchronized (lock) {
+            changedDuringRebuild = new ArrayList<>();
+        }
+        try {
+            Snapshot next = build(from, days);
+            synchronized (lock) {
+                for (AvailabilityChangedEvent event : changedDuringRebuild) {
+                    patch(next, event);
+                }
+                snapshot = next;
+            }
+        } finally {
+            synchronized (lock) {
+                changedDuringRebuild = null;
+            }
+        }
+    }
+
+    private Snapshot build(LocalDate from, int days) {
+        Map<String, List<Room>> roomsByType = new HashMap<>();
+        for (Room room : roomCatalog.findAll()) {
+            if (room.getType() != null) {
+                roomsByType.computeIfAbsent(room.getType(), type -> new ArrayList<>()).add(room);
+            }
+        }
+
+        Snapshot next = new Snapshot(from.toEpochDay(), days);
+        roomsByType.forEach((type, rooms) -> {
+            TypeIndex index = new TypeIndex(rooms, days);
+            next.byType.put(type, index);
+            for (int slot = 0; slot < rooms.size(); slot++) {
+                next.byRoom.put(rooms.get(slot).getId(), index);
+                for (int day = 0; day < days; day++) {
+                    LocalDate night = from.plusDays(day);
+                    if (availabilityLedger.isAvailable(rooms.get(slot).getId(), night, night.plusDays(1))) {
+                        index.set(day, slot);
+                    }
+                }
+            }
+        });
+
+        log.info("Room availability index built for {} room types over {} days", roomsByType.size(), days);
+        return next;
+    }
+
+    @EventListener
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        Snapshot current;
+        synchronized (lock) {
+            current = snapshot;
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        }
+        if (current != null) {
+            patch(current, event);
+        }
+    }
+
+    // re-reads the ledger for the changed nights, so patching the same change twice is harmless
+    private void patch(Snapshot current, AvailabilityChangedEvent event) {
+        int from = Math.max(0, current.offset(event.checkIn()));
+        int to = Math.min(current.days, current.offset(event.checkOut()));
+
+        for (Long roomId : event.roomIds()) {
+            TypeIndex index = current.byRoom.get(roomId);
+            if (index == null) {
+                continue;
+            }
+            int slot = index.slots.get(roomId);
+            long stamp = index.lock.writeLock();
+            try {
+                for (int day = from; day < to; day++) {
+                    LocalDate night = current.date(day);
+                    if (availabilityLedger.isAvailable(roomId, night, night.plusDays(1))) {
+                        index.set(day, slot);
+                    } else {
+                        index.clear(day, slot);
+                    }
+                }
+            } finally {
+                index.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * True when the index is built and every night in [checkIn, checkOut) lies inside its horizon.
+     */
+    public boolean covers(LocalDate checkIn, LocalDate checkOut) {
+        Snapshot current = snapshot;
+        return current != null && current.offset(checkIn) >= 0 && current.offset(checkOut) <= current.days;
+    }
+
+    /**
+     * Rooms of the type that are free on every night in [checkIn, checkOut).
+     * Stays reaching outside the indexed horizon have no free rooms here; check {@link #covers} first.
+     */
+    public List<Room> findFreeRooms(String type, LocalDate checkIn, LocalDate checkOut) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Room availability index is not built yet");
+        }
+        TypeIndex index = current.byType.get(type);
+        int from = current.offset(checkIn);
+        int to = current.offset(checkOut);
+        if (index == null || from < 0 || to > current.days || from >= to) {
+            return List.of();
+        }
+
+        long stamp = index.lock.tryOptimisticRead();
+        long[] free = index.freeForEveryNight(from, to);
+        if (!index.lock.validate(stamp)) {
+            stamp = index.lock.readLock();
+            try {
+                free = index.freeForEveryNight(from, to);
+            } finally {
+                index.lock.unlockRead(stamp);
+            }
+        }
+
+        List<Room> rooms = new ArrayList<>();
+        for (int word = 0; word < free.length; word++) {
+            long bits = free[word];
+            while (bits != 0) {
+                rooms.add(index.rooms.get(word * 64 + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return rooms;
+    }
+
+    private static final class Snapshot {
+        private final long originEpochDay;
+        private final int days;
+        private final Map<String, TypeIndex> byType = new HashMap<>();
+        private final Map<Long, TypeIndex> byRoom = new HashMap<>();
+
+        private Snapshot(long originEpochDay, int days) {
+            this.originEpochDay = originEpochDay;
+            this.days = days;
+        }
+
+        private int offset(LocalDate date) {
+            return (int) (date.toEpochDay() - originEpochDay);
+        }
+
+        private LocalDate date(int offset) {
+            return LocalDate.ofEpochDay(originEpochDay + offset);
+        }
+    }
+
+    private static final class TypeIndex {
+        private final StampedLock lock = new StampedLock();
+        private final List<Room> rooms;
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final int words;
+        // bitmaps of all nights back to back: night d occupies [d * words, (d + 1) * words)
+        private final long[] free;
+
+        private TypeIndex(List<Room> rooms, int days) {
+            this.rooms = List.copyOf(rooms);
+            for (int slot = 0; slot < rooms.size(); slot++) {
+                slots.put(rooms.get(slot).getId(), slot);
+            }
+            this.words = (rooms.size() + 63) >>> 6;
+            this.free = new long[words * days];
+        }
+
+        private void set(int day, int slot) {
+            free[day * words + (slot >>> 6)] |= 1L << slot;
+        }
+
+        private void clear(int day, int slot) {
+            free[day * words + (slot >>> 6)] &= ~(1L << slot);
+        }
+
+        private long[] freeForEveryNight(int from, int to) {
+            long[] result = new long[words];
+            System.arraycopy(free, from * words, result, 0, words);
+            for (int day = from + 1; day < to; day++) {
+                int base = day * words;
+                for (int word = 0; word < words; word++) {
+                    result[word] &= free[base + word];
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -4,36 +4,48 @@ import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.bookings.BookingRepository;
 import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
 import com.example.reservation_system.business_logic.room.Room;
-import com.example.reservation_system.business_logic.room.RoomRepository;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class SearchRoomService {
-    private final RoomRepository roomRepository;
+    private final RoomCatalog roomCatalog;
     private final BookingRepository bookingRepository;
     private final BookingRoomsRepository bookingRoomsRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
 
-    public SearchRoomService(RoomRepository roomRepository, BookingRepository bookingRepository, BookingRoomsRepository bookingRoomsRepository) {
-        this.roomRepository = roomRepository;
+    public SearchRoomService(RoomCatalog roomCatalog, BookingRepository bookingRepository, BookingRoomsRepository bookingRoomsRepository,
+                             RoomAvailabilityIndex roomAvailabilityIndex) {
+        this.roomCatalog = roomCatalog;
         this.bookingRepository = bookingRepository;
         this.bookingRoomsRepository = bookingRoomsRepository;
+        this.roomAvailabilityIndex = roomAvailabilityIndex;
     }
 
+    /**
+     * Rooms of the type that are free for every night in [checkIn, checkOut).
+     * Answered from the in-memory bitmaps once they are built; the database is only used during startup
+     * and for stays reaching beyond the indexed horizon.
+     */
     public List<Room> findAvailableRoom(LocalDate checkIn , LocalDate checkOut , String type){
-        List<Room> allRooms = roomRepository.findAllByType(type);
+        if (roomAvailabilityIndex.covers(checkIn, checkOut)) {
+            return roomAvailabilityIndex.findFreeRooms(type, checkIn, checkOut);
+        }
+
+        List<Room> allRooms = roomCatalog.findAllByType(type);
         
         // Get bookings that overlap with the requested dates
         List<Booking> bookedBookings = bookingRepository.findRoomsBookedBetween(checkIn, checkOut);
         
         // Get room IDs from those bookings through BookingRooms
-        List<Long> bookedRoomIds = bookingRoomsRepository.findByBookingIn(bookedBookings)
-                .stream()
-                .map(bookingRoom -> bookingRoom.getRoom().getId())
-                .collect(Collectors.toList());
+        Set<Long> bookedRoomIds = bookedBookings.isEmpty()
+                ? Set.of()
+                : Set.copyOf(bookingRoomsRepository.findRoomIdsByBookingIn(bookedBookings));
 
         return allRooms.stream()
                 .filter(room -> !bookedRoomIds.contains(room.getId()))
@@ -1,37 +1,53 @@
 package com.example.reservation_system.controller;
 
-import com.example.reservation_system.model.AppUserService;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import com.example.reservation_system.jwt_token.RefreshTokenService;
+import com.example.reservation_system.jwt_token.TokenPair;
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.security.PasswordHashingExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
  
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController 
 @RequestMapping("/api/auth")
 public class AuthController {
     private final AuthenticationManager authenticationManager; 
-    private final AppUserService appUserService;
-    private final String SECKRET_KEY = "your-secret-key";
-    private final long EXPIRATION_TIME = 86400000; //24 hours 
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired 
-    public AuthController(AuthenticationManager authenticationManager ,AppUserService appUserService ){
+    public AuthController(AuthenticationManager authenticationManager ,RefreshTokenService refreshTokenService ,
+                          PasswordHashingExecutor passwordHashingExecutor ){
         this.authenticationManager = authenticationManager;
-        this.appUserService = appUserService;
+        this.refreshTokenService = refreshTokenService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
 
+    // the password check runs on the hashing pool and the request thread is released meanwhile;
+    // when the pool is saturated the login is refused with 503 instead of queueing without bound
     @PostMapping("/login")
-    public ResponseEntity<?> login (@RequestBody LoginRequest loginRequest){
+    public CompletableFuture<ResponseEntity<?>> login (@RequestBody LoginRequest loginRequest){
+        try {
+            // authenticate answers every failure itself; only a login that expired in the queue fails the future
+            return passwordHashingExecutor.<ResponseEntity<?>>submit(() -> authenticate(loginRequest))
+                .exceptionally(e -> busy());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
+
+    private ResponseEntity<?> authenticate(LoginRequest loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -40,15 +56,9 @@ public class AuthController {
                 )
             );
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = generateToken(userDetails.getUsername());
-
-            Map<String , Object> response = new HashMap<>(); 
-            response.put("token" , token);
-            response.put("username" , userDetails.getUsername());
-            response.put("expiresIn" , EXPIRATION_TIME);
-
-            return ResponseEntity.ok(response);
+            // the user id and role go into the token, so later requests need no user lookup
+            AppUser appUser = (AppUser) authentication.getPrincipal();
+            return ResponseEntity.ok(tokenResponse(refreshTokenService.issue(appUser), appUser.getUsername()));
 
         }catch (Exception e) {
            Map<String , String> error = new HashMap<>();
@@ -57,14 +67,41 @@ public class AuthController {
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private String generateToken(String username) {
-        return Jwts.builder()
-            .setSubject(username)
-            .setIssuedAt(new Date())
-            .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-            .signWith(SignatureAlgorithm.HS256 , SECKRET_KEY )
-            .compact();
+    // the presented refresh token is used up; the response carries its replacement
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh (@RequestBody RefreshRequest refreshRequest){
+        return refreshTokenService.refresh(refreshRequest.getRefreshToken())
+            .<ResponseEntity<?>>map(tokens -> ResponseEntity.ok(tokenResponse(tokens, null)))
+            .orElseGet(() -> {
+                Map<String , String> error = new HashMap<>();
+                error.put("Error" , "Invalid or expired refresh token");
+                return ResponseEntity.status(401).body(error);
+            });
+    }
+
+    // ends the session: its refresh tokens stop working and its access tokens are rejected
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout (@RequestBody RefreshRequest refreshRequest){
+        refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static Map<String , Object> tokenResponse(TokenPair tokens, String username) {
+        Map<String , Object> response = new HashMap<>(); 
+        response.put("token" , tokens.accessToken());
+        if (username != null) {
+            response.put("username" , username);
+        }
+        response.put("expiresIn" , tokens.expiresIn());
+        response.put("refreshToken" , tokens.refreshToken());
+        response.put("refreshExpiresIn" , tokens.refreshExpiresIn());
+        return response;
+    }
+
+    private static ResponseEntity<?> busy() {
+        Map<String , String> error = new HashMap<>();
+        error.put("Error" , "Too many logins in progress, try again shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
     }
 
     public static class LoginRequest {
@@ -78,4 +115,12 @@ public class AuthController {
         public void setPassword(String password) {this.password = password;}
     }
 
+    public static class RefreshRequest {
+        private String refreshToken;
+
+        public String getRefreshToken() { return refreshToken;}
+
+        public void setRefreshToken(String refreshToken) {this.refreshToken = refreshToken;}
+    }
+
 }
@@ -1,6 +1,8 @@
 package com.example.reservation_system.controller;
 
-import com.example.reservation_system.business_logic.room_inventory.RoomInventory;
+import com.example.reservation_system.business_logic.rates.NightlyPrice;
+import com.example.reservation_system.business_logic.rates.PriceCalendarService;
+import com.example.reservation_system.business_logic.room_inventory.NightAvailability;
 import com.example.reservation_system.business_logic.room_inventory.RoomInventoryService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -8,17 +10,21 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
  
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/availability")
 @PreAuthorize("permitAll()")
 public class AvailabilityController {
+    private static final int MAX_CALENDAR_DAYS = 366;
+
     private final RoomInventoryService roomInventoryService; 
+    private final PriceCalendarService priceCalendarService;
 
-    public AvailabilityController (RoomInventoryService roomInventoryService) {
+    public AvailabilityController (RoomInventoryService roomInventoryService, PriceCalendarService priceCalendarService) {
         this.roomInventoryService = roomInventoryService;
+        this.priceCalendarService = priceCalendarService;
     }
 
     @GetMapping("/check")
@@ -35,15 +41,16 @@ public class AvailabilityController {
             return ResponseEntity.badRequest().body("Check-in date cannot be in past");
         }
 
-        List<RoomInventory> availableInventory; 
+        // nights are [checkIn, checkOut); served from the in-memory ledger once it is warmed
+        List<NightAvailability> availableInventory; 
 
         if(roomId != null) {
-            availableInventory = roomInventoryService.findByRoomIdAndNightDateBetween(roomId, checkIn, checkOut)
+            availableInventory = roomInventoryService.findNights(roomId, checkIn, checkOut)
             .stream()
-            .filter(inventory -> inventory.getBooked_count() < inventory.getAllotment())
-            .collect(Collectors.toList());  
+            .filter(NightAvailability::isAvailable)
+            .toList();  
         }else {
-            availableInventory = roomInventoryService.findAvailableInventory(checkIn, checkOut);
+            availableInventory = roomInventoryService.findAvailableNights(checkIn, checkOut);
         }
 
         return ResponseEntity.ok(new AvailabilityResponse(availableInventory , checkIn , checkOut));
@@ -55,31 +62,50 @@ public class AvailabilityController {
         @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkIn, 
         @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkOut
     ) {
-        List<RoomInventory> roomInventory = roomInventoryService.findByRoomIdAndNightDateBetween(roomId, checkIn, checkOut); 
+        List<NightAvailability> roomInventory = roomInventoryService.findNights(roomId, checkIn, checkOut); 
 
-        boolean isAvailable = roomInventory.stream()
-            .allMatch(inventory -> inventory.getBooked_count() < inventory.getAllotment());
+        boolean isAvailable = roomInventoryService.isAvailable(roomId, checkIn, checkOut);
             
         return ResponseEntity.ok(new RoomAvailabilityResponse(roomId, checkIn, checkOut, isAvailable, roomInventory));
     }
 
+    // nightly prices of one room type for [from, to] from the price_calendar projection; nights without a rate are absent
+    @GetMapping("/prices")
+    public ResponseEntity<?> priceCalendar(
+        @RequestParam String roomType,
+        @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+        @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("From date must not be after to date");
+        }
+
+        // [from, to] is inclusive, so the calendar holds one night more than the days between them
+        if (ChronoUnit.DAYS.between(from, to) + 1 > MAX_CALENDAR_DAYS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_CALENDAR_DAYS + " days per calendar request");
+        }
+
+        List<NightlyPrice> prices = priceCalendarService.findCalendar(roomType, from, to);
+        return ResponseEntity.ok(prices);
+    }
+
     public static class AvailabilityResponse {
-        private List<RoomInventory> availableRooms; 
+        private List<NightAvailability> availableRooms; 
         private LocalDate checkIn; 
         private LocalDate checkOut; 
         private int totalAvailableRooms; 
 
-        public AvailabilityResponse (List<RoomInventory> availableRooms , LocalDate checkIn , LocalDate checkOut  ) {
+        public AvailabilityResponse (List<NightAvailability> availableRooms , LocalDate checkIn , LocalDate checkOut  ) {
             this.availableRooms =  availableRooms; 
             this.checkIn = checkIn;
             this.checkOut = checkOut;
             this.totalAvailableRooms = (int) availableRooms.stream()
-                .map(inventory -> inventory.getRoom().getId())
+                .map(NightAvailability::roomId)
                 .distinct() 
                 .count();
         }
 
-        public List<RoomInventory> getAvailableRooms() { return availableRooms; }
+        public List<NightAvailability> getAvailableRooms() { return availableRooms; }
         public LocalDate getCheckIn() {return checkIn;}
         public LocalDate getCheckOut() {return checkOut;}
         public int getTotalAvailableRooms() {return totalAvailableRooms;}
@@ -88,11 +114,11 @@ public class AvailabilityController {
     public static class RoomAvailabilityResponse {
         private Long roomId; 
         private boolean available;
-        private List<RoomInventory> inventoryDetails;
+        private List<NightAvailability> inventoryDetails;
         private LocalDate checkIn;
         private LocalDate checkOut; 
 
-        public RoomAvailabilityResponse (Long roomId , LocalDate checkIn , LocalDate checkOut , boolean available, List<RoomInventory> inventoryDetails) {
+        public RoomAvailabilityResponse (Long roomId , LocalDate checkIn , LocalDate checkOut , boolean available, List<NightAvailability> inventoryDetails) {
             this.roomId = roomId;
             this.available = available;
             this.inventoryDetails = inventoryDetails;
@@ -102,7 +128,7 @@ public class AvailabilityController {
 
         public Long getRoomId() {return roomId;}
         public boolean isAvailable() {return available;}
-        public List<RoomInventory> getInventoryDetails() {return inventoryDetails;}
+        public List<NightAvailability> getInventoryDetails() {return inventoryDetails;}
         public LocalDate getCheckIn() {return checkIn;}
         public LocalDate getCheckOut() {return checkOut;}
     }
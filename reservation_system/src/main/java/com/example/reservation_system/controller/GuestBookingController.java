@@ -1,15 +1,15 @@
 package com.example.reservation_system.controller;
 
 import com.example.reservation_system.business_logic.bookings.Booking;
+import com.example.reservation_system.business_logic.bookings.BookingPage;
 import com.example.reservation_system.business_logic.bookings.BookingService;
+import com.example.reservation_system.business_logic.bookings.BookingSummary;
 import com.example.reservation_system.business_logic.bookings.CreateBookingCmd;
 import com.example.reservation_system.business_logic.bookings.BookingStatus;
 import com.example.reservation_system.model.AppUser;
-import com.example.reservation_system.model.AppUserService;
+import com.example.reservation_system.security.CurrentUser;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
@@ -22,23 +22,16 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/guest/bookings")
 @PreAuthorize("hasRole('GUEST')")
 public class GuestBookingController {
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final BookingService bookingService;
-    private final AppUserService appUserService;
 
-    public GuestBookingController(BookingService bookingService, AppUserService appUserService) {
+    public GuestBookingController(BookingService bookingService) {
         this.bookingService = bookingService;
-        this.appUserService = appUserService;
     }
 
     @PostMapping
-    public ResponseEntity<BookingResponse> createBooking(@Valid @RequestBody CreateBookingRequest request) {
-        // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        AppUser currentUser = appUserService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<BookingResponse> createBooking(@Valid @RequestBody CreateBookingRequest request, CurrentUser currentUser) {
         // Validate dates
         LocalDate checkIn = LocalDate.parse(request.getCheckIn());
         LocalDate checkOut = LocalDate.parse(request.getCheckOut());
@@ -63,9 +56,10 @@ public class GuestBookingController {
             request.getRoomIds(),
             request.getAdults(),
             request.getChildren(),
-            request.getTotalAmount(),
+            null, // priced from the nightly rates and checked against the quote token
             request.getCurrency(),
-            currentUser.getId()
+            currentUser.id(),
+            request.getQuoteToken()
         );
         
         Booking booking = bookingService.createBooking(cmd);
@@ -73,31 +67,30 @@ public class GuestBookingController {
     }
 
     @GetMapping("/my")
-    public ResponseEntity<List<BookingResponse>> getMyBookings() {
-        // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        AppUser currentUser = appUserService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Booking> bookings = bookingService.findByUserId(currentUser.getId());
+    public ResponseEntity<List<BookingResponse>> getMyBookings(CurrentUser currentUser) {
+        // one query: bookings and guest are read as projections, no entities are loaded
+        List<BookingSummary> bookings = bookingService.findSummariesByUserId(currentUser.id());
         return ResponseEntity.ok(bookings.stream()
             .map(BookingResponse::new)
             .collect(Collectors.toList()));
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<BookingResponse> getBooking(@PathVariable Long id) {
-        // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        AppUser currentUser = appUserService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // newest first, keyset-paginated; pass nextCursor back as cursor for the following page
+    @GetMapping("/my/page")
+    public ResponseEntity<BookingPageResponse> getMyBookingsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            CurrentUser currentUser) {
+        BookingPage page = bookingService.findBookingPageByUserId(currentUser.id(), cursor, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        return ResponseEntity.ok(new BookingPageResponse(page));
+    }
 
+    @GetMapping("/{id}")
+    public ResponseEntity<BookingResponse> getBooking(@PathVariable Long id, CurrentUser currentUser) {
         Booking booking = bookingService.findById(id);
         
         // Security check: ensure user can only access their own bookings
-        if (!booking.getAppUser().getId().equals(currentUser.getId())) {
+        if (!booking.getAppUser().getId().equals(currentUser.id())) {
             throw new SecurityException("Access denied: You can only view your own bookings");
         }
         
@@ -107,18 +100,13 @@ public class GuestBookingController {
     @PutMapping("/{id}")
     public ResponseEntity<BookingResponse> updateBooking(
             @PathVariable Long id, 
-            @Valid @RequestBody UpdateBookingRequest request) {
+            @Valid @RequestBody UpdateBookingRequest request,
+            CurrentUser currentUser) {
         
-        // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        AppUser currentUser = appUserService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         Booking existingBooking = bookingService.findById(id);
         
         // Security check: ensure user can only update their own bookings
-        if (!existingBooking.getAppUser().getId().equals(currentUser.getId())) {
+        if (!existingBooking.getAppUser().getId().equals(currentUser.id())) {
             throw new SecurityException("Access denied: You can only update your own bookings");
         }
 
@@ -137,17 +125,11 @@ public class GuestBookingController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> cancelBooking(@PathVariable Long id) {
-        // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        AppUser currentUser = appUserService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<Void> cancelBooking(@PathVariable Long id, CurrentUser currentUser) {
         Booking booking = bookingService.findById(id);
         
         // Security check: ensure user can only cancel their own bookings
-        if (!booking.getAppUser().getId().equals(currentUser.getId())) {
+        if (!booking.getAppUser().getId().equals(currentUser.id())) {
             throw new SecurityException("Access denied: You can only cancel your own bookings");
         }
 
@@ -183,13 +165,12 @@ public class GuestBookingController {
         @jakarta.validation.constraints.NotNull(message = "Children count is required")
         private List<Integer> children;
 
-        @jakarta.validation.constraints.NotNull(message = "Total amount is required")
-        @jakarta.validation.constraints.DecimalMin(value = "0.01", message = "Total amount must be greater than 0")
-        private BigDecimal totalAmount;
-
         @jakarta.validation.constraints.Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be 3 uppercase letters")
         private String currency = "USD";
 
+        @jakarta.validation.constraints.NotBlank(message = "Quote token is required")
+        private String quoteToken;
+
         // Getters and setters
         public String getCheckIn() { return checkIn; }
         public void setCheckIn(String checkIn) { this.checkIn = checkIn; }
@@ -206,11 +187,11 @@ public class GuestBookingController {
         public List<Integer> getChildren() { return children; }
         public void setChildren(List<Integer> children) { this.children = children; }
         
-        public BigDecimal getTotalAmount() { return totalAmount; }
-        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
-        
         public String getCurrency() { return currency; }
         public void setCurrency(String currency) { this.currency = currency; }
+
+        public String getQuoteToken() { return quoteToken; }
+        public void setQuoteToken(String quoteToken) { this.quoteToken = quoteToken; }
     }
 
     public static class UpdateBookingRequest {
@@ -253,6 +234,18 @@ public class GuestBookingController {
             this.user = new UserInfo(booking.getAppUser());
         }
 
+        public BookingResponse(BookingSummary booking) {
+            this.id = booking.id();
+            this.checkIn = booking.checkIn();
+            this.checkOut = booking.checkOut();
+            this.totalAmount = booking.totalAmount();
+            this.currency = booking.currency();
+            this.status = booking.status();
+            this.createdAt = booking.createdAt();
+            this.updatedAt = booking.updatedAt();
+            this.user = new UserInfo(booking.userId(), booking.username(), booking.fullName(), booking.email());
+        }
+
         // Getters
         public Long getId() { return id; }
         public LocalDate getCheckIn() { return checkIn; }
@@ -265,6 +258,22 @@ public class GuestBookingController {
         public UserInfo getUser() { return user; }
     }
 
+    public static class BookingPageResponse {
+        private List<BookingResponse> items;
+        private String nextCursor;
+
+        public BookingPageResponse(BookingPage page) {
+            this.items = page.items().stream()
+                .map(BookingResponse::new)
+                .collect(Collectors.toList());
+            this.nextCursor = page.nextCursor();
+        }
+
+        // Getters
+        public List<BookingResponse> getItems() { return items; }
+        public String getNextCursor() { return nextCursor; }
+    }
+
     public static class UserInfo {
         private Long id;
         private String username;
@@ -278,6 +287,13 @@ public class GuestBookingController {
             this.email = user.getEmail();
         }
 
+        public UserInfo(Long id, String username, String fullName, String email) {
+            this.id = id;
+            this.username = username;
+            this.fullName = fullName;
+            this.email = email;
+        }
+
         // Getters
         public Long getId() { return id; }
         public String getUsername() { return username; }
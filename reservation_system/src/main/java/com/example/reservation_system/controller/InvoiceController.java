@@ -4,8 +4,8 @@ import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.bookings.BookingService;
 import com.example.reservation_system.business_logic.invoice.Invoice;
 import com.example.reservation_system.business_logic.invoice.InvoiceService;
-import com.example.reservation_system.model.AppUser;
-import com.example.reservation_system.model.AppUserService;
+import com.example.reservation_system.model.AppUserRole;
+import com.example.reservation_system.security.CurrentUser;
 import com.lowagie.text.DocumentException;
 
 import lombok.Getter;
@@ -15,8 +15,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -26,12 +24,10 @@ import java.io.IOException;
 public class InvoiceController {
     private final InvoiceService invoiceService;
     private final BookingService bookingService; 
-    private final AppUserService appUserService;
 
-    public InvoiceController(InvoiceService invoiceService ,BookingService bookingService , AppUserService appUserService  ) {
+    public InvoiceController(InvoiceService invoiceService ,BookingService bookingService ) {
         this.invoiceService = invoiceService;
         this.bookingService = bookingService;
-        this.appUserService = appUserService;
     }
 
      /**
@@ -42,9 +38,9 @@ public class InvoiceController {
 
      @GetMapping("/booking/{bookingId}/pdf")
      @PreAuthorize("hasRole('GUEST') or hasRole('STAFF') or hasRole('ADMIN')")
-     public ResponseEntity<byte[]> downloadInvoiceEntity(@PathVariable Long bookingId) {
+     public ResponseEntity<byte[]> downloadInvoiceEntity(@PathVariable Long bookingId, CurrentUser currentUser) {
         Booking booking = bookingService.findById(bookingId);
-        ensureCanAccessBooking(booking);
+        ensureCanAccessBooking(booking, currentUser);
 
         try {
             Invoice existing = invoiceService.findByBooking_id(bookingId);
@@ -67,9 +63,9 @@ public class InvoiceController {
 
     @PostMapping("/booking/{bookingId}/generate")
     @PreAuthorize("hasRole('GUEST') or hasRole('STAFF') or hasRole('ADMIN')")
-    public ResponseEntity<InvoiceResponse> generaInvoice(@PathVariable Long bookingId) {
+    public ResponseEntity<InvoiceResponse> generaInvoice(@PathVariable Long bookingId, CurrentUser currentUser) {
         Booking booking = bookingService.findById(bookingId);
-        ensureCanAccessBooking(booking);
+        ensureCanAccessBooking(booking, currentUser);
 
         try {
             Invoice invoice = invoiceService.createInvoiceForBooking(booking);
@@ -80,20 +76,13 @@ public class InvoiceController {
         }
     }
 
-    private void ensureCanAccessBooking(Booking booking) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if  (auth == null || !auth.isAuthenticated()) {
-            throw new org.springframework.security.access.AccessDeniedException("Not authenticated");
-        }
-
-        if (auth.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_STAFF".equals(a.getAuthority()))) {
+    // staff and admins see every booking; guests only their own, compared by id without loading the user
+    private void ensureCanAccessBooking(Booking booking, CurrentUser currentUser) {
+        if (currentUser.role() == AppUserRole.ADMIN || currentUser.role() == AppUserRole.STAFF) {
             return ;
         }
-        String username = auth.getName();
-        AppUser currentUser = appUserService.findByUsername(username)
-        .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if(!booking.getAppUser().getId().equals(currentUser.getId())){
+        if(!booking.getAppUser().getId().equals(currentUser.id())){
             throw new org.springframework.security.access.AccessDeniedException("Not allowed to access this booking");
         }
     }
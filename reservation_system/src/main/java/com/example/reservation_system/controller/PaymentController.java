@@ -3,12 +3,11 @@ package com.example.reservation_system.controller;
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.bookings.BookingService;
 import com.example.reservation_system.business_logic.payments.StripeService;
-import com.example.reservation_system.model.AppUser;
-import com.example.reservation_system.model.AppUserService;
+import com.example.reservation_system.business_logic.payments.StripeWebhookInbox;
+import com.example.reservation_system.security.CurrentUser;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Event;
-import com.stripe.model.PaymentIntent;
 import com.stripe.net.Webhook;
 import jakarta.validation.Valid;
 import lombok.Getter;
@@ -17,8 +16,6 @@ import lombok.Setter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 @Setter
@@ -28,12 +25,13 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
     private final StripeService stripeService ;
     private final BookingService bookingService;
-    private final AppUserService appUserService;
+    private final StripeWebhookInbox stripeWebhookInbox;
 
-    public PaymentController(StripeService stripeService ,  BookingService bookingService , AppUserService appUserService) {
+    public PaymentController(StripeService stripeService ,  BookingService bookingService ,
+                             StripeWebhookInbox stripeWebhookInbox) {
         this.stripeService =  stripeService;
         this.bookingService  = bookingService ;
-        this.appUserService = appUserService;
+        this.stripeWebhookInbox = stripeWebhookInbox;
     }
 
     /*
@@ -44,19 +42,12 @@ public class PaymentController {
     @PostMapping("/create-intent")
     @PreAuthorize("hasRole('GUEST')")
     public ResponseEntity<CreatePaymentIntentResponse> createPaymentIntent (
-        @Valid @RequestBody CreatePaymentIntentRequest request) {
+        @Valid @RequestBody CreatePaymentIntentRequest request, CurrentUser currentUser) {
 
         try {
-            // Get authenticated user
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String username = auth.getName();
-
-            AppUser currentUser = appUserService.findByUsername(username )
-                .orElseThrow( () -> new RuntimeException("User name not found"));
-                
             Booking booking = bookingService.findById(request.getBookingId());
 
-            if (!booking.getAppUser().getId().equals(currentUser.getId())) {
+            if (!booking.getAppUser().getId().equals(currentUser.id())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             };
 
@@ -83,6 +74,8 @@ public class PaymentController {
      /**
      * Handles Stripe webhook events
      * POST /api/payments/webhook
+     * Verified events are appended to the inbox and acknowledged right away;
+     * StripeWebhookWorker updates bookings and payments asynchronously.
      */
      @PreAuthorize("permitAll()")
      @PostMapping("/webhook")
@@ -107,7 +100,7 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body("Error processing webhook " + e.getMessage());
         }
-        return handleWebhookEvent(event);
+        return handleWebhookEvent(event, payload);
     }
 
     private ResponseEntity<String> handleWebhookEvent(String payload) {
@@ -115,37 +108,19 @@ public class PaymentController {
             .body("Webhook secret must be configured for webhook processing");
     }
 
-    private ResponseEntity<String> handleWebhookEvent(Event event) {
-        // Handle the event
-        if ("payment_intent.succeeded".equals(event.getType())) {
-            PaymentIntent paymentIntent = (PaymentIntent) event.getDataObjectDeserializer()
-                .getObject().orElse(null);
-
-            if (paymentIntent != null) {
-                try {
-                    stripeService.handlePaymentSuccess(paymentIntent.getId());
-                    return ResponseEntity.ok("Payment succeeded");
-                }catch (Exception e) {
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error handling payment success: " +  e.getMessage());
-                }
-            }
-        }else if ("payment_intent.payment_failed".equals(event.getType())) {
-            PaymentIntent paymentIntent = (PaymentIntent) event.getDataObjectDeserializer()
-            .getObject().orElse(null);
-
-            if (paymentIntent != null) {
-                try {
-                    stripeService.handlePaymentFailure(paymentIntent.getId());
-                    return ResponseEntity.ok("Payment failed handle");
-                }catch (Exception e) {
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error handling payment failure: " + e.getMessage());
-                }
-            }
+    private ResponseEntity<String> handleWebhookEvent(Event event, String payload) {
+        if (!stripeWebhookInbox.handles(event)) {
+            return ResponseEntity.ok("Event received");
         }
 
-        return ResponseEntity.ok("Event received");
+        try {
+            boolean appended = stripeWebhookInbox.append(event, payload);
+            return ResponseEntity.ok(appended ? "Event queued" : "Event already received");
+        }catch (Exception e) {
+            // not stored: let Stripe redeliver
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error storing webhook event: " + e.getMessage());
+        }
     }
 
     public static class CreatePaymentIntentRequest {
@@ -0,0 +1,42 @@
+package com.example.reservation_system.controller;
+
+import com.example.reservation_system.business_logic.pricing.Quote;
+import com.example.reservation_system.business_logic.pricing.QuoteRequest;
+import com.example.reservation_system.business_logic.pricing.QuoteService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/quotes")
+@PreAuthorize("isAuthenticated()")
+public class QuoteController {
+    private final QuoteService quoteService;
+
+    public QuoteController(QuoteService quoteService) {
+        this.quoteService = quoteService;
+    }
+
+    // a priced quote carries the signed quote token to send with the booking
+    @PostMapping
+    public ResponseEntity<Quote> quote(@RequestBody QuoteRequest request) {
+        Quote quote = quoteService.quote(request);
+        return quote.error() == null ? ResponseEntity.ok(quote) : ResponseEntity.badRequest().body(quote);
+    }
+
+    // quotes come back in request order; a stay that cannot be priced has an error instead of a total
+    // an empty or missing batch is rejected by validation; QuoteService enforces max-batch-size
+    @PostMapping("/batch")
+    public ResponseEntity<?> quoteBatch(@Valid @NotEmpty @RequestBody List<QuoteRequest> requests) {
+        try {
+            List<Quote> quotes = quoteService.quoteBatch(requests);
+            return ResponseEntity.ok(quotes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.reservation_system.controller;
 
+import com.example.reservation_system.jwt_token.RefreshTokenService;
 import com.example.reservation_system.model.AppUser;
 import com.example.reservation_system.model.AppUserRepository;
 import com.example.reservation_system.model.AppUserService;
@@ -26,6 +27,9 @@ public class RegistrationController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     public RegistrationController(AppUserService userService, EmailService emailService) {
         this.userService = userService;
         this.emailService = emailService;
@@ -35,7 +39,10 @@ public class RegistrationController {
     @PreAuthorize("permitAll()")
     public AppUser createUser(@Valid @RequestBody AppUser appUser) {
         appUser.setPassword(passwordEncoder.encode(appUser.getPassword()));
-        return appUserRepository.save(appUser);
+        // a body with an existing id updates that user; its sessions must not outlive the change
+        AppUser saved = appUserRepository.save(appUser);
+        refreshTokenService.revokeAllForUser(saved.getId());
+        return saved;
     }
 
 }
@@ -1,63 +1,77 @@
 package com.example.reservation_system.jwt_token;
 
-import com.example.reservation_system.model.AppUserService;
+import com.example.reservation_system.security.CurrentUser;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import io.jsonwebtoken.Jwts;
-
 import java.io.IOException;
 
-//Create an object (bean) of that class.
-//@Component = "Hey Spring, please manage this class as a bean."
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>}.
+ *
+ * The token is verified by {@link JwtService} (cached by token hash until it expires) and its session
+ * is checked against {@link TokenRevocations}, both in memory, so a typical request runs no query.
+ * The principal is a {@link CurrentUser} built from the signed claims. Expired, forged and revoked
+ * tokens are rejected with 401; changes to the user apply when the session is next refreshed.
+ *
+ * Registered in the security chain by {@link com.example.reservation_system.security.SecurityConfig},
+ * not as a servlet filter of its own.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    private AppUserService appUserService;
-    private final String SECRET_KEY = "your-secret-key";
+    private final JwtService jwtService;
+    private final TokenRevocations tokenRevocations;
 
-    @Autowired
-    public JwtAuthenticationFilter (AppUserService appUserService) {
-        this.appUserService = appUserService;
+    public JwtAuthenticationFilter(JwtService jwtService, TokenRevocations tokenRevocations) {
+        this.jwtService = jwtService;
+        this.tokenRevocations = tokenRevocations;
     }
 
     @Override
     protected boolean shouldNotFilter(@SuppressWarnings("null") HttpServletRequest request) throws ServletException{
         String path = request.getServletPath();
-        return path.equals("/api/auth/login") || path.startsWith("/api/v1/registration");
+        // login, refresh and logout authenticate with credentials or a refresh token, not an access token
+        return path.startsWith("/api/auth/") || path.startsWith("/api/v1/registration");
     }
 
-    @SuppressWarnings({ "null", "deprecation" })
+    @SuppressWarnings("null")
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        if (shouldNotFilter(request)){
-            filterChain.doFilter(request , response);
-            return ;
-        }
-
         String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")){
-            String token  = header.substring(7);
+            CurrentUser currentUser;
             try {
-                String email = Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody().getSubject();
-                UserDetails userDetails = appUserService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }catch (Exception e) {
-                throw new ServletException("Invalid or expired token");
+                currentUser = authenticate(header.substring(7));
+            } catch (IllegalArgumentException e) {
+                SecurityContextHolder.clearContext();
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
+                return;
             }
+
+            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                    currentUser, null, currentUser.authorities());
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         }
+        filterChain.doFilter(request, response);
     }
 
+    /**
+     * @throws IllegalArgumentException if the token is invalid or its session was revoked
+     */
+    CurrentUser authenticate(String token) {
+        VerifiedToken claims = jwtService.verify(token);
+        if (tokenRevocations.isRevoked(claims.sessionId())) {
+            throw new IllegalArgumentException("Session was revoked");
+        }
+        return new CurrentUser(claims.userId(), claims.username(), claims.role());
+    }
 }
@@ -0,0 +1,191 @@
+package com.example.reservation_system.jwt_token;
+
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.model.AppUserRole;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies HS256 access tokens (compact JWS) carrying the username ({@code sub}), the
+ * user id ({@code uid}), the role ({@code role}) and the login session ({@code sid}), so a request
+ * is authenticated without reading the users table. Access tokens are short-lived; sessions are
+ * extended with refresh tokens (see {@link RefreshTokenService}).
+ *
+ * Verified tokens are cached by the SHA-256 of the token until they expire: a repeated token costs
+ * one hash and one map lookup instead of an HMAC and a JSON parse. The cache holds at most
+ * token-cache-size entries; when it is full new tokens are still verified, just not cached.
+ */
+@Component
+public class JwtService {
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // the only header this service issues; anything else (other alg, "none") is rejected as is
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final long expirationMs;
+    private final int tokenCacheSize;
+    // Mac and MessageDigest are not thread-safe; one instance per thread
+    private final ThreadLocal<Mac> macs;
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(JwtService::newDigest);
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    public JwtService(ObjectMapper objectMapper,
+                      @Value("${app.security.jwt.secret:}") String secret,
+                      @Value("${app.security.jwt.expiration-ms:900000}") long expirationMs,
+                      @Value("${app.security.jwt.token-cache-size:50000}") int tokenCacheSize) {
+        this.objectMapper = objectMapper;
+        this.key = new SecretKeySpec(secretBytes(secret), ALGORITHM);
+        this.expirationMs = expirationMs;
+        this.tokenCacheSize = tokenCacheSize;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    public String issue(AppUser user, UUID sessionId) {
+        long now = Instant.now().getEpochSecond();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.getUsername());
+        claims.put("uid", user.getId());
+        claims.put("role", user.getUserRole().name());
+        claims.put("sid", sessionId.toString());
+        claims.put("iat", now);
+        claims.put("exp", now + expirationMs / 1000);
+
+        String signingInput;
+        try {
+            signingInput = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write token claims", e);
+        }
+        return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+    }
+
+    /**
+     * Returns the claims of a valid, unexpired token.
+     * @throws IllegalArgumentException if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        long now = Instant.now().getEpochSecond();
+        String cacheKey = cacheKey(token);
+        VerifiedToken cached = verified.get(cacheKey);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verified.remove(cacheKey);
+        }
+
+        VerifiedToken claims = parse(token);
+        if (claims.isExpired(now)) {
+            throw new IllegalArgumentException("Token has expired");
+        }
+        if (verified.size() < tokenCacheSize) {
+            verified.put(cacheKey, claims);
+        }
+        return claims;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwt.cache-purge-ms:60000}")
+    public void purgeExpired() {
+        long now = Instant.now().getEpochSecond();
+        verified.values().removeIf(token -> token.isExpired(now));
+    }
+
+    private VerifiedToken parse(String token) {
+        int firstDot = token == null ? -1 : token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || !token.substring(0, firstDot).equals(HEADER)) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        String signingInput = token.substring(0, secondDot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(secondDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(signingInput))) {
+                throw new IllegalArgumentException("Invalid token");
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, secondDot)));
+            if (!claims.hasNonNull("sub") || !claims.hasNonNull("uid") || !claims.hasNonNull("role") || !claims.hasNonNull("sid")
+                    || !claims.hasNonNull("exp")) {
+                throw new IllegalArgumentException("Invalid token");
+            }
+            return new VerifiedToken(
+                claims.get("uid").asLong(),
+                claims.get("sub").asText(),
+                AppUserRole.valueOf(claims.get("role").asText()),
+                UUID.fromString(claims.get("sid").asText()),
+                claims.get("exp").asLong());
+        } catch (IOException | IllegalArgumentException e) {
+            // also covers bad base64 and unknown roles, both reported as IllegalArgumentException
+            throw new IllegalArgumentException("Invalid token", e);
+        }
+    }
+
+    private String cacheKey(String token) {
+        MessageDigest digest = digests.get();
+        digest.reset();
+        return ENCODER.encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < 32) {
+                throw new IllegalStateException("app.security.jwt.secret must be at least 32 bytes for HS256");
+            }
+            return bytes;
+        }
+        // tokens then only verify on this instance and until restart
+        log.warn("app.security.jwt.secret is not set; using a random per-process key");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.reservation_system.jwt_token;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One refresh token of a login session (family). Only the hash of the token is stored.
+ */
+@Entity
+@Table(name = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+
+public class RefreshToken {
+    @Id
+    private String token_hash;
+
+    private UUID family_id;
+
+    private Long user_id;
+
+    private LocalDateTime expires_at;
+
+    private LocalDateTime used_at;
+
+    private LocalDateTime revoked_at;
+}
@@ -0,0 +1,74 @@
+package com.example.reservation_system.jwt_token;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO refresh_tokens (token_hash, family_id, user_id, expires_at)
+        VALUES (:tokenHash, :familyId, :userId, :expiresAt)
+        """, nativeQuery = true)
+    int insert(@Param("tokenHash") String tokenHash,
+               @Param("familyId") UUID familyId,
+               @Param("userId") Long userId,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Marks the token used if it is unused, not revoked and not expired, in one statement, so two
+     * concurrent refreshes with the same token cannot both succeed.
+     *
+     * Deliberately not {@code @Modifying}: the statement returns rows, so Spring Data runs it through
+     * getResultList. Hibernate 6 does not reject native SQL it cannot classify as a select (its
+     * NativeQuery reports the kind as unknown rather than "not a select") and maps the RETURNING rows
+     * to RefreshToken, while PostgreSQL hands them back as an ordinary result set. Because Hibernate
+     * does not know the row changed, call this before the token is loaded in the same persistence
+     * context, and from a read-write transaction, as {@link RefreshTokenService#refresh} does.
+     * @return the claimed token, or an empty list
+     */
+    @Query(value = """
+        UPDATE refresh_tokens
+        SET used_at = now()
+        WHERE token_hash = :tokenHash
+          AND used_at IS NULL
+          AND revoked_at IS NULL
+          AND expires_at > now()
+        RETURNING *
+        """, nativeQuery = true)
+    List<RefreshToken> claim(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query(value = "UPDATE refresh_tokens SET revoked_at = now() WHERE family_id = :familyId AND revoked_at IS NULL", nativeQuery = true)
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    /**
+     * Revokes every open token of the user. Not {@code @Modifying} for the same reason as {@link #claim}.
+     * @return the revoked family ids, one per revoked token
+     */
+    @Query(value = """
+        UPDATE refresh_tokens
+        SET revoked_at = now()
+        WHERE user_id = :userId AND revoked_at IS NULL
+        RETURNING CAST(family_id AS varchar)
+        """, nativeQuery = true)
+    List<String> revokeAllForUser(@Param("userId") Long userId);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM refresh_tokens WHERE family_id = :familyId AND revoked_at IS NOT NULL)", nativeQuery = true)
+    boolean isFamilyRevoked(@Param("familyId") UUID familyId);
+
+    @Query(value = "SELECT DISTINCT CAST(family_id AS varchar) FROM refresh_tokens WHERE revoked_at >= :since", nativeQuery = true)
+    List<String> findFamiliesRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < :before", nativeQuery = true)
+    int deleteExpiredBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,154 @@
+package com.example.reservation_system.jwt_token;
+
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.model.AppUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. Access tokens are short-lived and verified from their claims
+ * alone; the user row is read again only here, every time a session is refreshed, so a locked
+ * user or a changed role takes effect within one access-token lifetime. Logout and account changes
+ * revoke the session (family) at once through {@link TokenRevocations}.
+ *
+ * Every refresh token is single-use: a refresh marks it used and issues the next one. Presenting a
+ * used token again means it was copied, and the whole family is revoked.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final AppUserRepository appUserRepository;
+    private final JwtService jwtService;
+    private final TokenRevocations tokenRevocations;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.security.refresh-token.ttl-ms:2592000000}")
+    private long ttlMs = 2592000000L;
+
+    // expired rows are kept this long so that replaying a just-expired token is still recognised
+    @Value("${app.security.refresh-token.retention-ms:86400000}")
+    private long retentionMs = 86400000L;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               AppUserRepository appUserRepository,
+                               JwtService jwtService,
+                               TokenRevocations tokenRevocations) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.appUserRepository = appUserRepository;
+        this.jwtService = jwtService;
+        this.tokenRevocations = tokenRevocations;
+    }
+
+    /**
+     * Starts a new session for a user who just logged in.
+     */
+    @Transactional
+    public TokenPair issue(AppUser user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges a refresh token for a new token pair of the same session.
+     * @return empty if the token is unknown, used, revoked or expired, or the user may no longer log in
+     */
+    @Transactional
+    public Optional<TokenPair> refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(refreshToken);
+        List<RefreshToken> claimed = refreshTokenRepository.claim(tokenHash);
+        if (claimed.isEmpty()) {
+            refreshTokenRepository.findById(tokenHash)
+                .filter(token -> token.getUsed_at() != null && token.getRevoked_at() == null)
+                .ifPresent(token -> {
+                    log.warn("Refresh token reused for user {}, revoking session {}", token.getUser_id(), token.getFamily_id());
+                    revokeFamily(token.getFamily_id());
+                });
+            return Optional.empty();
+        }
+
+        RefreshToken token = claimed.get(0);
+        Optional<AppUser> user = appUserRepository.findById(token.getUser_id());
+        if (user.isEmpty() || !user.get().isAccountNonLocked() || !user.get().isEnabled()) {
+            revokeFamily(token.getFamily_id());
+            return Optional.empty();
+        }
+        return Optional.of(issue(user.get(), token.getFamily_id()));
+    }
+
+    /**
+     * Ends the session the refresh token belongs to (logout). Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findById(hash(refreshToken))
+            .ifPresent(token -> revokeFamily(token.getFamily_id()));
+    }
+
+    /**
+     * Ends every session of the user, e.g. after the account was changed or locked.
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        List<UUID> families = refreshTokenRepository.revokeAllForUser(userId).stream()
+            .distinct()
+            .map(UUID::fromString)
+            .toList();
+        tokenRevocations.revokedAfterCommit(families);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.refresh-token.purge-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now().minusNanos(retentionMs * 1_000_000));
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private TokenPair issue(AppUser user, UUID familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = ENCODER.encodeToString(bytes);
+        refreshTokenRepository.insert(hash(refreshToken), familyId, user.getId(), LocalDateTime.now().plusNanos(ttlMs * 1_000_000));
+        return new TokenPair(jwtService.issue(user, familyId), jwtService.getExpirationMs(), refreshToken, ttlMs);
+    }
+
+    private void revokeFamily(UUID familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        tokenRevocations.revokedAfterCommit(List.of(familyId));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.reservation_system.jwt_token;
+
+/**
+ * An access token and the refresh token that replaces it; lifetimes in milliseconds.
+ */
+public record TokenPair(String accessToken, long expiresIn, String refreshToken, long refreshExpiresIn) {
+}
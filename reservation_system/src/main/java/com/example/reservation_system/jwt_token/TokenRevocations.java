@@ -0,0 +1,121 @@
+package com.example.reservation_system.jwt_token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Answers "was this session revoked?" for every authenticated request, in memory.
+ *
+ * Revoked family ids from the last access-token lifetime (older revocations can no longer match a
+ * live access token) sit in a {@link RevocationBloomFilter}. A miss, the common case, needs no
+ * query; a hit is confirmed against refresh_tokens, so false positives cost one indexed lookup and
+ * never reject a valid session. Revocations made on this instance are added as soon as they commit;
+ * the filter is rebuilt from the table every reload-ms, which is how other instances learn about them.
+ */
+@Component
+public class TokenRevocations {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocations.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final Object lock = new Object();
+
+    // replaced as a whole on reload; adds go to the current one
+    private volatile RevocationBloomFilter filter;
+    // revocations made while a reload is running, added to the new filter before it is installed
+    private List<UUID> addedDuringReload;
+
+    @Value("${app.security.revocation.expected-revocations:100000}")
+    private int expectedRevocations = 100000;
+
+    @Value("${app.security.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${app.security.revocation.reload-ms:60000}")
+    private long reloadMs = 60000;
+
+    public TokenRevocations(RefreshTokenRepository refreshTokenRepository, JwtService jwtService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+    }
+
+    public boolean isRevoked(UUID familyId) {
+        RevocationBloomFilter current = filter;
+        if (current != null && !current.mightContain(familyId)) {
+            return false;
+        }
+        // possible hit, or no filter yet
+        return refreshTokenRepository.isFamilyRevoked(familyId);
+    }
+
+    /**
+     * Adds the families to the filter once the current transaction commits (immediately outside a transaction).
+     */
+    public void revokedAfterCommit(Collection<UUID> familyIds) {
+        if (familyIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(familyIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(familyIds);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.security.revocation.reload-ms:60000}", initialDelayString = "${app.security.revocation.reload-ms:60000}")
+    public synchronized void reload() {
+        synchronized (lock) {
+            addedDuringReload = new ArrayList<>();
+        }
+        List<UUID> revoked;
+        try {
+            LocalDateTime since = LocalDateTime.now().minusNanos((jwtService.getExpirationMs() + reloadMs) * 1_000_000);
+            revoked = refreshTokenRepository.findFamiliesRevokedSince(since).stream().map(UUID::fromString).toList();
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                addedDuringReload = null;
+            }
+            log.warn("Could not reload token revocations, keeping the current filter", e);
+            return;
+        }
+
+        RevocationBloomFilter next = new RevocationBloomFilter(Math.max(expectedRevocations, revoked.size() * 2), falsePositiveRate);
+        revoked.forEach(next::add);
+        synchronized (lock) {
+            addedDuringReload.forEach(next::add);
+            addedDuringReload = null;
+            filter = next;
+        }
+    }
+
+    private void add(Collection<UUID> familyIds) {
+        synchronized (lock) {
+            RevocationBloomFilter current = filter;
+            if (current != null) {
+                familyIds.forEach(current::add);
+            }
+            if (addedDuringReload != null) {
+                addedDuringReload.addAll(familyIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.reservation_system.jwt_token;
+
+import com.example.reservation_system.model.AppUserRole;
+
+import java.util.UUID;
+
+/**
+ * The claims of an access token whose signature has been checked. The session id is the refresh
+ * token family the access token was issued for.
+ */
+public record VerifiedToken(Long userId, String username, AppUserRole role, UUID sessionId, long expiresAt) {
+
+    boolean isExpired(long nowEpochSecond) {
+        return nowEpochSecond >= expiresAt;
+    }
+}
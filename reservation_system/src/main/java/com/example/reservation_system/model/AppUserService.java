@@ -1,9 +1,11 @@
 package com.example.reservation_system.model;
 
+import com.example.reservation_system.business_logic.admin_dashboard.DashboardCounters;
 import com.example.reservation_system.token.ConfirmationToken;
 import com.example.reservation_system.token.ConfirmationTokenService;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,33 +16,45 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Service
-public class AppUserService implements UserDetailsService {
+public class AppUserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final AppUserRepository appUserRepository;
     private final ConfirmationTokenService confirmationTokenService;
     private final PasswordEncoder passwordEncoder;
+    private final DashboardCounters dashboardCounters;
 
-    public AppUserService (AppUserRepository appUserRepository ,  ConfirmationTokenService confirmationTokenService , PasswordEncoder passwordEncoder){
+    public AppUserService (AppUserRepository appUserRepository ,  ConfirmationTokenService confirmationTokenService , PasswordEncoder passwordEncoder,
+                           DashboardCounters dashboardCounters){
         this.appUserRepository = appUserRepository;
         this.confirmationTokenService = confirmationTokenService;
         this.passwordEncoder = passwordEncoder;
+        this.dashboardCounters = dashboardCounters;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Optional<AppUser> user = appUserRepository.findByUsername(username);
 
+        // the entity itself, so logins carry the role and are refused while the account is locked
         if (user.isPresent()){
-            var userObject = user.get();
-            return User.builder()
-                    .username(userObject.getUsername())
-                    .password(userObject.getPassword())
-                    .build();
+            return user.get();
         }else {
             throw  new UsernameNotFoundException("Unimplemented username:  " + username);
         }
     }
 
+    /**
+     * Stores a re-encoded password hash; called by the authentication provider after a successful
+     * login when the stored hash uses an outdated encoder or cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AppUser appUser = user instanceof AppUser loaded ? loaded : appUserRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Unimplemented username:  " + user.getUsername()));
+        appUser.setPassword(newPassword);
+        return appUserRepository.save(appUser);
+    }
+
     public UserDetails loadUserByEmail(String email) throws UsernameNotFoundException{
         Optional<AppUser> Email = appUserRepository.findByEmail(email);
 
@@ -75,6 +89,7 @@ public class AppUserService implements UserDetailsService {
         appUser.setPassword(encodedPassword);
         appUser.setLocked(true);  // Assuming new users start locked until confirmed
         appUserRepository.save(appUser);
+        dashboardCounters.userRegistered();
 
         String token = UUID.randomUUID().toString();
         ConfirmationToken confirmationToken = new ConfirmationToken(
@@ -0,0 +1,25 @@
+package com.example.reservation_system.security;
+
+import com.example.reservation_system.model.AppUserRole;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * The authenticated user of a request, as resolved from the access token by
+ * {@link com.example.reservation_system.jwt_token.JwtAuthenticationFilter}. Immutable and free of
+ * persistence state; {@link #getName()} is the username, so {@code Authentication.getName()} keeps working.
+ */
+public record CurrentUser(Long id, String username, AppUserRole role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
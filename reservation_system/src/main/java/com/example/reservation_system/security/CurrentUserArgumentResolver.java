@@ -0,0 +1,45 @@
+package com.example.reservation_system.security;
+
+import com.example.reservation_system.model.AppUser;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Supplies {@link CurrentUser} controller arguments from the request's authentication.
+ *
+ * Bearer-token requests already carry a CurrentUser as principal; a form-login session carries the
+ * {@link AppUser} it authenticated, which is converted without another query. Handlers taking a
+ * CurrentUser are only reachable by authenticated users, so a missing authentication is an error.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public CurrentUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                       NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            throw new AuthenticationCredentialsNotFoundException("Not authenticated");
+        }
+
+        Object principal = auth.getPrincipal();
+        if (principal instanceof CurrentUser currentUser) {
+            return currentUser;
+        }
+        if (principal instanceof AppUser appUser) {
+            return new CurrentUser(appUser.getId(), appUser.getUsername(), appUser.getUserRole());
+        }
+        throw new AuthenticationCredentialsNotFoundException("Unsupported principal " + principal.getClass().getSimpleName());
+    }
+}
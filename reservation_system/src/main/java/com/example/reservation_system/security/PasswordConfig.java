@@ -1,14 +1,63 @@
 package com.example.reservation_system.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.util.ClassUtils;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application's single {@link PasswordEncoder}. Hashes are stored as {@code {id}hash}; new
+ * hashes use app.security.password.encoder, and every registered encoder can still verify its own
+ * hashes. Hashes from before the prefix existed are BCrypt and are matched as such.
+ *
+ * A hash written with another encoder or a lower cost than configured is re-encoded on the next
+ * successful login (see {@link com.example.reservation_system.model.AppUserService#updatePassword}),
+ * so changing the encoder or its cost migrates users as they sign in.
+ */
 @Configuration
 public class PasswordConfig {
+    private static final Logger log = LoggerFactory.getLogger(PasswordConfig.class);
+    // Argon2 in spring-security-crypto is implemented by BouncyCastle
+    private static final String ARGON2_PROVIDER = "org.bouncycastle.crypto.params.Argon2Parameters";
+
     @Bean
-    public static PasswordEncoder encode() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(@Value("${app.security.password.encoder:bcrypt}") String encoderId,
+                                                  @Value("${app.security.password.bcrypt.strength:10}") int bcryptStrength,
+                                                  @Value("${app.security.password.argon2.memory-kb:19456}") int argon2MemoryKb,
+                                                  @Value("${app.security.password.argon2.iterations:2}") int argon2Iterations,
+                                                  @Value("${app.security.password.argon2.parallelism:1}") int argon2Parallelism) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (ClassUtils.isPresent(ARGON2_PROVIDER, PasswordConfig.class.getClassLoader())) {
+            encoders.put("argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKb, argon2Iterations));
+        }
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalStateException("Unknown or unavailable password encoder '" + encoderId + "', available: "
+                + encoders.keySet() + (encoderId.equals("argon2") ? " (argon2 needs org.bouncycastle:bcprov on the classpath)" : ""));
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encoderId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        logCost(encoderId, encoders.get(encoderId));
+        return delegating;
+    }
+
+    // one hash is the CPU cost of one login; tune the cost settings against this number
+    private static void logCost(String encoderId, PasswordEncoder encoder) {
+        long start = System.nanoTime();
+        encoder.encode("calibration-password");
+        log.info("Password encoder {}: one hash takes {} ms", encoderId, (System.nanoTime() - start) / 1_000_000);
     }
 }
@@ -0,0 +1,114 @@
+package com.example.reservation_system.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing (logins) on a small pool of its own, so a burst of logins is limited to
+ * that many cores and cannot starve request threads serving bookings.
+ *
+ * Admission control: the queue is bounded and a full queue rejects the task right away; a task that
+ * waited longer than max-queue-wait-ms is dropped when it reaches a thread, because its client has
+ * most likely given up. Both surface as {@link RejectedExecutionException}. Queue wait and rejections
+ * are counted and logged every stats-log-ms.
+ */
+@Component
+public class PasswordHashingExecutor {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private final ThreadPoolExecutor pool;
+    private final long maxQueueWaitNanos;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanosSeen = new LongAccumulator(Math::max, 0);
+
+    public PasswordHashingExecutor(@Value("${app.security.password.hashing.threads:0}") int threads,
+                                   @Value("${app.security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.security.password.hashing.max-queue-wait-ms:2000}") long maxQueueWaitMs) {
+        // half the cores by default: logins may use at most that share of the CPU
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+    }
+
+    /**
+     * Runs the task on the hashing pool.
+     * @throws RejectedExecutionException if the queue is full; the future fails with it when the task waited too long
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                totalQueueWaitNanos.add(waited);
+                maxQueueWaitNanosSeen.accumulate(waited);
+                if (waited > maxQueueWaitNanos) {
+                    expired.increment();
+                    throw new RejectedExecutionException("Password hashing queue wait exceeded");
+                }
+                try {
+                    return task.get();
+                } finally {
+                    completed.increment();
+                }
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(pool.getActiveCount(), pool.getQueue().size(), completed.sum(), rejected.sum(), expired.sum(),
+            TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.sum()), TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanosSeen.get()));
+    }
+
+    public record Stats(int active, int queued, long completed, long rejected, long expired, long totalQueueWaitMs, long maxQueueWaitMs) {
+        public long averageQueueWaitMs() {
+            long started = completed + expired;
+            return started == 0 ? 0 : totalQueueWaitMs / started;
+        }
+    }
+
+    // counters are per interval: read and reset together
+    @Scheduled(fixedDelayString = "${app.security.password.hashing.stats-log-ms:60000}")
+    public void logStats() {
+        Stats stats = new Stats(pool.getActiveCount(), pool.getQueue().size(), completed.sumThenReset(), rejected.sumThenReset(),
+            expired.sumThenReset(), TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.sumThenReset()),
+            TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanosSeen.getThenReset()));
+        if (stats.completed() == 0 && stats.rejected() == 0 && stats.expired() == 0) {
+            return;
+        }
+        if (stats.rejected() > 0 || stats.expired() > 0) {
+            log.warn("Password hashing: {} completed, {} rejected, {} expired in queue, queue wait avg {} ms / max {} ms",
+                stats.completed(), stats.rejected(), stats.expired(), stats.averageQueueWaitMs(), stats.maxQueueWaitMs());
+        } else {
+            log.info("Password hashing: {} completed, queue wait avg {} ms / max {} ms",
+                stats.completed(), stats.averageQueueWaitMs(), stats.maxQueueWaitMs());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
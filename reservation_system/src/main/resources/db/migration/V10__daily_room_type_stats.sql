@@ -0,0 +1,18 @@
+-- Daily rollup per room type: room-nights sold, their revenue, cancelled room-nights and room-nights
+-- available for sale. Maintained by DailyStatsService from booking_nights, bookings and room_inventory,
+-- so revenue and occupancy reports over any date range sum at most one row per day and room type.
+CREATE TABLE daily_room_type_stats (
+    stat_date DATE NOT NULL,
+    room_type VARCHAR(100) NOT NULL,
+    rooms_sold INTEGER NOT NULL DEFAULT 0,
+    revenue BIGINT NOT NULL DEFAULT 0,
+    cancellations INTEGER NOT NULL DEFAULT 0,
+    available_room_nights INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT pk_daily_room_type_stats PRIMARY KEY (stat_date, room_type)
+);
+
+-- Days whose rollup is stale. Booking changes add their nights in the same transaction,
+-- and the rollup job drains the queue.
+CREATE TABLE daily_stats_pending (
+    stat_date DATE PRIMARY KEY
+);
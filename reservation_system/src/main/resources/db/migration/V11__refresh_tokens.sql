@@ -0,0 +1,17 @@
+-- Refresh tokens, stored only as the base64url SHA-256 of the token. A login starts a family (one session);
+-- each refresh marks the presented token used and adds the next one to the family. A used token presented
+-- again revokes the whole family. Access tokens carry the family id, so revoking it ends the session.
+CREATE TABLE refresh_tokens (
+    token_hash VARCHAR(43) PRIMARY KEY,
+    family_id UUID NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    expires_at TIMESTAMP NOT NULL,
+    used_at TIMESTAMP,
+    revoked_at TIMESTAMP
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens(family_id);
+CREATE INDEX idx_refresh_tokens_user_open ON refresh_tokens(user_id) WHERE revoked_at IS NULL;
+-- recent revocations are loaded into the in-memory revocation filter
+CREATE INDEX idx_refresh_tokens_revoked_at ON refresh_tokens(revoked_at) WHERE revoked_at IS NOT NULL;
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
@@ -0,0 +1,6 @@
+-- Booking.created_at is a LocalDate and keyset cursors carry that date (see BookingCursor). While the
+-- column was a TIMESTAMP, rows with a time of day compared greater than the cursor's midnight and
+-- "created_at <= :createdAt" skipped them. Storing the date the application reads keeps the cursor exact;
+-- the keyset indexes are rebuilt by the type change.
+ALTER TABLE bookings ALTER COLUMN created_at TYPE DATE USING created_at::date;
+ALTER TABLE bookings ALTER COLUMN created_at SET DEFAULT CURRENT_DATE;
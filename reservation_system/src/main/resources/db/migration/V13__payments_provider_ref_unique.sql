@@ -0,0 +1,15 @@
+-- Each Stripe payment intent is recorded as one payments row: a failed attempt is upgraded in place
+-- when the intent later succeeds, and redelivered webhook events must not add a second row.
+-- Existing duplicates keep their COMPLETED row (or the oldest one) before the index becomes unique.
+DELETE FROM payments
+WHERE id IN (
+    SELECT id FROM (
+        SELECT id, row_number() OVER (PARTITION BY provider_ref ORDER BY (status = 'COMPLETED') DESC, id) AS rn
+        FROM payments
+        WHERE provider_ref IS NOT NULL
+    ) ranked
+    WHERE rn > 1
+);
+
+DROP INDEX idx_payments_provider_ref;
+CREATE UNIQUE INDEX idx_payments_provider_ref ON payments(provider_ref);
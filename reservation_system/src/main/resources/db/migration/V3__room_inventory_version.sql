@@ -0,0 +1,5 @@
+-- V3__room_inventory_version.sql
+-- Version column for optimistic concurrency on room_inventory (app.booking.inventory.lock-mode=OPTIMISTIC)
+
+ALTER TABLE room_inventory
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
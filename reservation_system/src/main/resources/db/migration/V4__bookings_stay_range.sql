@@ -0,0 +1,7 @@
+-- Stay as a half-open date range [check_in, check_out) so overlap searches can use a GiST index
+-- instead of scanning every historical booking. No exclusion constraint: one booking holds several
+-- rooms and room_inventory already prevents selling a room-night twice.
+ALTER TABLE bookings
+    ADD COLUMN stay DATERANGE GENERATED ALWAYS AS (daterange(check_in, check_out, '[)')) STORED;
+
+CREATE INDEX idx_bookings_stay ON bookings USING GIST (stay);
@@ -0,0 +1,7 @@
+-- Stripe payment intent ids are strings like "pi_3Nk..."; store them as-is and look them up by index.
+-- Existing values were stored with the "pi_" prefix stripped.
+ALTER TABLE bookings
+    ALTER COLUMN payment_intent_id TYPE VARCHAR(255)
+    USING CASE WHEN payment_intent_id IS NULL THEN NULL ELSE 'pi_' || payment_intent_id END;
+
+CREATE UNIQUE INDEX idx_bookings_payment_intent_id ON bookings(payment_intent_id);
@@ -0,0 +1,22 @@
+-- Verified Stripe webhook events, appended by the webhook endpoint and processed asynchronously.
+-- event_id makes redelivered events a no-op; booking_key orders events of the same booking.
+CREATE TABLE stripe_webhook_inbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payment_intent_id VARCHAR(255),
+    booking_key VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_at TIMESTAMP,
+    processed_at TIMESTAMP,
+    CONSTRAINT uq_stripe_webhook_inbox_event_id UNIQUE (event_id),
+    CONSTRAINT chk_stripe_webhook_inbox_status CHECK (status IN ('PENDING', 'PROCESSING', 'DONE', 'FAILED'))
+);
+
+CREATE INDEX idx_stripe_webhook_inbox_open ON stripe_webhook_inbox(id) WHERE status IN ('PENDING', 'PROCESSING');
+CREATE INDEX idx_stripe_webhook_inbox_booking_key ON stripe_webhook_inbox(booking_key, id) WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,9 @@
+-- Effective nightly price per room type, materialized from rates for a rolling window of days.
+-- Maintained by PriceCalendarService; on overlapping rates the lowest rates.id wins, as in RateIndex.
+-- The primary key covers price, so a calendar range for one room type is a single index-only range scan.
+CREATE TABLE price_calendar (
+    room_type VARCHAR(100) NOT NULL,
+    night DATE NOT NULL,
+    price INTEGER NOT NULL,
+    CONSTRAINT pk_price_calendar PRIMARY KEY (room_type, night) INCLUDE (price)
+);
@@ -0,0 +1,8 @@
+-- Booking lists page by keyset on (created_at, id), newest first; see BookingRepository.findSummaryPage.
+-- The composite indexes serve both the ORDER BY and the "before cursor" range, and supersede the
+-- single-column ones.
+CREATE INDEX idx_bookings_created_at_id ON bookings(created_at DESC, id DESC);
+CREATE INDEX idx_bookings_user_created_at_id ON bookings(user_id, created_at DESC, id DESC);
+
+DROP INDEX idx_bookings_created_at;
+DROP INDEX idx_bookings_user_id;
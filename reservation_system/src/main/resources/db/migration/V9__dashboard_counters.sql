@@ -0,0 +1,7 @@
+-- Last known values of the admin dashboard counters, flushed periodically by DashboardCounters.
+-- Only a warm start for the in-memory counters: they are reconciled against bookings, payments and users.
+CREATE TABLE dashboard_counters (
+    name VARCHAR(50) PRIMARY KEY,
+    value BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
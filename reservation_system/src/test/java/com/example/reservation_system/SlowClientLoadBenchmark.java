@@ -0,0 +1,161 @@
+package com.example.reservation_system;
+
+import com.example.reservation_system.jwt_token.JwtService;
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.model.AppUserRole;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the servlet stack with 5,000 concurrent slow clients, on platform or virtual threads.
+ *
+ * Needs the PostgreSQL database from docker-compose and is skipped unless started explicitly, once per mode:
+ *   ./mvnw test -Dtest=SlowClientLoadBenchmark -Dbenchmark.slow-clients=true -DVIRTUAL_THREADS=true
+ *   ./mvnw test -Dtest=SlowClientLoadBenchmark -Dbenchmark.slow-clients=true -DVIRTUAL_THREADS=false
+ * Every client holds a socket, so raise the open file limit first (ulimit -n 20000).
+ *
+ * Each client sends its request headers in three parts with pauses in between, like a slow mobile
+ * link, and then asks for its booking list, which is read from PostgreSQL through the Hikari pool.
+ * On platform threads at most server.tomcat.threads.max requests are in progress at once; on
+ * virtual threads all of them are, and the connection pool bounds the database work instead.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark.slow-clients", matches = "true")
+@DisplayName("Slow client load benchmark")
+class SlowClientLoadBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(SlowClientLoadBenchmark.class);
+    private static final int CLIENTS = 5000;
+    private static final long HEADER_PAUSE_MS = 200;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JwtService jwtService;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private static final AtomicInteger onVirtualThreads = new AtomicInteger();
+
+    // counts the requests Tomcat served on virtual threads; only registered in this test's context
+    @TestConfiguration
+    static class ThreadKindFilter {
+        @Bean
+        OncePerRequestFilter threadKindFilter() {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                        throws ServletException, IOException {
+                    if (Thread.currentThread().isVirtual()) {
+                        onVirtualThreads.incrementAndGet();
+                    }
+                    chain.doFilter(request, response);
+                }
+            };
+        }
+    }
+
+    @Test
+    void slowClients() throws InterruptedException {
+        // the filter accepts the token from its claims alone, so the user does not have to exist;
+        // the booking list query still runs for every request and simply finds no rows
+        AppUser user = new AppUser("load-benchmark", "Load Benchmark", "load-benchmark@example.com", "n/a", LocalDate.now(), AppUserRole.GUEST);
+        user.setId(-1L);
+        String token = jwtService.issue(user, UUID.randomUUID());
+
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        onVirtualThreads.set(0);
+        Queue<Long> latenciesMs = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.submit(() -> {
+                start.await();
+                try (Socket socket = new Socket("localhost", port)) {
+                    socket.setSoTimeout(120_000);
+                    OutputStream out = socket.getOutputStream();
+                    send(out, "GET /api/guest/bookings/my HTTP/1.1\r\nHost: localhost\r\n");
+                    Thread.sleep(HEADER_PAUSE_MS);
+                    send(out, "Authorization: Bearer " + token + "\r\n");
+                    Thread.sleep(HEADER_PAUSE_MS);
+                    long sentAt = System.nanoTime();
+                    send(out, "Connection: close\r\n\r\n");
+
+                    InputStream in = socket.getInputStream();
+                    String response = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+                    latenciesMs.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt));
+                    if (response.startsWith("HTTP/1.1 200")) {
+                        ok.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        assertThat(clients.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        List<Long> sorted = new ArrayList<>(latenciesMs);
+        Collections.sort(sorted);
+        log.info("{} threads: {} slow clients in {} ms ({} req/s), ok={}, failed={}, server latency p50={} ms p99={} ms max={} ms",
+            virtualThreads ? "virtual" : "platform", CLIENTS, elapsedMs, Math.round(CLIENTS * 1000.0 / Math.max(1, elapsedMs)),
+            ok.get(), failed.get(), percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+
+        assertThat(ok.get()).isEqualTo(CLIENTS);
+        assertThat(onVirtualThreads.get()).isEqualTo(virtualThreads ? CLIENTS : 0);
+    }
+
+    private static void send(OutputStream out, String part) throws IOException {
+        out.write(part.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1));
+    }
+}
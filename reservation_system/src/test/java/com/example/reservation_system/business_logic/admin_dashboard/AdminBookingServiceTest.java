@@ -1,12 +1,16 @@
 package com.example.reservation_system.business_logic.admin_dashboard;
 
-import com.example.reservation_system.business_logic.booking_guest.BookinGuests;
+import com.example.reservation_system.business_logic.analytics.DailyStatsService;
+import com.example.reservation_system.business_logic.booking_nights.Booking_nigths_Service;
+import com.example.reservation_system.business_logic.booking_nights.NightCharge;
+import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.bookings.BookingRepository;
+import com.example.reservation_system.business_logic.bookings.BookingStatus;
 import com.example.reservation_system.business_logic.payments.PaymentRepository;
 import com.example.reservation_system.business_logic.pricing.PricingService;
+import com.example.reservation_system.business_logic.room_inventory.InventoryReservationService;
 
-import org.assertj.core.api.OptionalAssert;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -17,18 +21,22 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("AdminBookingService")
-class AdminBookingService {
+class AdminBookingServiceTest {
 
     @Mock 
     private BookingRepository bookingRepository;
@@ -39,6 +47,21 @@ class AdminBookingService {
     @Mock 
     private PricingService pricingService;
 
+    @Mock 
+    private BookingRoomsRepository bookingRoomsRepository;
+
+    @Mock 
+    private InventoryReservationService inventoryReservationService;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
+    @Mock
+    private DailyStatsService dailyStatsService;
+
+    @Mock
+    private Booking_nigths_Service bookingNightsService;
+
     @InjectMocks
     private AdminBookingService adminBookingService;
 
@@ -56,8 +79,8 @@ class AdminBookingService {
             when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> adminBookingService.modifyBooking(BOOKING_ID , NEW_CHECK_IN , NEW_CHECK_OUT))
-                .isInstanceOf(IllegalStateException.class)
-                .hasMessageContaining("Check-out must be after check-in");
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Booking not found");
         }
 
         @Test 
@@ -68,33 +91,51 @@ class AdminBookingService {
             when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
 
             assertThatThrownBy(() -> adminBookingService.modifyBooking(BOOKING_ID , NEW_CHECK_OUT , NEW_CHECK_IN))
-                .isInstanceOf(IllegalStateException.class)
+                .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Check-out must be after check-in");
+            verifyNoInteractions(inventoryReservationService, bookingNightsService);
         }
 
         @Test
-        @DisplayName("updates dates and recalculate total from pricing service")
+        @DisplayName("moves the inventory, rewrites booking_nights and takes the total from the nightly prices")
         void updatesDatesAndReculateTotal() {
-            Booking booking = new Booking();
-            booking.setId(BOOKING_ID);
-            booking.setCheck_in(LocalDate.of(2025 , 7 , 1));
-            booking.setCheck_out(LocalDate.of(2025 , 7 , 3));
-            booking.setTotal_amount(BigDecimal.valueOf(100));
+            Booking booking = booking(LocalDate.of(2025 , 7 , 1) , LocalDate.of(2025 , 7 , 3) , BookingStatus.CONFIRMED);
+            List<Long> roomIds = List.of(7L , 8L);
+            // room 7: 100 + 120 + 150 + 150, room 8: 80 + 80 + 90 + 90
+            List<int[]> nightlyPrices = List.of(new int[] {100 , 120 , 150 , 150} , new int[] {80 , 80 , 90 , 90});
 
             when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
-            BigDecimal newTotal = BigDecimal.valueOf(450);
-
-            when(pricingService.calculateTotalForBooking(any(Booking.class))).thenReturn(newTotal);
+            when(bookingRoomsRepository.findRoomIdsByBookingId(BOOKING_ID)).thenReturn(roomIds);
+            when(pricingService.nightlyPrices(NEW_CHECK_IN , NEW_CHECK_OUT , roomIds)).thenReturn(nightlyPrices);
             when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
 
             Booking result = adminBookingService.modifyBooking(BOOKING_ID , NEW_CHECK_IN , NEW_CHECK_OUT);
 
             assertThat(result.getCheck_in()).isEqualTo(NEW_CHECK_IN);
             assertThat(result.getCheck_out()).isEqualTo(NEW_CHECK_OUT);
-            assertThat(result.getTotal_amount()).isEqualByComparingTo(newTotal);
-            verify(pricingService).calculateTotalForBooking(booking);
+            assertThat(result.getTotal_amount()).isEqualByComparingTo("860.00");
+            verify(inventoryReservationService).release(roomIds , LocalDate.of(2025 , 7 , 1) , LocalDate.of(2025 , 7 , 3));
+            verify(inventoryReservationService).reserve(roomIds , NEW_CHECK_IN , NEW_CHECK_OUT);
+            verify(bookingNightsService).replaceNights(BOOKING_ID , roomIds , NEW_CHECK_IN , nightlyPrices);
+            verify(pricingService, never()).calculateTotalForBooking(any(Booking.class));
             verify(bookingRepository).save(booking);
         }
+
+        @Test
+        @DisplayName("does not claim inventory for a cancelled booking")
+        void leavesInventoryOfCancelledBooking() {
+            Booking booking = booking(LocalDate.of(2025 , 7 , 1) , LocalDate.of(2025 , 7 , 3) , BookingStatus.CANCELLED);
+            when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
+            when(bookingRoomsRepository.findRoomIdsByBookingId(BOOKING_ID)).thenReturn(List.of(7L));
+            when(pricingService.nightlyPrices(NEW_CHECK_IN , NEW_CHECK_OUT , List.of(7L))).thenReturn(List.of(new int[] {100 , 100 , 100 , 100}));
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Booking result = adminBookingService.modifyBooking(BOOKING_ID , NEW_CHECK_IN , NEW_CHECK_OUT);
+
+            assertThat(result.getTotal_amount()).isEqualByComparingTo("400.00");
+            verify(inventoryReservationService, never()).release(anyList() , any() , any());
+            verify(inventoryReservationService, never()).reserve(anyList() , any() , any());
+        }
     }
 
     @Nested 
@@ -112,16 +153,46 @@ class AdminBookingService {
         }
 
         @Test
-        @DisplayName("returns a refund amount when booking exists")
+        @DisplayName("refunds the unused nights in full more than 48 hours before check-in")
         void returnsRefundAmount() {
-            Booking booking = new Booking();
-            booking.setId(BOOKING_ID);
-            booking.setCheck_in(LocalDate.now().plusDays(5));
+            LocalDate checkIn = LocalDate.now().plusDays(5);
+            Booking booking = booking(checkIn , checkIn.plusDays(3) , BookingStatus.CONFIRMED);
+            booking.setTotal_amount(BigDecimal.valueOf(999));
+            when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
+            when(bookingNightsService.findCharges(BOOKING_ID)).thenReturn(List.of(
+                new NightCharge(7L , "101" , checkIn , 100),
+                new NightCharge(7L , "101" , checkIn.plusDays(1) , 120),
+                new NightCharge(7L , "101" , checkIn.plusDays(2) , 80)));
+
+            BigDecimal refund = adminBookingService.cancelBooking(BOOKING_ID);
+
+            assertThat(refund).isEqualByComparingTo("300.00");
+        }
+
+        @Test
+        @DisplayName("refunds half of the unused nights within 48 hours of check-in")
+        void refundsHalfShortlyBeforeCheckIn() {
+            LocalDate checkIn = LocalDate.now().plusDays(2);
+            Booking booking = booking(checkIn , checkIn.plusDays(2) , BookingStatus.CONFIRMED);
+            when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
+            when(bookingNightsService.findCharges(BOOKING_ID)).thenReturn(List.of(
+                new NightCharge(7L , "101" , checkIn , 140),
+                new NightCharge(7L , "101" , checkIn.plusDays(1) , 160)));
+
+            BigDecimal refund = adminBookingService.cancelBooking(BOOKING_ID);
+
+            assertThat(refund).isEqualByComparingTo("150.00");
+        }
+
+        @Test
+        @DisplayName("falls back to the booking total when it has no nights")
+        void fallsBackToTotalWithoutNights() {
+            Booking booking = booking(LocalDate.now().plusDays(5) , LocalDate.now().plusDays(7) , BookingStatus.CONFIRMED);
             booking.setTotal_amount(BigDecimal.valueOf(300));
             when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
+            when(bookingNightsService.findCharges(BOOKING_ID)).thenReturn(List.of());
 
             BigDecimal refund = adminBookingService.cancelBooking(BOOKING_ID);
-            assertThat(refund).isNotNull();
 
             assertThat(refund).isEqualByComparingTo(BigDecimal.valueOf(300));
         }
@@ -129,11 +200,14 @@ class AdminBookingService {
         @Test
         @DisplayName("returns zero refund when check-in is in the past") 
         void returnsZeroWhenChecksInPast() {
-            Booking booking = new Booking();
-            booking.setId(BOOKING_ID);
-            booking.setCheck_in(LocalDate.now().minusDays(1));
+            LocalDate checkIn = LocalDate.now().minusDays(1);
+            Booking booking = booking(checkIn , checkIn.plusDays(3) , BookingStatus.CHECKED_IN);
             booking.setTotal_amount(BigDecimal.valueOf(300));
             when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
+            when(bookingNightsService.findCharges(BOOKING_ID)).thenReturn(List.of(
+                new NightCharge(7L , "101" , checkIn , 100),
+                new NightCharge(7L , "101" , checkIn.plusDays(1) , 100),
+                new NightCharge(7L , "101" , checkIn.plusDays(2) , 100)));
 
             BigDecimal refund = adminBookingService.cancelBooking(BOOKING_ID);
 
@@ -141,4 +215,14 @@ class AdminBookingService {
         }
 
     }
-}
\ No newline at end of file
+
+    private static Booking booking(LocalDate checkIn , LocalDate checkOut , BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setId(BOOKING_ID);
+        booking.setCheck_in(checkIn);
+        booking.setCheck_out(checkOut);
+        booking.setStatus(status);
+        booking.setTotal_amount(BigDecimal.valueOf(100));
+        return booking;
+    }
+}
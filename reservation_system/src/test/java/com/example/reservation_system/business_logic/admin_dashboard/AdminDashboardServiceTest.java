@@ -1,9 +1,7 @@
 package com.example.reservation_system.business_logic.admin_dashboard;
 
-import com.example.reservation_system.business_logic.bookings.BookingRepository;
-import com.example.reservation_system.business_logic.payments.PaymentRepository;
-import com.example.reservation_system.business_logic.room.RoomRepository;
-import com.example.reservation_system.model.AppUserRepository;
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,6 +10,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,51 +21,33 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 @DisplayName("AdminDashboardService")
 
-class AdminDashboardService {
+class AdminDashboardServiceTest {
 
     @Mock 
-    private BookingRepository bookingRepository;
+    private DashboardCounters dashboardCounters;
 
     @Mock 
-    private PaymentRepository paymentRepository;
-
-    @Mock 
-    private AppUserRepository appUserRepository;
-
-    @Mock 
-    private RoomRepository roomRepository ;
+    private RoomCatalog roomCatalog;
 
     @Mock 
     private AdminBookingService adminBookingService;
 
-    @Mock
     private AdminDashboardService adminDashboardService;
 
     @BeforeEach 
     void setUp() {
-        adminDashboardService = new AdminDashboardService(
-            bookingRepository , 
-            paymentRepository ,
-            appUserRepository ,
-            roomRepository 
-        );
-
-          // Inject adminBookingService via reflection or setter if available; otherwise dashboard methods that call it need the mock.
-        // AdminDashboardService has constructor with 4 args and @Autowired AdminBookingService - so we need to add a setter or use reflection.
-        // Checking the class again: it has @Autowired private AdminBookingService adminBookingService and a 4-arg constructor.
-        // So the 4-arg constructor doesn't set adminBookingService. So when getDashboardStatus() is called it doesn't use adminBookingService.
-        // modifyBooking and cancelBooking delegate to adminBookingService. So for getDashboardStatus we only need the 4 mocks.
+        adminDashboardService = new AdminDashboardService(dashboardCounters, roomCatalog);
     }
 
     @Test 
     @DisplayName("getDashboardStatus returns map with expected keys")
 
     void getDashboardStatusReturnsExcpectedKeys () {
-        when(bookingRepository.getTotalBookings()).thenReturn(10L);
-        when(appUserRepository.getAllUsers()).thenReturn(5L);
-        when(roomRepository.count()).thenReturn(20L);
-        when(paymentRepository.getTotalRevenue()).thenReturn(BigDecimal.valueOf(5000));
-        when(bookingRepository.getTotalBookedNights()).thenReturn(25L);
+        when(dashboardCounters.get(DashboardCounter.CONFIRMED_BOOKINGS)).thenReturn(10L);
+        when(dashboardCounters.get(DashboardCounter.USERS)).thenReturn(5L);
+        when(roomCatalog.findAll()).thenReturn(Collections.nCopies(20, new Room()));
+        when(dashboardCounters.get(DashboardCounter.REVENUE)).thenReturn(5000L);
+        when(dashboardCounters.get(DashboardCounter.BOOKED_NIGHTS)).thenReturn(25L);
 
         Map<String, Object> status = adminDashboardService.getDashboardStatus();
 
@@ -76,22 +58,18 @@ class AdminDashboardService {
 
         assertThat(status.get("totalBookings")).isEqualTo(10L);
         assertThat(status.get("totalUsers")).isEqualTo(5L);
-        assertThat(status.get("totalRevenue")).isEqualByComparingTo(BigDecimal.valueOf(5000));
+        assertThat((BigDecimal) status.get("totalRevenue")).isEqualByComparingTo(BigDecimal.valueOf(5000));
     }
 
     @Test 
-    @DisplayName("getDashboardStatus handles null total revenue and total booked nights")
-    void getDashboardStatusHandlesNulls() {
-        when(bookingRepository.getTotalBookings()).thenReturn(0L);
-        when(appUserRepository.getAllUsers()).thenReturn(0L);
-        when(roomRepository.count()).thenReturn(0L);
-        when(paymentRepository.getTotalRevenue()).thenReturn(null);
-        when(bookingRepository.getTotalBookedNights()).thenReturn(null);
+    @DisplayName("getDashboardStatus handles zero total revenue and total booked nights")
+    void getDashboardStatusHandlesZeros() {
+        when(roomCatalog.findAll()).thenReturn(List.of());
 
         Map<String , Object> status = adminDashboardService.getDashboardStatus();
 
-        assertThat(status.get("totalRevenue")).isEqualByComparingTo(BigDecimal.ZERO);
-        assertThat(status.get("ADR")).isEqualByComparingTo(BigDecimal.ZERO);
-        assertThat(status.get("occupancy")).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat((BigDecimal) status.get("totalRevenue")).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat((BigDecimal) status.get("ADR")).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat((BigDecimal) status.get("occupancy")).isEqualByComparingTo(BigDecimal.ZERO);
     }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.example.reservation_system.business_logic.analytics;
+
+import com.example.reservation_system.business_logic.room.RoomCatalog;
+import com.example.reservation_system.business_logic.room.RoomCatalogRefreshedEvent;
+import com.example.reservation_system.business_logic.room.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DailyStatsService")
+class DailyStatsServiceTest {
+    @Mock
+    private DailyRoomTypeStatsRepository dailyRoomTypeStatsRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DailyStatsService dailyStatsService;
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @BeforeEach
+    void setUp() {
+        dailyStatsService = new DailyStatsService(dailyRoomTypeStatsRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("drain recomputes each run of consecutive queued days with one statement")
+    void drainRecomputesRuns() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(dailyRoomTypeStatsRepository.claimPending(366)).thenReturn(List.of(
+            DAY.plusDays(5).toString(), DAY.toString(), DAY.plusDays(1).toString(), DAY.plusDays(2).toString()));
+
+        dailyStatsService.drain();
+
+        InOrder order = inOrder(dailyRoomTypeStatsRepository);
+        order.verify(dailyRoomTypeStatsRepository).deleteRange(DAY, DAY.plusDays(2));
+        order.verify(dailyRoomTypeStatsRepository).materialize(DAY, DAY.plusDays(2));
+        order.verify(dailyRoomTypeStatsRepository).deleteRange(DAY.plusDays(5), DAY.plusDays(5));
+        order.verify(dailyRoomTypeStatsRepository).materialize(DAY.plusDays(5), DAY.plusDays(5));
+    }
+
+    @Test
+    @DisplayName("markStay queues nothing for an empty stay")
+    void markStayIgnoresEmptyStay() {
+        dailyStatsService.markStay(DAY, DAY);
+
+        verify(dailyRoomTypeStatsRepository, never()).markPending(any(), any());
+    }
+
+    @Test
+    @DisplayName("report derives ADR, occupancy and RevPAR from the summed rows")
+    void reportDerivesRatios() {
+        when(dailyRoomTypeStatsRepository.findTotals(DAY, DAY.plusDays(9), "Deluxe"))
+            .thenReturn(new PerformanceTotals(15, 3000, 2, 40));
+
+        PerformanceReport report = dailyStatsService.report(DAY, DAY.plusDays(9), "Deluxe");
+
+        assertThat(report.adr()).isEqualByComparingTo(BigDecimal.valueOf(200));
+        assertThat(report.occupancy()).isEqualByComparingTo(new BigDecimal("37.50"));
+        assertThat(report.revPar()).isEqualByComparingTo(BigDecimal.valueOf(75));
+        assertThat(report.cancellations()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("report of a range without rows has zero ratios")
+    void reportWithoutRows() {
+        when(dailyRoomTypeStatsRepository.findTotals(DAY, DAY)).thenReturn(new PerformanceTotals(0, 0, 0, 0));
+
+        PerformanceReport report = dailyStatsService.report(DAY, DAY, null);
+
+        assertThat(report.adr()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(report.occupancy()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(report.revPar()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Nested
+    @DisplayName("room catalog refresh")
+    class RoomCatalogRefresh {
+        @Mock
+        private RoomRepository roomRepository;
+
+        private RoomCatalog roomCatalog;
+
+        @BeforeEach
+        void setUp() {
+            when(roomRepository.findAll()).thenReturn(List.of());
+            roomCatalog = new RoomCatalog(roomRepository,
+                event -> dailyStatsService.onRoomCatalogRefreshed((RoomCatalogRefreshedEvent) event));
+        }
+
+        @Test
+        @DisplayName("queues the forward window in a transaction of its own when no transaction is active")
+        void queuesWindowInNewTransaction() {
+            when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+            LocalDate today = LocalDate.now();
+
+            roomCatalog.refresh();
+
+            ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+            verify(transactionManager).getTransaction(definition.capture());
+            assertThat(definition.getValue().getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            verify(dailyRoomTypeStatsRepository).markPending(today, today.plusDays(365));
+            verify(transactionManager).commit(any());
+        }
+
+        @Test
+        @DisplayName("a failure to queue does not fail the refresh")
+        void failureDoesNotEscape() {
+            when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+            when(dailyRoomTypeStatsRepository.markPending(any(), any())).thenThrow(new IllegalStateException("database down"));
+
+            assertThatCode(roomCatalog::refresh).doesNotThrowAnyException();
+            verify(transactionManager).rollback(any());
+        }
+    }
+}
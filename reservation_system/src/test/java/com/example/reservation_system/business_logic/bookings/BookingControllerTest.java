@@ -0,0 +1,99 @@
+package com.example.reservation_system.business_logic.bookings;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookingController")
+class BookingControllerTest {
+    @Mock
+    private BookingService bookingService;
+
+    // configured like Spring Boot's mapper: ISO dates
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private BookingController bookingController;
+
+    private static final LocalDate DAY = LocalDate.of(2025 , 7 , 1);
+
+    @BeforeEach
+    void setUp() {
+        bookingController = new BookingController(bookingService, objectMapper);
+    }
+
+    @Test
+    @DisplayName("exports every page as newline-delimited JSON, following the cursors")
+    void exportsAllPages() throws Exception {
+        when(bookingService.findBookingPage(null, 200)).thenReturn(new BookingPage(List.of(summary(9L), summary(7L)), "next"));
+        when(bookingService.findBookingPage("next", 200)).thenReturn(new BookingPage(List.of(summary(6L)), null));
+
+        ResponseEntity<StreamingResponseBody> response = bookingController.exportBookingFeed();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertThat(response.getHeaders().getContentType()).hasToString("application/x-ndjson");
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode booking = objectMapper.readTree(line);
+            ids.add(booking.get("id").asLong());
+            assertThat(booking.get("createdAt").asText()).isEqualTo("2025-07-01");
+        }
+        assertThat(ids).containsExactly(9L , 7L , 6L);
+        verify(bookingService).findBookingPage("next", 200);
+    }
+
+    @Test
+    @DisplayName("writes nothing when there are no bookings")
+    void exportsEmpty() throws Exception {
+        when(bookingService.findBookingPage(null, 200)).thenReturn(new BookingPage(List.of(), null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingController.exportBookingFeed().getBody().writeTo(out);
+
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("answers overlapping bookings as summaries, without the guest's credentials")
+    void listsBookingsBetweenAsSummaries() throws Exception {
+        PageRequest pageRequest = PageRequest.of(0, 50);
+        when(bookingService.findRoomsBookedBetween(DAY, DAY.plusDays(30), pageRequest))
+            .thenReturn(new SliceImpl<>(List.of(summary(9L)), pageRequest, false));
+
+        ResponseEntity<?> response = bookingController.getBookingsBetween(DAY, DAY.plusDays(30), 0, 50);
+
+        JsonNode body = objectMapper.readTree(objectMapper.writeValueAsString(response.getBody()));
+        assertThat(body.get("content").get(0).get("username").asText()).isEqualTo("user");
+        assertThat(body.toString()).doesNotContain("password").doesNotContain("appUser");
+    }
+
+    private static BookingSummary summary(Long id) {
+        return new BookingSummary(id , DAY.plusDays(10) , DAY.plusDays(12) , new BigDecimal("299.00") , "USD" ,
+            BookingStatus.CONFIRMED , DAY , DAY , 1L , "user" , "Full Name" , "user@example.com");
+    }
+}
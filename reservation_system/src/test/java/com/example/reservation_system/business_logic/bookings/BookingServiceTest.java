@@ -1,8 +1,16 @@
 package com.example.reservation_system.business_logic.bookings;
 
+import com.example.reservation_system.business_logic.admin_dashboard.DashboardCounters;
+import com.example.reservation_system.business_logic.analytics.DailyStatsService;
+import com.example.reservation_system.business_logic.booking_nights.Booking_nigths_Service;
+import com.example.reservation_system.business_logic.pricing.PricingService;
+import com.example.reservation_system.business_logic.pricing.QuoteTokenService;
+import com.example.reservation_system.business_logic.rates.RateSnapshot;
+import com.example.reservation_system.business_logic.booking_rooms.BookingRooms;
 import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
-import com.example.reservation_system.business_logic.room_inventory.RoomInventory;
-import com.example.reservation_system.business_logic.room_inventory.RoomInventoryRepository;
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomRepository;
+import com.example.reservation_system.business_logic.room_inventory.InventoryReservationService;
 import com.example.reservation_system.model.AppUser;
 import com.example.reservation_system.model.AppUserRepository;
 import com.example.reservation_system.model.AppUserRole;
@@ -15,16 +23,30 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,9 +58,27 @@ public class BookingServiceTest {
     @Mock 
     private BookingRoomsRepository bookingRoomsRepository;
     @Mock 
-    private RoomInventoryRepository roomInventoryRepository; 
+    private RoomRepository roomRepository;
+    @Mock 
+    private InventoryReservationService inventoryReservationService; 
     @Mock 
     private AppUserRepository appUserRepository ;
+    @Mock 
+    private PlatformTransactionManager transactionManager;
+    @Mock 
+    private BookingRetryPolicy bookingRetryPolicy;
+    @Mock
+    private DashboardCounters dashboardCounters;
+    @Mock
+    private DailyStatsService dailyStatsService;
+    @Mock
+    private PricingService pricingService;
+    @Mock
+    private Booking_nigths_Service bookingNightsService;
+    @Mock
+    private QuoteTokenService quoteTokenService;
+    @Mock
+    private RateSnapshot rateSnapshot;
 
     @InjectMocks
     private BookingService bookingService;
@@ -120,18 +160,14 @@ public class BookingServiceTest {
             ); 
 
             AppUser appUser = createAppUser();
-            when(appUserRepository.findById(USER_ID).thenReturn(Optional.of(appUser)));
+            when(appUserRepository.findById(USER_ID)).thenReturn(Optional.of(appUser));
 
-            RoomInventory fullInventory = new RoomInventory();
-            fullInventory.setNight_date(CHECK_IN);
-            fullInventory.setBooked_count(5);
-            fullInventory.setAllotment(5);
-            when(roomInventoryRepository.findByRoomIdAndNightDateBetweenForUpdate(1L, CHECK_IN, CHECK_OUT))
-                .thenReturn(List.of(fullInventory));
+            doThrow(new IllegalArgumentException("Rooms [1] are not available for every night"))
+                .when(inventoryReservationService).reserve(List.of(1L), CHECK_IN, CHECK_OUT);
 
             assertThatThrownBy (() -> bookingService.createBooking(cmd))
                 .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining("room is not available");
+                .hasMessageContaining("are not available");
 
         }
 
@@ -146,13 +182,9 @@ public class BookingServiceTest {
 
             AppUser user =  createAppUser();
             when(appUserRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-
-            RoomInventory available = new RoomInventory();
-            available.setBooked_count(0);
-            available.setAllotment(3);
-            available.setNight_date(CHECK_IN);
-
-            when(roomInventoryRepository.findByRoomIdAndNightDateBetween(1L, CHECK_IN, CHECK_OUT)).thenReturn(List.of(available));
+            List<int[]> nightlyPrices = List.of(new int[] {150 , 149});
+            when(pricingService.rateSnapshot()).thenReturn(rateSnapshot);
+            when(pricingService.nightlyPrices(rateSnapshot , CHECK_IN , CHECK_OUT , List.of(1L))).thenReturn(nightlyPrices);
 
             Booking saved = new Booking();
             saved.setId(10L); 
@@ -168,11 +200,61 @@ public class BookingServiceTest {
             assertThat(result.getStatus()).isEqualTo(BookingStatus.PENDING_PAYMENT);
             assertThat(result.getCheck_in()).isEqualTo(CHECK_IN);
             assertThat(result.getCheck_out()).isEqualTo(CHECK_OUT);
-            assertThat(result.getTotal_amount()).isEqualTo(TOTAL_AMOUNT);
+            assertThat(result.getTotal_amount()).isEqualByComparingTo(TOTAL_AMOUNT);
             assertThat(result.getAppUser()).isEqualTo(user);
 
-            verify(roomInventoryRepository).save(available);
-            assertThat(available.getBooked_count()).isEqual(1);
+            verify(inventoryReservationService).reserve(List.of(1L), CHECK_IN, CHECK_OUT);
+            verify(bookingNightsService).writeNights(10L , List.of(1L) , CHECK_IN , nightlyPrices);
+        }
+
+        @Test
+        @DisplayName("takes the total from the nightly prices, not from the command")
+        void totalFromNightlyPrices() {
+            CreateBookingCmd cmd = new CreateBookingCmd(
+                CHECK_IN , CHECK_OUT ,
+                List.of(1L , 2L) , List.of(2 , 1) , List.of(0 , 0),
+                new BigDecimal("1.00") ,  USER_ID
+            );
+            when(appUserRepository.findById(USER_ID)).thenReturn(Optional.of(createAppUser()));
+            when(pricingService.rateSnapshot()).thenReturn(rateSnapshot);
+            when(pricingService.nightlyPrices(rateSnapshot , CHECK_IN , CHECK_OUT , List.of(1L , 2L)))
+                .thenReturn(List.of(new int[] {100 , 120} , new int[] {80 , 90}));
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Booking result = bookingService.createBooking(cmd);
+
+            assertThat(result.getTotal_amount()).isEqualByComparingTo("390.00");
+        }
+
+        @Test
+        @DisplayName("verifies the quote against the snapshot the nights were priced from")
+        void acceptsMatchingQuote() {
+            CreateBookingCmd cmd = new CreateBookingCmd(CHECK_IN , CHECK_OUT , List.of(1L) , List.of(2) , List.of(0) ,
+                null , "USD" , USER_ID , "token");
+            when(appUserRepository.findById(USER_ID)).thenReturn(Optional.of(createAppUser()));
+            when(pricingService.rateSnapshot()).thenReturn(rateSnapshot);
+            when(pricingService.nightlyPrices(rateSnapshot , CHECK_IN , CHECK_OUT , List.of(1L))).thenReturn(List.of(new int[] {150 , 149}));
+            when(quoteTokenService.verify("token" , CHECK_IN , CHECK_OUT , List.of(1L) , "USD" , rateSnapshot)).thenReturn(TOTAL_AMOUNT);
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Booking result = bookingService.createBooking(cmd);
+
+            assertThat(result.getTotal_amount()).isEqualByComparingTo(TOTAL_AMOUNT);
+        }
+
+        @Test
+        @DisplayName("rejects a quote whose total differs from the nightly prices")
+        void rejectsQuoteNotMatchingNights() {
+            CreateBookingCmd cmd = new CreateBookingCmd(CHECK_IN , CHECK_OUT , List.of(1L) , List.of(2) , List.of(0) ,
+                null , "USD" , USER_ID , "token");
+            when(pricingService.rateSnapshot()).thenReturn(rateSnapshot);
+            when(pricingService.nightlyPrices(rateSnapshot , CHECK_IN , CHECK_OUT , List.of(1L))).thenReturn(List.of(new int[] {150 , 150}));
+            when(quoteTokenService.verify("token" , CHECK_IN , CHECK_OUT , List.of(1L) , "USD" , rateSnapshot)).thenReturn(TOTAL_AMOUNT);
+
+            assertThatThrownBy(() -> bookingService.createBooking(cmd))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not match the nightly prices");
+            verify(inventoryReservationService, never()).reserve(any(), any(), any());
         }
     }
 
@@ -214,10 +296,10 @@ public class BookingServiceTest {
             AppUser other = createAppUser(2L);
             other.setId(2L);
             b2.setAppUser(other);
-            when(bookingRepository.findBookings()).thenReturn(List.of(b1 , b2));
+            when(bookingRepository.findByUserId(USER_ID)).thenReturn(List.of(b1));
 
-            List<Booking> result = bookingRepository.findBookingForUser(USER_ID);
-            assertThat(result).contains(b1);
+            List<Booking> result = bookingService.findByUserId(USER_ID);
+            assertThat(result).contains(b1).doesNotContain(b2);
         }
     }
 
@@ -233,17 +315,39 @@ public class BookingServiceTest {
             existing.setCheck_in(CHECK_IN);
             existing.setCheck_out(CHECK_OUT);
             when(bookingRepository.findById(1L)).thenReturn(Optional.of(existing));
-            when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArguments(0));
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
 
             LocalDate newIn = CHECK_IN.plusDays(1);
             LocalDate newOut = CHECK_OUT.plusDays(1);
-            Booking result = bookingService.updateBooking(1L, newIn, newIn);
+            Booking result = bookingService.updateBooking(1L, newIn, newOut);
 
             assertThat(result.getCheck_in()).isEqualTo(newIn);
             assertThat(result.getCheck_out()).isEqualTo(newOut);
             verify(bookingRepository).save(existing);
         }
 
+        @Test
+        @DisplayName("sets the total from the repriced nights")
+        void repricesTotal() {
+            Booking existing = new Booking();
+            existing.setId(1L);
+            existing.setCheck_in(CHECK_IN);
+            existing.setCheck_out(CHECK_OUT);
+            existing.setStatus(BookingStatus.CONFIRMED);
+            existing.setTotal_amount(TOTAL_AMOUNT);
+            LocalDate newOut = CHECK_OUT.plusDays(1);
+            List<int[]> nightlyPrices = List.of(new int[] {100, 120, 150}, new int[] {80, 80, 90});
+            when(bookingRepository.findById(1L)).thenReturn(Optional.of(existing));
+            when(bookingRoomsRepository.findRoomIdsByBookingId(1L)).thenReturn(List.of(7L, 8L));
+            when(pricingService.nightlyPrices(CHECK_IN, newOut, List.of(7L, 8L))).thenReturn(nightlyPrices);
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Booking result = bookingService.updateBooking(1L, CHECK_IN, newOut);
+
+            assertThat(result.getTotal_amount()).isEqualByComparingTo("620.00");
+            verify(bookingNightsService).replaceNights(1L, List.of(7L, 8L), CHECK_IN, nightlyPrices);
+        }
+
         @Test 
         @DisplayName("thorws when booking not found")
         void throwsWhenNotFound() {
@@ -301,6 +405,25 @@ public class BookingServiceTest {
             verify(bookingRepository).save(existing);
         }
 
+        @Test 
+        @DisplayName("releases the inventory of its rooms")
+        void releasesInventory() {
+            Booking existing = new Booking();
+            existing.setId(1L);
+            existing.setCheck_in(CHECK_IN);
+            existing.setCheck_out(CHECK_OUT);
+            existing.setStatus(BookingStatus.CONFIRMED);
+            Room room = new Room();
+            room.setId(7L);
+            when(bookingRepository.findById(1L)).thenReturn(Optional.of(existing));
+            when(bookingRoomsRepository.findRoomIdsByBookingId(1L)).thenReturn(List.of(room.getId()));
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            bookingService.cancelBooking(1L);
+
+            verify(inventoryReservationService).release(List.of(7L), CHECK_IN, CHECK_OUT);
+        }
+
 
         @Test 
         @DisplayName("throws when booking not found")
@@ -320,7 +443,9 @@ public class BookingServiceTest {
         @Test 
         @DisplayName("delete when exists")
         void deletesWhenExists () {
-            when(bookingRepository.existsById(1L)).thenReturn(true);
+            Booking existing = new Booking();
+            existing.setId(1L);
+            when(bookingRepository.findById(1L)).thenReturn(Optional.of(existing));
             bookingService.deleteBooking(1L);
             verify(bookingRepository).deleteById(1L);
         }
@@ -328,7 +453,7 @@ public class BookingServiceTest {
         @Test 
         @DisplayName("throws when booking does not exist")
         void throwsWhenBookingNotExists () {
-            when(bookingRepository.existsById(999L)).thenReturn(false);
+            when(bookingRepository.findById(999L)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> bookingService.deleteBooking(999L))
                 .isInstanceOf(IllegalStateException.class)
@@ -336,6 +461,107 @@ public class BookingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("findBookingPage")
+    class FindBookingPage {
+        private static final LocalDate DAY = LocalDate.of(2025 , 7 , 1);
+
+        // rows as the keyset queries see them: created_at DESC, id DESC, several sharing a day
+        private final List<BookingSummary> rows = List.of(
+            summary(9L , DAY),
+            summary(7L , DAY),
+            summary(6L , DAY),
+            summary(5L , DAY.minusDays(1)),
+            summary(2L , DAY.minusDays(1)));
+
+        @BeforeEach
+        void keysetQueries() {
+            lenient().when(bookingRepository.findFirstSummaryPage(any(Limit.class)))
+                .thenAnswer(inv -> rows.stream().limit(inv.<Limit>getArgument(0).max()).toList());
+            lenient().when(bookingRepository.findSummaryPage(any(LocalDate.class), any(Long.class), any(Limit.class)))
+                .thenAnswer(inv -> {
+                    LocalDate createdAt = inv.getArgument(0);
+                    Long id = inv.getArgument(1);
+                    return rows.stream()
+                        .filter(row -> !row.createdAt().isAfter(createdAt) && (row.createdAt().isBefore(createdAt) || row.id() < id))
+                        .limit(inv.<Limit>getArgument(2).max())
+                        .toList();
+                });
+        }
+
+        @Test
+        @DisplayName("pages across rows sharing a day without skipping or repeating any")
+        void pagesAcrossSameDay() {
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                BookingPage page = bookingService.findBookingPage(cursor , 2);
+                page.items().forEach(item -> seen.add(item.id()));
+                cursor = page.nextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertThat(seen).containsExactly(9L , 7L , 6L , 5L , 2L);
+            assertThat(pages).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("continues after the last row of the page")
+        void cursorPointsAtLastRow() {
+            BookingPage first = bookingService.findBookingPage(null , 2);
+
+            assertThat(BookingCursor.decode(first.nextCursor())).isEqualTo(new BookingCursor(DAY , 7L));
+        }
+
+        @Test
+        @DisplayName("has no next page when the rows fit")
+        void lastPage() {
+            assertThat(bookingService.findBookingPage(null , 5).nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("rejects a malformed cursor")
+        void rejectsMalformedCursor() {
+            assertThatThrownBy(() -> bookingService.findBookingPage("not-a-cursor" , 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid booking cursor");
+        }
+    }
+
+    @Nested
+    @DisplayName("findRoomsBookedBetween")
+    class FindRoomsBookedBetween {
+        @Test
+        @DisplayName("turns the native summary rows into booking summaries")
+        void mapsRows() {
+            // JDBC values as the native query returns them; the projection converts them
+            Map<String, Object> columns = new HashMap<>();
+            columns.put("id", 5L);
+            columns.put("checkIn", Date.valueOf(CHECK_IN));
+            columns.put("checkOut", Date.valueOf(CHECK_OUT));
+            columns.put("totalAmount", TOTAL_AMOUNT);
+            columns.put("currency", "USD");
+            columns.put("status", "CONFIRMED");
+            columns.put("createdAt", Date.valueOf(CHECK_IN.minusDays(10)));
+            columns.put("updatedAt", Timestamp.valueOf(CHECK_IN.minusDays(9).atTime(14, 30)));
+            columns.put("userId", USER_ID);
+            columns.put("username", "guest");
+            columns.put("fullName", "Guest User");
+            columns.put("email", "guest@example.com");
+            BookingSummaryRow row = new SpelAwareProxyProjectionFactory().createProjection(BookingSummaryRow.class, columns);
+            PageRequest pageRequest = PageRequest.of(0, 50);
+            when(bookingRepository.findSummariesBookedBetween(CHECK_IN, CHECK_OUT, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(row), pageRequest, true));
+
+            Slice<BookingSummary> slice = bookingService.findRoomsBookedBetween(CHECK_IN, CHECK_OUT, pageRequest);
+
+            assertThat(slice.hasNext()).isTrue();
+            assertThat(slice.getContent()).containsExactly(new BookingSummary(5L , CHECK_IN , CHECK_OUT , TOTAL_AMOUNT , "USD" ,
+                BookingStatus.CONFIRMED , CHECK_IN.minusDays(10) , CHECK_IN.minusDays(9) , USER_ID , "guest" , "Guest User" , "guest@example.com"));
+        }
+    }
+
     @Nested 
     @DisplayName("getTotalBookings")
     class getTotalBookings {
@@ -347,6 +573,11 @@ public class BookingServiceTest {
         } 
     }
 
+    private static BookingSummary summary(Long id , LocalDate createdAt) {
+        return new BookingSummary(id , CHECK_IN , CHECK_OUT , TOTAL_AMOUNT , "USD" , BookingStatus.CONFIRMED ,
+            createdAt , createdAt , USER_ID , "user" , "Full Name" , "user@example.com");
+    }
+
     private static AppUser createAppUser() {
         return createAppUser(USER_ID);
     }
@@ -0,0 +1,162 @@
+package com.example.reservation_system.business_logic.bookings;
+
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomRepository;
+import com.example.reservation_system.business_logic.room_inventory.InventoryLockMode;
+import com.example.reservation_system.business_logic.room_inventory.InventoryReservationService;
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.model.AppUserRepository;
+import com.example.reservation_system.model.AppUserRole;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the PESSIMISTIC and OPTIMISTIC inventory modes under concurrent bookings.
+ *
+ * Needs the PostgreSQL database from docker-compose with the V2 seed data and is skipped unless
+ * started explicitly:  ./mvnw test -Dtest=InventoryContentionBenchmark -Dbenchmark.inventory=true
+ *
+ * Each run books 2-night stays on random rooms inside a date window. A narrow window means many
+ * bookings share hot dates, a wide one models the usual low-contention calendar. Every mode/window
+ * pair uses its own slice of the 365 seeded days so runs do not see each other's bookings.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.inventory", matches = "true")
+@DisplayName("Inventory contention benchmark")
+class InventoryContentionBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(InventoryContentionBenchmark.class);
+    private static final int THREADS = 32;
+    private static final int BOOKINGS_PER_THREAD = 25;
+    private static final int NIGHTS = 2;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest(name = "{0}, window {2} days")
+    @CsvSource({
+        "PESSIMISTIC , 1   , 4",
+        "OPTIMISTIC  , 10  , 4",
+        "PESSIMISTIC , 20  , 80",
+        "OPTIMISTIC  , 110 , 80"
+    })
+    void bookConcurrently(InventoryLockMode mode, int firstDayOffset, int windowDays) throws InterruptedException {
+        ReflectionTestUtils.setField(inventoryReservationService, "lockMode", mode);
+        List<Long> roomIds = roomRepository.findAll().stream().map(Room::getId).toList();
+        Long userId = benchmarkUser().getId();
+        LocalDate firstDay = LocalDate.now().plusDays(firstDayOffset);
+        LocalDate lastDay = firstDay.plusDays(windowDays);
+        Map<String, NightCount> before = nightCounts(firstDay, lastDay);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    LocalDate checkIn = firstDay.plusDays(random.nextInt(windowDays - NIGHTS + 1));
+                    Long roomId = roomIds.get(random.nextInt(roomIds.size()));
+                    CreateBookingCmd cmd = new CreateBookingCmd(checkIn, checkIn.plusDays(NIGHTS),
+                        List.of(roomId), List.of(1), List.of(0), BigDecimal.valueOf(100), userId);
+                    try {
+                        bookingService.createBooking(cmd);
+                        booked.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        soldOut.incrementAndGet();
+                    } catch (ConcurrencyFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        int attempts = THREADS * BOOKINGS_PER_THREAD;
+        log.info("{} window={} days: {} requests in {} ms ({} req/s), booked={}, sold out={}, gave up on conflict={}",
+            mode, windowDays, attempts, elapsedMs, Math.round(attempts * 1000.0 / Math.max(1, elapsedMs)),
+            booked.get(), soldOut.get(), conflicts.get());
+
+        // a room-night can never be sold twice, whatever the mode: every night stays within its allotment
+        // and its booked_count moved by exactly the number of bookings that now hold it
+        Map<String, NightCount> after = nightCounts(firstDay, lastDay);
+        assertThat(after.keySet()).isEqualTo(before.keySet());
+        int reservedNights = 0;
+        for (NightCount night : after.values()) {
+            NightCount previous = before.get(night.key());
+            assertThat(night.booked()).as("booked_count of %s", night.key()).isLessThanOrEqualTo(night.allotment());
+            assertThat(night.booked() - previous.booked()).as("bookings holding %s", night.key()).isEqualTo(night.held() - previous.held());
+            reservedNights += night.booked() - previous.booked();
+        }
+        assertThat(reservedNights).isEqualTo(booked.get() * NIGHTS);
+    }
+
+    private Map<String, NightCount> nightCounts(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                SELECT ri.room_id, ri.night_date, ri.booked_count, ri.allotment,
+                       (SELECT count(*) FROM booking_rooms br JOIN bookings b ON b.id = br.booking_id
+                        WHERE br.room_id = ri.room_id
+                          AND b.check_in <= ri.night_date AND b.check_out > ri.night_date) AS held
+                FROM room_inventory ri
+                WHERE ri.night_date >= ? AND ri.night_date < ?
+                """,
+                (rs, rowNum) -> new NightCount(rs.getLong("room_id"), rs.getObject("night_date", LocalDate.class),
+                    rs.getInt("booked_count"), rs.getInt("allotment"), rs.getInt("held")),
+                from, to)
+            .stream()
+            .collect(Collectors.toMap(NightCount::key, Function.identity()));
+    }
+
+    private record NightCount(long roomId, LocalDate night, int booked, int allotment, int held) {
+        String key() {
+            return roomId + "@" + night;
+        }
+    }
+
+    private AppUser benchmarkUser() {
+        return appUserRepository.findByUsername("inventory-benchmark")
+            .orElseGet(() -> appUserRepository.save(new AppUser("inventory-benchmark", "Inventory Benchmark",
+                "inventory-benchmark@example.com", "n/a", LocalDate.now(), AppUserRole.GUEST)));
+    }
+}
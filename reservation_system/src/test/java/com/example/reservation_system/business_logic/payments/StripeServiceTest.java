@@ -0,0 +1,234 @@
+package com.example.reservation_system.business_logic.payments;
+
+import com.example.reservation_system.business_logic.admin_dashboard.DashboardCounters;
+import com.example.reservation_system.business_logic.analytics.DailyStatsService;
+import com.example.reservation_system.business_logic.bookings.Booking;
+import com.example.reservation_system.business_logic.bookings.BookingRepository;
+import com.example.reservation_system.business_logic.bookings.BookingStatus;
+import com.stripe.Stripe;
+import com.stripe.model.PaymentIntent;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs webhook handling against a local Stripe stand-in, so the test can count calls to the Stripe API.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StripeService")
+class StripeServiceTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private DashboardCounters dashboardCounters;
+    @Mock
+    private DailyStatsService dailyStatsService;
+
+    @InjectMocks
+    private StripeService stripeService;
+
+    private static final String INTENT_ID = "pi_123";
+
+    private HttpServer stripeStandIn;
+    private final AtomicInteger stripeCalls = new AtomicInteger();
+    private String originalApiBase;
+
+    @BeforeEach
+    void startStripeStandIn() throws IOException {
+        stripeStandIn = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stripeStandIn.createContext("/v1/payment_intents/" + INTENT_ID, exchange -> {
+            stripeCalls.incrementAndGet();
+            byte[] body = """
+                {"id": "pi_123", "object": "payment_intent", "amount": 15000, "currency": "usd",
+                 "status": "succeeded", "metadata": {"booking_id": "1"}}
+                """.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stripeStandIn.start();
+
+        originalApiBase = Stripe.getApiBase();
+        Stripe.apiKey = "sk_test_stand_in";
+        Stripe.overrideApiBase("http://localhost:" + stripeStandIn.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopStripeStandIn() {
+        Stripe.overrideApiBase(originalApiBase);
+        stripeStandIn.stop(0);
+    }
+
+    @Test
+    @DisplayName("confirms the booking from the event payload without calling Stripe")
+    void usesPayload() throws Exception {
+        Booking booking = pendingBooking(new BigDecimal("150.00"));
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(booking));
+
+        stripeService.handlePaymentSuccess(intent(15000L));
+
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(stripeCalls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("re-fetches the intent when the payload amount disagrees with the booking")
+    void reconcilesOnMismatch() throws Exception {
+        Booking booking = pendingBooking(new BigDecimal("150.00"));
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(booking));
+
+        stripeService.handlePaymentSuccess(intent(100L));
+
+        ArgumentCaptor<Payment> payment = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentRepository).save(payment.capture());
+        assertThat(payment.getValue().getAmount()).isEqualTo(15000);
+        assertThat(stripeCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("re-fetches every intent in ALWAYS mode")
+    void alwaysReconciles() throws Exception {
+        ReflectionTestUtils.setField(stripeService, "reconciliation", WebhookReconciliation.ALWAYS);
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(pendingBooking(new BigDecimal("150.00"))));
+
+        stripeService.handlePaymentSuccess(intent(15000L));
+
+        assertThat(stripeCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("fails the event when the re-fetched intent still disagrees with the booking")
+    void failsWhenStillMismatched() {
+        Booking booking = pendingBooking(new BigDecimal("200.00"));
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(booking));
+
+        assertThatThrownBy(() -> stripeService.handlePaymentSuccess(intent(15000L)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("does not match booking 1");
+
+        assertThat(stripeCalls).hasValue(1);
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.PENDING_PAYMENT);
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("re-fetches and fails the event when the currency disagrees with the booking")
+    void checksCurrency() {
+        Booking booking = pendingBooking(new BigDecimal("150.00"));
+        booking.setCurrency("EUR");
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(booking));
+
+        assertThatThrownBy(() -> stripeService.handlePaymentSuccess(intent(15000L)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(stripeCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("rejects a malformed booking_id in the metadata as unprocessable")
+    void rejectsMalformedBookingId() {
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.empty());
+        PaymentIntent eventIntent = intent(15000L);
+        eventIntent.setMetadata(Map.of("booking_id", "not-a-number"));
+
+        assertThatThrownBy(() -> stripeService.handlePaymentSuccess(eventIntent))
+            .isInstanceOf(UnprocessableWebhookEventException.class)
+            .hasMessageContaining("not-a-number");
+        verify(bookingRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("ignores a redelivered success for a booking this intent already paid")
+    void ignoresDuplicateSuccess() throws Exception {
+        Booking booking = pendingBooking(new BigDecimal("150.00"));
+        booking.setStatus(BookingStatus.CONFIRMED);
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(booking));
+        when(paymentRepository.findByProviderRef(INTENT_ID)).thenReturn(Optional.of(payment(PayementStatus.COMPLETED)));
+
+        assertThat(stripeService.handlePaymentSuccess(intent(100L))).isSameAs(booking);
+
+        assertThat(stripeCalls).hasValue(0);
+        verify(bookingRepository, never()).save(any());
+        verify(paymentRepository, never()).save(any());
+        verify(dashboardCounters, never()).paymentCompleted(anyLong());
+    }
+
+    @Test
+    @DisplayName("completes the payment row of an earlier failed attempt instead of adding one")
+    void upgradesRejectedPayment() throws Exception {
+        Payment rejected = payment(PayementStatus.REJECTED);
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(pendingBooking(new BigDecimal("150.00"))));
+        when(paymentRepository.findByProviderRef(INTENT_ID)).thenReturn(Optional.of(rejected));
+
+        stripeService.handlePaymentSuccess(intent(15000L));
+
+        verify(paymentRepository).save(rejected);
+        assertThat(rejected.getStatus()).isEqualTo(PayementStatus.COMPLETED);
+        verify(dashboardCounters).paymentCompleted(15000);
+    }
+
+    @Test
+    @DisplayName("does not record a failure for an intent that already has a payment")
+    void keepsCompletedPaymentOnLateFailure() throws Exception {
+        when(bookingRepository.findByPaymentIntentId(INTENT_ID)).thenReturn(Optional.of(pendingBooking(new BigDecimal("150.00"))));
+        when(paymentRepository.findByProviderRef(INTENT_ID)).thenReturn(Optional.of(payment(PayementStatus.COMPLETED)));
+
+        stripeService.handlePaymentFailure(intent(15000L));
+
+        verify(paymentRepository, never()).save(any());
+    }
+
+    private static Payment payment(PayementStatus status) {
+        Payment payment = new Payment("stripe", INTENT_ID, 15000, status, java.time.LocalDate.now());
+        payment.setId(1L);
+        return payment;
+    }
+
+    private static PaymentIntent intent(Long amount) {
+        PaymentIntent paymentIntent = new PaymentIntent();
+        paymentIntent.setId(INTENT_ID);
+        paymentIntent.setAmount(amount);
+        paymentIntent.setCurrency("usd");
+        paymentIntent.setStatus("succeeded");
+        paymentIntent.setMetadata(Map.of("booking_id", "1"));
+        return paymentIntent;
+    }
+
+    private static Booking pendingBooking(BigDecimal total) {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setStatus(BookingStatus.PENDING_PAYMENT);
+        booking.setTotal_amount(total);
+        booking.setCurrency("USD");
+        booking.setPayment_intent_id(INTENT_ID);
+        return booking;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.reservation_system.business_logic.payments;
+
+import com.stripe.model.Event;
+import com.stripe.net.ApiResource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StripeWebhookInbox")
+class StripeWebhookInboxTest {
+    @Mock
+    private StripeWebhookEventRepository stripeWebhookEventRepository;
+
+    @InjectMocks
+    private StripeWebhookInbox stripeWebhookInbox;
+
+    @Test
+    @DisplayName("handles only payment intent outcomes")
+    void handlesPaymentIntentEvents() {
+        assertThat(stripeWebhookInbox.handles(event("evt_1", "payment_intent.succeeded", intentJson("1")))).isTrue();
+        assertThat(stripeWebhookInbox.handles(event("evt_2", "payment_intent.payment_failed", intentJson("1")))).isTrue();
+        assertThat(stripeWebhookInbox.handles(event("evt_3", "customer.created", "{\"id\": \"cus_1\", \"object\": \"customer\"}"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("stores a new event keyed by its booking")
+    void appendsNewEvent() {
+        String payload = payload("evt_1", "payment_intent.succeeded", intentJson("42"));
+        when(stripeWebhookEventRepository.appendIfAbsent(any(), any(), any(), any(), any())).thenReturn(1);
+
+        boolean appended = stripeWebhookInbox.append(parse(payload), payload);
+
+        assertThat(appended).isTrue();
+        verify(stripeWebhookEventRepository).appendIfAbsent("evt_1", "payment_intent.succeeded", "pi_123", "booking:42", payload);
+    }
+
+    @Test
+    @DisplayName("ignores a redelivered event with the same event id")
+    void ignoresRedelivery() {
+        Event event = event("evt_1", "payment_intent.succeeded", intentJson("42"));
+        when(stripeWebhookEventRepository.appendIfAbsent(eq("evt_1"), any(), any(), any(), any())).thenReturn(1, 0);
+
+        assertThat(stripeWebhookInbox.append(event, "{}")).isTrue();
+        assertThat(stripeWebhookInbox.append(event, "{}")).isFalse();
+    }
+
+    @Test
+    @DisplayName("keys events by payment intent when the booking id is missing")
+    void keysByIntentWithoutMetadata() {
+        Event event = event("evt_1", "payment_intent.payment_failed", "{\"id\": \"pi_123\", \"object\": \"payment_intent\"}");
+        when(stripeWebhookEventRepository.appendIfAbsent(any(), any(), any(), any(), any())).thenReturn(1);
+
+        stripeWebhookInbox.append(event, "{}");
+
+        verify(stripeWebhookEventRepository).appendIfAbsent(eq("evt_1"), anyString(), eq("pi_123"), eq("intent:pi_123"), anyString());
+    }
+
+    @Test
+    @DisplayName("keys events by event id when there is no payment intent")
+    void keysByEventWithoutIntent() {
+        Event event = event("evt_1", "payment_intent.succeeded", "{\"id\": \"cus_1\", \"object\": \"customer\"}");
+        when(stripeWebhookEventRepository.appendIfAbsent(any(), any(), any(), any(), any())).thenReturn(1);
+
+        stripeWebhookInbox.append(event, "{}");
+
+        verify(stripeWebhookEventRepository).appendIfAbsent(eq("evt_1"), anyString(), isNull(), eq("evt_1"), anyString());
+    }
+
+    static String intentJson(String bookingId) {
+        return """
+            {"id": "pi_123", "object": "payment_intent", "amount": 15000, "currency": "usd",
+             "status": "succeeded", "metadata": {"booking_id": "%s"}}
+            """.formatted(bookingId);
+    }
+
+    static String payload(String eventId, String type, String objectJson) {
+        return """
+            {"id": "%s", "object": "event", "type": "%s", "api_version": "%s", "data": {"object": %s}}
+            """.formatted(eventId, type, com.stripe.Stripe.API_VERSION, objectJson);
+    }
+
+    private static Event event(String eventId, String type, String objectJson) {
+        return parse(payload(eventId, type, objectJson));
+    }
+
+    private static Event parse(String payload) {
+        return ApiResource.GSON.fromJson(payload, Event.class);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.reservation_system.business_logic.payments;
+
+import com.example.reservation_system.business_logic.bookings.Booking;
+import com.example.reservation_system.business_logic.invoice.InvoiceService;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.model.PaymentIntent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.reservation_system.business_logic.payments.StripeWebhookInboxTest.intentJson;
+import static com.example.reservation_system.business_logic.payments.StripeWebhookInboxTest.payload;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The claim, retry and parking SQL runs in PostgreSQL; these tests check what the worker asks the inbox to do.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StripeWebhookWorker")
+class StripeWebhookWorkerTest {
+    @Mock
+    private StripeWebhookEventRepository stripeWebhookEventRepository;
+    @Mock
+    private StripeService stripeService;
+    @Mock
+    private InvoiceService invoiceService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StripeWebhookWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = newWorker(16);
+    }
+
+    @Nested
+    @DisplayName("process")
+    class Process {
+        @Test
+        @DisplayName("handles a succeeded payment from the stored payload and marks it done")
+        void handlesSucceeded() throws Exception {
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("1"), 1));
+
+            ArgumentCaptor<PaymentIntent> intent = ArgumentCaptor.forClass(PaymentIntent.class);
+            verify(stripeService).handlePaymentSuccess(intent.capture());
+            assertThat(intent.getValue().getId()).isEqualTo("pi_123");
+            assertThat(intent.getValue().getMetadata()).containsEntry("booking_id", "1");
+            verify(stripeWebhookEventRepository).markDone(7L);
+            verify(stripeWebhookEventRepository, never()).markFailed(anyLong(), anyString(), anyInt(), anyLong());
+        }
+
+        @Test
+        @DisplayName("handles a failed payment from the stored payload")
+        void handlesFailed() throws Exception {
+            worker.process(event(7L, "payment_intent.payment_failed", intentJson("1"), 1));
+
+            verify(stripeService).handlePaymentFailure(any(PaymentIntent.class));
+            verify(stripeWebhookEventRepository).markDone(7L);
+            verifyNoInteractions(invoiceService);
+        }
+
+        @Test
+        @DisplayName("issues the invoice for the confirmed booking after the transaction has committed")
+        void invoicesAfterCommit() throws Exception {
+            Booking booking = new Booking();
+            booking.setId(1L);
+            when(stripeService.handlePaymentSuccess(any(PaymentIntent.class))).thenReturn(booking);
+
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("1"), 1));
+
+            InOrder order = inOrder(stripeWebhookEventRepository, transactionManager, invoiceService);
+            order.verify(stripeWebhookEventRepository).markDone(7L);
+            order.verify(transactionManager).commit(any());
+            order.verify(invoiceService).createInvoiceForBooking(booking);
+        }
+
+        @Test
+        @DisplayName("keeps the event done when the invoice cannot be generated")
+        void invoiceFailureDoesNotFailEvent() throws Exception {
+            Booking booking = new Booking();
+            booking.setId(1L);
+            when(stripeService.handlePaymentSuccess(any(PaymentIntent.class))).thenReturn(booking);
+            when(invoiceService.createInvoiceForBooking(booking)).thenThrow(new IllegalStateException("disk full"));
+
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("1"), 1));
+
+            verify(stripeWebhookEventRepository).markDone(7L);
+            verify(stripeWebhookEventRepository, never()).markFailed(anyLong(), anyString(), anyInt(), anyLong());
+        }
+
+        @Test
+        @DisplayName("fetches the intent by id when the payload cannot be deserialized for this API version")
+        void fallsBackToIntentId() throws Exception {
+            StripeWebhookEvent event = event(7L, "payment_intent.succeeded", intentJson("1"), 1);
+            event.setPayload(event.getPayload().replace(com.stripe.Stripe.API_VERSION, "2019-01-01"));
+
+            worker.process(event);
+
+            verify(stripeService).handlePaymentSuccess("pi_123");
+            verify(stripeService, never()).handlePaymentSuccess(any(PaymentIntent.class));
+            verify(stripeWebhookEventRepository).markDone(7L);
+        }
+
+        @Test
+        @DisplayName("schedules a retry with exponential backoff when handling fails")
+        void retriesWithBackoff() throws Exception {
+            when(stripeService.handlePaymentSuccess(any(PaymentIntent.class))).thenThrow(new IllegalStateException("db down"));
+
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("1"), 1));
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("1"), 3));
+
+            verify(stripeWebhookEventRepository).markFailed(eq(7L), contains("db down"), eq(8), eq(1000L));
+            verify(stripeWebhookEventRepository).markFailed(eq(7L), contains("db down"), eq(8), eq(4000L));
+            verify(stripeWebhookEventRepository, never()).markDone(anyLong());
+            verifyNoInteractions(invoiceService);
+        }
+
+        @Test
+        @DisplayName("caps the backoff")
+        void capsBackoff() throws Exception {
+            when(stripeService.handlePaymentSuccess(any(PaymentIntent.class))).thenThrow(new IllegalStateException("db down"));
+
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("1"), 40));
+
+            verify(stripeWebhookEventRepository).markFailed(eq(7L), anyString(), eq(8), eq(1000L << 10));
+        }
+
+        @Test
+        @DisplayName("retries when the Stripe API cannot be reached")
+        void retriesStripeErrors() throws Exception {
+            when(stripeService.handlePaymentSuccess(any(PaymentIntent.class))).thenThrow(new ApiConnectionException("timeout"));
+
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("1"), 2));
+
+            verify(stripeWebhookEventRepository).markFailed(eq(7L), contains("evt_7"), eq(8), eq(2000L));
+        }
+
+        @Test
+        @DisplayName("parks an event with an unreadable payload on its first attempt")
+        void parksUnreadablePayload() {
+            StripeWebhookEvent event = event(7L, "payment_intent.succeeded", intentJson("1"), 1);
+            event.setPayload("{not json");
+
+            worker.process(event);
+
+            verify(stripeWebhookEventRepository).markFailed(eq(7L), contains("Unreadable payload"), eq(0), eq(0L));
+            verifyNoInteractions(stripeService);
+        }
+
+        @Test
+        @DisplayName("parks an event without a data object")
+        void parksEventWithoutData() {
+            StripeWebhookEvent event = event(7L, "payment_intent.succeeded", intentJson("1"), 1);
+            event.setPayload("{\"id\": \"evt_7\", \"object\": \"event\", \"type\": \"payment_intent.succeeded\"}");
+
+            worker.process(event);
+
+            verify(stripeWebhookEventRepository).markFailed(eq(7L), contains("no data object"), eq(0), eq(0L));
+            verifyNoInteractions(stripeService);
+        }
+
+        @Test
+        @DisplayName("parks an event whose booking id cannot be resolved")
+        void parksMalformedMetadata() throws Exception {
+            when(stripeService.handlePaymentSuccess(any(PaymentIntent.class)))
+                .thenThrow(new UnprocessableWebhookEventException("Invalid booking_id metadata 'abc'"));
+
+            worker.process(event(7L, "payment_intent.succeeded", intentJson("abc"), 1));
+
+            verify(stripeWebhookEventRepository).markFailed(eq(7L), contains("Invalid booking_id"), eq(0), eq(0L));
+            verify(stripeWebhookEventRepository, never()).markDone(anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("poll")
+    class Poll {
+        @Test
+        @DisplayName("processes every claimed event")
+        void processesClaimed() throws Exception {
+            when(stripeWebhookEventRepository.claimNext(16)).thenReturn(List.of(
+                event(1L, "payment_intent.succeeded", intentJson("1"), 1),
+                event(2L, "payment_intent.payment_failed", intentJson("2"), 1)));
+
+            worker.poll();
+
+            verify(stripeWebhookEventRepository, timeout(2000)).markDone(1L);
+            verify(stripeWebhookEventRepository, timeout(2000)).markDone(2L);
+        }
+
+        @Test
+        @DisplayName("claims no more events than it has free workers")
+        void boundsClaimsByFreeWorkers() throws Exception {
+            StripeWebhookWorker bounded = newWorker(2);
+            CountDownLatch release = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            }).when(stripeService).handlePaymentSuccess(any(PaymentIntent.class));
+            when(stripeWebhookEventRepository.claimNext(2)).thenReturn(List.of(event(1L, "payment_intent.succeeded", intentJson("1"), 1)));
+            when(stripeWebhookEventRepository.claimNext(1)).thenReturn(List.of(event(2L, "payment_intent.succeeded", intentJson("2"), 1)));
+
+            bounded.poll();
+            verify(stripeService, timeout(2000)).handlePaymentSuccess(any(PaymentIntent.class));
+            bounded.poll();
+            verify(stripeService, timeout(2000).times(2)).handlePaymentSuccess(any(PaymentIntent.class));
+            // both workers are busy, so there is nothing to claim for
+            bounded.poll();
+
+            release.countDown();
+            verify(stripeWebhookEventRepository, timeout(2000)).markDone(1L);
+            verify(stripeWebhookEventRepository, timeout(2000)).markDone(2L);
+            verify(stripeWebhookEventRepository, times(2)).claimNext(anyInt());
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("returns events of workers that outlived their lease")
+    void releasesExpiredClaims() {
+        when(stripeWebhookEventRepository.releaseExpiredClaims(300000L)).thenReturn(2);
+
+        worker.releaseExpiredClaims();
+
+        verify(stripeWebhookEventRepository).releaseExpiredClaims(300000L);
+    }
+
+    private StripeWebhookWorker newWorker(int maxConcurrency) {
+        StripeWebhookWorker newWorker = new StripeWebhookWorker(stripeWebhookEventRepository, stripeService, invoiceService, transactionManager, maxConcurrency);
+        ReflectionTestUtils.setField(newWorker, "maxAttempts", 8);
+        ReflectionTestUtils.setField(newWorker, "retryBackoffMs", 1000L);
+        return newWorker;
+    }
+
+    private static StripeWebhookEvent event(Long id, String type, String objectJson, int attempts) {
+        StripeWebhookEvent event = new StripeWebhookEvent();
+        event.setId(id);
+        event.setEvent_id("evt_" + id);
+        event.setEvent_type(type);
+        event.setPayment_intent_id("pi_123");
+        event.setBooking_key("booking:1");
+        event.setPayload(payload("evt_" + id, type, objectJson));
+        event.setStatus(WebhookEventStatus.PROCESSING);
+        event.setAttempts(attempts);
+        return event;
+    }
+}
@@ -3,27 +3,26 @@ package com.example.reservation_system.business_logic.pricing;
 import com.example.reservation_system.business_logic.bookings.Booking;
 import com.example.reservation_system.business_logic.booking_rooms.BookingRooms;
 import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
+import com.example.reservation_system.business_logic.rates.RateIndex;
 import com.example.reservation_system.business_logic.rates.Rates;
 import com.example.reservation_system.business_logic.rates.RatesRepository;
 import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
 import com.example.reservation_system.business_logic.room.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,9 +35,16 @@ class PricingServiceTest {
     @Mock 
     private RoomRepository roomRepository;
 
-    @InjectMocks
     private PricingService pricingService;
 
+    @BeforeEach
+    void setUp() {
+        // real index over the mocked rates table
+        RateIndex rateIndex = new RateIndex(ratesRepository);
+        RoomCatalog roomCatalog = new RoomCatalog(roomRepository, event -> { });
+        pricingService = new PricingService(rateIndex, bookingRoomsRepository, roomCatalog, new QuoteTokenService("test-secret", 900));
+    }
+
     private static final LocalDate CHECK_IN = LocalDate.of(2025, 6 , 1);
     private static final LocalDate CHECK_OUT = LocalDate.of(2025 , 6 , 3);
 
@@ -68,8 +74,7 @@ class PricingServiceTest {
         @Test
         @DisplayName("throws when no rate defined for room type")
         void throwsWhenNoRateDefined() {
-            when(ratesRepository.findApplicableRatesForDate(eq("UNKNOWN") , any(LocalDate.class)))
-                .thenReturn(List.of());
+            when(ratesRepository.findAll()).thenReturn(List.of());
             
             assertThatThrownBy(() -> pricingService.calculateTotalAmount(CHECK_IN, CHECK_OUT, List.of("UNKNOWN")))
                 .isInstanceOf(IllegalStateException.class)
@@ -79,10 +84,7 @@ class PricingServiceTest {
         @Test 
         @DisplayName("sums seasonal rate per night for each room type")
         void sumRatePerNight() {
-            when(ratesRepository.findApplicableRatesForDate(eq("STANDARD"), eq(LocalDate.of(2025 , 6 , 1))))
-                .thenReturn(List.of(new Rates("STANDARD" , CHECK_IN , CHECK_OUT , 100)));
-
-            when(ratesRepository.findApplicableRatesForDate(eq("STANDARD"), eq(LocalDate.of(2025 , 6 , 2))))
+            when(ratesRepository.findAll())
                 .thenReturn(List.of(new Rates("STANDARD" , CHECK_IN , CHECK_OUT , 100)));
 
             BigDecimal total = pricingService.calculateTotalAmount(CHECK_IN, CHECK_OUT, List.of("STANDARD"));
@@ -93,16 +95,28 @@ class PricingServiceTest {
         @Test
         @DisplayName("sums multiple room type per night")
         void sumsMultipleRoomTypes () {
-            when(ratesRepository.findApplicableRatesForDate(eq("STANDARD"), any(LocalDate.class)))
-                .thenReturn(List.of(new Rates("STANDARD" , CHECK_IN , CHECK_OUT , 80)));
-            
-            when(ratesRepository.findApplicableRatesForDate(eq("DELUXE"), any(LocalDate.class)))
-                .thenReturn(List.of(new Rates("DELUXE" , CHECK_IN , CHECK_OUT , 120)));
+            when(ratesRepository.findAll()).thenReturn(List.of(
+                new Rates("STANDARD" , CHECK_IN , CHECK_OUT , 80),
+                new Rates("DELUXE" , CHECK_IN , CHECK_OUT , 120)));
 
             BigDecimal total = pricingService.calculateTotalAmount(CHECK_IN, CHECK_OUT, List.of("STANDARD" , "DELUXE"));
 
             assertThat(total).isEqualByComparingTo(BigDecimal.valueOf(400));
         } 
+
+        @Test
+        @DisplayName("switches rate at season boundaries and prefers the older rate on overlaps")
+        void usesRateOfEachSeason() {
+            Rates low = new Rates("STANDARD" , LocalDate.of(2025 , 5 , 1) , LocalDate.of(2025 , 6 , 1) , 80);
+            low.setId(1L);
+            Rates high = new Rates("STANDARD" , LocalDate.of(2025 , 6 , 1) , LocalDate.of(2025 , 8 , 31) , 120);
+            high.setId(2L);
+            when(ratesRepository.findAll()).thenReturn(List.of(high , low));
+
+            BigDecimal total = pricingService.calculateTotalAmount(LocalDate.of(2025 , 5 , 31), LocalDate.of(2025 , 6 , 3), List.of("STANDARD"));
+
+            assertThat(total).isEqualByComparingTo(BigDecimal.valueOf(80 + 80 + 120));
+        }
     }
 
     @Nested 
@@ -135,7 +149,7 @@ class PricingServiceTest {
             BookingRooms br = new BookingRooms();
             br.setRoom(room);
             when(bookingRoomsRepository.findByBookingId(1L)).thenReturn(List.of(br));
-            when(ratesRepository.findApplicableRatesForDate(eq("STANDARD"),any(LocalDate.class) ))
+            when(ratesRepository.findAll())
                 .thenReturn(List.of(new Rates("STANDARD" , CHECK_IN , CHECK_OUT , 99)));
 
             BigDecimal total = pricingService.calculateTotalForBooking(booking);
@@ -164,8 +178,8 @@ class PricingServiceTest {
             Room room = new Room();
             room.setId(1L);
             room.setType("STANDARD");
-            when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
-            when(ratesRepository.findApplicableRatesForDate(eq("STANDARD"), any(LocalDate.class)))
+            when(roomRepository.findAll()).thenReturn(List.of(room));
+            when(ratesRepository.findAll())
                 .thenReturn(List.of(new Rates("STANDARD" , CHECK_IN , CHECK_OUT , 50)));
 
             BigDecimal total = pricingService.calculateTotalForRoomIds(CHECK_IN, CHECK_OUT, List.of(1L));
@@ -174,5 +188,39 @@ class PricingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("nightlyPrices")
+    class NightlyPrices {
+
+        @Test
+        @DisplayName("returns one price per night for each room, in room id order, across rate changes")
+        void pricesEveryNightPerRoom() {
+            Room standard = new Room();
+            standard.setId(1L);
+            standard.setType("STANDARD");
+            Room deluxe = new Room();
+            deluxe.setId(2L);
+            deluxe.setType("DELUXE");
+            when(roomRepository.findAll()).thenReturn(List.of(standard, deluxe));
+            when(ratesRepository.findAll()).thenReturn(List.of(
+                new Rates("STANDARD" , LocalDate.of(2025 , 5 , 1) , LocalDate.of(2025 , 6 , 1) , 80),
+                new Rates("STANDARD" , LocalDate.of(2025 , 6 , 2) , LocalDate.of(2025 , 6 , 30) , 120),
+                new Rates("DELUXE" , CHECK_IN , CHECK_OUT , 200)));
+
+            List<int[]> prices = pricingService.nightlyPrices(CHECK_IN, CHECK_OUT, List.of(2L, 1L));
+
+            assertThat(prices).hasSize(2);
+            assertThat(prices.get(0)).containsExactly(200, 200);
+            assertThat(prices.get(1)).containsExactly(80, 120);
+        }
+
+        @Test
+        @DisplayName("throws for an unknown room")
+        void throwsForUnknownRoom() {
+            when(roomRepository.findAll()).thenReturn(List.of());
 
+            assertThatThrownBy(() -> pricingService.nightlyPrices(CHECK_IN, CHECK_OUT, List.of(9L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package com.example.reservation_system.business_logic.pricing;
+
+import com.example.reservation_system.business_logic.rates.RateIndex;
+import com.example.reservation_system.business_logic.rates.RateSnapshot;
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuoteService")
+class QuoteServiceTest {
+    @Mock
+    private PricingService pricingService;
+    @Mock
+    private RoomCatalog roomCatalog;
+    @Mock
+    private RateIndex rateIndex;
+
+    private QuoteService quoteService;
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2025 , 7 , 1);
+    private final RateSnapshot rates = mock(RateSnapshot.class);
+    private final Set<String> pricingThreads = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        // a tiny queue, so some chunks are priced by the calling thread
+        quoteService = new QuoteService(pricingService, roomCatalog, rateIndex, 4, 1);
+        ReflectionTestUtils.setField(quoteService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(quoteService, "minChunkSize", 4);
+
+        lenient().when(rateIndex.snapshot()).thenReturn(rates);
+        lenient().when(roomCatalog.findAllById(anyCollection())).thenReturn(List.of(room(1L , "SINGLE"), room(2L , "DOUBLE")));
+        // the total encodes the stay length, so each quote can be matched to its request
+        lenient().when(pricingService.issueQuote(any(RateSnapshot.class), any(QuoteRequest.class), anyList())).thenAnswer(inv -> {
+            pricingThreads.add(Thread.currentThread().getName());
+            QuoteRequest request = inv.getArgument(1);
+            long nights = request.checkOut().toEpochDay() - request.checkIn().toEpochDay();
+            return new Quote(request.checkIn(), request.checkOut(), request.roomIds(), BigDecimal.valueOf(nights), "USD", "token", null, null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        quoteService.shutdown();
+    }
+
+    @Test
+    @DisplayName("prices a large batch in chunks on the pool and keeps the request order")
+    void pricesInChunks() {
+        List<QuoteRequest> requests = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            requests.add(new QuoteRequest(CHECK_IN , CHECK_IN.plusDays(i) , List.of(i % 2 == 0 ? 2L : 1L)));
+        }
+
+        List<Quote> quotes = quoteService.quoteBatch(requests);
+
+        assertThat(quotes).hasSize(60);
+        for (int i = 0; i < 60; i++) {
+            assertThat(quotes.get(i).total()).isEqualByComparingTo(BigDecimal.valueOf(i + 1));
+        }
+        assertThat(pricingThreads).anyMatch(name -> name.startsWith("quote-"));
+        // one room lookup and one rate snapshot for the whole batch
+        verify(roomCatalog, times(1)).findAllById(anyCollection());
+        verify(rateIndex, times(1)).snapshot();
+    }
+
+    @Test
+    @DisplayName("prices a small batch on the calling thread")
+    void pricesSmallBatchInline() {
+        List<Quote> quotes = quoteService.quoteBatch(List.of(
+            new QuoteRequest(CHECK_IN , CHECK_IN.plusDays(2) , List.of(1L)),
+            new QuoteRequest(CHECK_IN , CHECK_IN.plusDays(3) , List.of(2L))));
+
+        assertThat(quotes).extracting(Quote::total).containsExactly(BigDecimal.valueOf(2), BigDecimal.valueOf(3));
+        assertThat(pricingThreads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    @DisplayName("reports a stay that cannot be priced without failing the batch")
+    void failsSingleQuote() {
+        List<Quote> quotes = quoteService.quoteBatch(List.of(
+            new QuoteRequest(CHECK_IN , CHECK_IN.plusDays(2) , List.of(1L)),
+            new QuoteRequest(CHECK_IN , CHECK_IN.plusDays(2) , List.of(9L)),
+            new QuoteRequest(CHECK_IN , CHECK_IN , List.of(1L))));
+
+        assertThat(quotes).extracting(Quote::error)
+            .containsExactly(null, "Room not found: 9", "Check-out must be after check-in");
+        assertThat(quotes.get(0).total()).isEqualByComparingTo("2");
+    }
+
+    @Test
+    @DisplayName("rejects a batch larger than max-batch-size before pricing anything")
+    void rejectsOversizedBatch() {
+        List<QuoteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            requests.add(new QuoteRequest(CHECK_IN , CHECK_IN.plusDays(1) , List.of(1L)));
+        }
+
+        assertThatThrownBy(() -> quoteService.quoteBatch(requests))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("At most 100 quotes per batch");
+        verifyNoInteractions(pricingService, roomCatalog, rateIndex);
+    }
+
+    @Test
+    @DisplayName("returns nothing for an empty batch")
+    void emptyBatch() {
+        assertThat(quoteService.quoteBatch(List.of())).isEmpty();
+        assertThat(quoteService.quoteBatch(null)).isEmpty();
+    }
+
+    private static Room room(Long id , String type) {
+        Room room = new Room();
+        room.setId(id);
+        room.setType(type);
+        return room;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.reservation_system.business_logic.pricing;
+
+import com.example.reservation_system.business_logic.rates.RateIndex;
+import com.example.reservation_system.business_logic.rates.Rates;
+import com.example.reservation_system.business_logic.rates.RatesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuoteTokenService")
+class QuoteTokenServiceTest {
+    @Mock
+    private RatesRepository ratesRepository;
+
+    private RateIndex rateIndex;
+    private QuoteTokenService quoteTokenService;
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2025, 6, 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2025, 6, 4);
+    private static final BigDecimal TOTAL = new BigDecimal("240.00");
+
+    @BeforeEach
+    void setUp() {
+        when(ratesRepository.findAll()).thenReturn(List.of(new Rates(1L, "STANDARD", CHECK_IN, CHECK_OUT, 80)));
+        rateIndex = new RateIndex(ratesRepository);
+        quoteTokenService = new QuoteTokenService("test-secret", 900);
+    }
+
+    private String issue(List<Long> roomIds, Instant expiresAt) {
+        return quoteTokenService.issue(CHECK_IN, CHECK_OUT, roomIds, TOTAL, "USD", rateIndex.snapshot().version(), expiresAt);
+    }
+
+    @Test
+    @DisplayName("returns the quoted total for the same stay, in any room order")
+    void verifiesSameStay() {
+        String token = issue(List.of(2L, 1L), quoteTokenService.nextExpiry());
+
+        assertThat(quoteTokenService.verify(token, CHECK_IN, CHECK_OUT, List.of(1L, 2L), "USD", rateIndex.snapshot())).isEqualByComparingTo(TOTAL);
+    }
+
+    @Test
+    @DisplayName("rejects a token whose claims were altered")
+    void rejectsTamperedToken() {
+        String token = issue(List.of(1L), quoteTokenService.nextExpiry());
+        String otherClaims = issue(List.of(2L), quoteTokenService.nextExpiry()).split("\\.")[0];
+        String forged = otherClaims + token.substring(token.indexOf('.'));
+
+        assertThatThrownBy(() -> quoteTokenService.verify(forged, CHECK_IN, CHECK_OUT, List.of(2L), "USD", rateIndex.snapshot()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Invalid quote token");
+    }
+
+    @Test
+    @DisplayName("rejects a token for another stay")
+    void rejectsOtherStay() {
+        String token = issue(List.of(1L), quoteTokenService.nextExpiry());
+
+        assertThatThrownBy(() -> quoteTokenService.verify(token, CHECK_IN, CHECK_OUT.plusDays(1), List.of(1L), "USD", rateIndex.snapshot()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("does not match");
+    }
+
+    @Test
+    @DisplayName("rejects a token for another currency")
+    void rejectsOtherCurrency() {
+        String token = issue(List.of(1L), quoteTokenService.nextExpiry());
+
+        assertThatThrownBy(() -> quoteTokenService.verify(token, CHECK_IN, CHECK_OUT, List.of(1L), "EUR", rateIndex.snapshot()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("issued in USD");
+    }
+
+    @Test
+    @DisplayName("rejects an expired token")
+    void rejectsExpiredToken() {
+        String token = issue(List.of(1L), Instant.now().minusSeconds(1));
+
+        assertThatThrownBy(() -> quoteTokenService.verify(token, CHECK_IN, CHECK_OUT, List.of(1L), "USD", rateIndex.snapshot()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("expired");
+    }
+
+    @Test
+    @DisplayName("rejects a token priced from rates that have changed since")
+    void rejectsChangedRates() {
+        String token = issue(List.of(1L), quoteTokenService.nextExpiry());
+        when(ratesRepository.findAll()).thenReturn(List.of(new Rates(1L, "STANDARD", CHECK_IN, CHECK_OUT, 95)));
+        rateIndex.refresh();
+
+        assertThatThrownBy(() -> quoteTokenService.verify(token, CHECK_IN, CHECK_OUT, List.of(1L), "USD", rateIndex.snapshot()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Rates have changed");
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -13,6 +14,9 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +26,12 @@ class RatesServiceTest {
     @Mock 
     private RatesRepository ratesRepository;
 
+    @Mock 
+    private RateIndex rateIndex;
+
+    @Mock
+    private PriceCalendarService priceCalendarService;
+
     @InjectMocks 
     private RatesService ratesService;
 
@@ -82,4 +92,35 @@ class RatesServiceTest {
 
     }
      
-}
\ No newline at end of file
+    @Nested
+    @DisplayName("save")
+    class Save {
+        @Test
+        @DisplayName("refreshes the price calendar for the old and the new date range")
+        void refreshesOldAndNewRange() {
+            Rates existing = new Rates(1L, ROOM_TYPE, START_DATE, START_DATE.plusDays(10), 100);
+            Rates moved = new Rates(1L, ROOM_TYPE, START_DATE.plusDays(20), START_DATE.plusDays(30), 100);
+            when(ratesRepository.findById(1L)).thenReturn(Optional.of(existing));
+            when(ratesRepository.save(moved)).thenReturn(moved);
+
+            ratesService.save(moved);
+
+            ArgumentCaptor<Rates> before = ArgumentCaptor.forClass(Rates.class);
+            verify(priceCalendarService).onRateChanged(before.capture(), any(Rates.class));
+            assertThat(before.getValue().getStart_date()).isEqualTo(START_DATE);
+            assertThat(before.getValue().getEnd_date()).isEqualTo(START_DATE.plusDays(10));
+            verify(rateIndex).invalidate();
+        }
+
+        @Test
+        @DisplayName("treats a new rate as having no previous range")
+        void newRate() {
+            Rates created = new Rates(ROOM_TYPE, START_DATE, START_DATE.plusDays(10), 100);
+            when(ratesRepository.save(created)).thenReturn(created);
+
+            ratesService.save(created);
+
+            verify(priceCalendarService).onRateChanged(isNull(), any(Rates.class));
+        }
+    }
+}
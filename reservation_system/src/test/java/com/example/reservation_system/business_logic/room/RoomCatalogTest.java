@@ -0,0 +1,97 @@
+package com.example.reservation_system.business_logic.room;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RoomCatalog")
+class RoomCatalogTest {
+    @Mock
+    private RoomRepository roomRepository;
+
+    private final List<Object> published = new ArrayList<>();
+    private RoomCatalog roomCatalog;
+
+    @BeforeEach
+    void setUp() {
+        roomCatalog = new RoomCatalog(roomRepository, published::add);
+        when(roomRepository.findAll()).thenReturn(List.of(
+            room(2L , "102" , "DOUBLE"),
+            room(1L , "101" , "SINGLE"),
+            room(3L , "103" , "DOUBLE")));
+    }
+
+    @Test
+    @DisplayName("looks rooms up by id, number and type, ordered by id")
+    void looksUp() {
+        assertThat(roomCatalog.findById(2L)).get().extracting(Room::getNumber).isEqualTo("102");
+        assertThat(roomCatalog.findByNumber("103")).get().extracting(Room::getId).isEqualTo(3L);
+        assertThat(roomCatalog.findAllByType("DOUBLE")).extracting(Room::getId).containsExactly(2L , 3L);
+        assertThat(roomCatalog.findAllByTypeIgnoreCase("double")).extracting(Room::getId).containsExactly(2L , 3L);
+        assertThat(roomCatalog.findAll()).extracting(Room::getId).containsExactly(1L , 2L , 3L);
+        assertThat(roomCatalog.findAllById(List.of(3L , 9L , 1L , 3L))).extracting(Room::getId).containsExactly(3L , 1L , 3L);
+        // the table is read once for all of these
+        verify(roomRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("is not changed by callers modifying the rooms they got")
+    void handsOutCopies() {
+        Room room = roomCatalog.findById(1L).orElseThrow();
+        room.setType("SUITE");
+        room.setNumber("999");
+        roomCatalog.findAll().get(0).setStatus(RoomStatus.OUT_OF_SERVICE);
+
+        Room again = roomCatalog.findById(1L).orElseThrow();
+        assertThat(again).isNotSameAs(room);
+        assertThat(again.getType()).isEqualTo("SINGLE");
+        assertThat(again.getStatus()).isEqualTo(RoomStatus.AVAILABLE);
+        assertThat(roomCatalog.findByNumber("999")).isEmpty();
+        assertThat(roomCatalog.findAllByType("SUITE")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("returns lists that cannot be modified")
+    void returnsUnmodifiableLists() {
+        List<Room> all = roomCatalog.findAll();
+
+        assertThatThrownBy(() -> all.add(room(4L , "104" , "SINGLE"))).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> roomCatalog.findAllByType("DOUBLE").clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(roomCatalog.findAll()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("publishes a new version only when the rooms changed")
+    void refreshesOnChange() {
+        long first = roomCatalog.version();
+
+        roomCatalog.refresh();
+        assertThat(published).isEmpty();
+        assertThat(roomCatalog.version()).isEqualTo(first);
+
+        when(roomRepository.findAll()).thenReturn(List.of(room(1L , "101" , "SUITE")));
+        roomCatalog.refresh();
+
+        assertThat(published).containsExactly(new RoomCatalogRefreshedEvent(first + 1));
+        assertThat(roomCatalog.findById(1L)).get().extracting(Room::getType).isEqualTo("SUITE");
+        assertThat(roomCatalog.findById(2L)).isEmpty();
+    }
+
+    private static Room room(Long id , String number , String type) {
+        return new Room(id , number , "Room " + number , type , 2 , 100 , new BigDecimal("100.00") , RoomStatus.AVAILABLE);
+    }
+}
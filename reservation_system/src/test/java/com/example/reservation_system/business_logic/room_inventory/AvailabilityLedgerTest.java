@@ -0,0 +1,144 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AvailabilityLedger")
+class AvailabilityLedgerTest {
+    @Mock
+    private RoomInventoryRepository roomInventoryRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private AvailabilityLedger availabilityLedger;
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @BeforeEach
+    void warm() {
+        when(roomInventoryRepository.findNightAvailability(any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of(
+            new NightAvailability(1L , TODAY.plusDays(1) , 0 , 1),
+            new NightAvailability(1L , TODAY.plusDays(2) , 1 , 1),
+            new NightAvailability(2L , TODAY.plusDays(1) , 0 , 2),
+            new NightAvailability(2L , TODAY.plusDays(2) , 1 , 2)));
+
+        availabilityLedger.warm();
+    }
+
+    @Test
+    @DisplayName("is available only when every night has capacity")
+    void availableWhenEveryNightHasCapacity() {
+        assertThat(availabilityLedger.isReady()).isTrue();
+        assertThat(availabilityLedger.isAvailable(1L , TODAY.plusDays(1) , TODAY.plusDays(2))).isTrue();
+        assertThat(availabilityLedger.isAvailable(1L , TODAY.plusDays(1) , TODAY.plusDays(3))).isFalse();
+        assertThat(availabilityLedger.isAvailable(2L , TODAY.plusDays(1) , TODAY.plusDays(3))).isTrue();
+    }
+
+    @Test
+    @DisplayName("treats unknown rooms and nights without inventory as unavailable")
+    void unknownIsUnavailable() {
+        assertThat(availabilityLedger.isAvailable(3L , TODAY.plusDays(1) , TODAY.plusDays(2))).isFalse();
+        assertThat(availabilityLedger.isAvailable(2L , TODAY.plusDays(2) , TODAY.plusDays(4))).isFalse();
+        assertThat(availabilityLedger.isAvailable(2L , TODAY.minusDays(1) , TODAY.plusDays(1))).isFalse();
+    }
+
+    @Test
+    @DisplayName("applies committed bookings and releases")
+    void appliesDeltas() {
+        availabilityLedger.apply(List.of(2L) , TODAY.plusDays(1) , TODAY.plusDays(3) , 1);
+
+        assertThat(availabilityLedger.isAvailable(2L , TODAY.plusDays(1) , TODAY.plusDays(2))).isTrue();
+        assertThat(availabilityLedger.isAvailable(2L , TODAY.plusDays(2) , TODAY.plusDays(3))).isFalse();
+
+        availabilityLedger.apply(List.of(2L) , TODAY.plusDays(2) , TODAY.plusDays(3) , -1);
+
+        assertThat(availabilityLedger.nights(2L , TODAY.plusDays(1) , TODAY.plusDays(3)))
+            .containsExactly(
+                new NightAvailability(2L , TODAY.plusDays(1) , 1 , 2),
+                new NightAvailability(2L , TODAY.plusDays(2) , 1 , 2));
+    }
+
+    @Test
+    @DisplayName("lists only nights with capacity across rooms")
+    void listsAvailableNights() {
+        assertThat(availabilityLedger.availableNights(TODAY.plusDays(1) , TODAY.plusDays(3)))
+            .extracting(NightAvailability::roomId, NightAvailability::nightDate)
+            .containsExactlyInAnyOrder(
+                tuple(1L , TODAY.plusDays(1)),
+                tuple(2L , TODAY.plusDays(1)),
+                tuple(2L , TODAY.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("keeps deltas applied while a rebuild reads the table")
+    void keepsDeltasAppliedDuringRewarm() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch applied = new CountDownLatch(1);
+        // the snapshot was read before the concurrent bookings committed
+        when(roomInventoryRepository.findNightAvailability(any(LocalDate.class), any(LocalDate.class))).thenAnswer(inv -> {
+            reading.countDown();
+            assertThat(applied.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of(
+                new NightAvailability(2L , TODAY.plusDays(1) , 0 , 100),
+                new NightAvailability(2L , TODAY.plusDays(2) , 1 , 100));
+        });
+
+        ExecutorService rewarm = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> warm = rewarm.submit(availabilityLedger::warm);
+            assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            ExecutorService bookings = Executors.newFixedThreadPool(8);
+            List<Future<?>> pending = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                pending.add(bookings.submit(() -> availabilityLedger.apply(List.of(2L) , TODAY.plusDays(1) , TODAY.plusDays(3) , 1)));
+            }
+            for (Future<?> booking : pending) {
+                booking.get(5, TimeUnit.SECONDS);
+            }
+            bookings.shutdown();
+            applied.countDown();
+            warm.get(5, TimeUnit.SECONDS);
+        } finally {
+            rewarm.shutdownNow();
+        }
+
+        assertThat(availabilityLedger.nights(2L , TODAY.plusDays(1) , TODAY.plusDays(3)))
+            .containsExactly(
+                new NightAvailability(2L , TODAY.plusDays(1) , 40 , 100),
+                new NightAvailability(2L , TODAY.plusDays(2) , 41 , 100));
+    }
+
+    @Test
+    @DisplayName("refuses reads before it is warmed")
+    void refusesReadsBeforeWarm() {
+        AvailabilityLedger cold = new AvailabilityLedger(roomInventoryRepository, eventPublisher);
+
+        assertThat(cold.isReady()).isFalse();
+        assertThatThrownBy(() -> cold.isAvailable(1L , TODAY , TODAY.plusDays(1)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.reservation_system.business_logic.room_inventory;
+
+import com.example.reservation_system.business_logic.room.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryReservationService")
+class InventoryReservationServiceTest {
+    @Mock
+    private RoomInventoryRepository roomInventoryRepository;
+    @Mock
+    private AvailabilityLedger availabilityLedger;
+
+    @InjectMocks
+    private InventoryReservationService inventoryReservationService;
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2025 , 7 , 10);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2025 , 7 , 12);
+
+    @Nested
+    @DisplayName("BULK mode")
+    class BulkMode {
+
+        @Test
+        @DisplayName("accepts when every room-night was updated")
+        void acceptsWhenAllRowsUpdated() {
+            when(roomInventoryRepository.reserveNights(List.of(1L , 2L), CHECK_IN, CHECK_OUT)).thenReturn(4);
+
+            inventoryReservationService.reserve(List.of(1L , 2L), CHECK_IN, CHECK_OUT);
+
+            verify(roomInventoryRepository).reserveNights(List.of(1L , 2L), CHECK_IN, CHECK_OUT);
+        }
+
+        @Test
+        @DisplayName("throws when fewer rows than rooms x nights were updated")
+        void throwsOnPartialUpdate() {
+            when(roomInventoryRepository.reserveNights(List.of(1L , 2L), CHECK_IN, CHECK_OUT)).thenReturn(3);
+
+            assertThatThrownBy(() -> inventoryReservationService.reserve(List.of(1L , 2L), CHECK_IN, CHECK_OUT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Reserved: 3/4");
+        }
+    }
+
+    @Nested
+    @DisplayName("PESSIMISTIC mode")
+    class PessimisticMode {
+
+        @BeforeEach
+        void usePessimisticMode() {
+            ReflectionTestUtils.setField(inventoryReservationService, "lockMode", InventoryLockMode.PESSIMISTIC);
+        }
+
+        @Test
+        @DisplayName("locks sorted rooms and increments every night")
+        void locksAndIncrements() {
+            RoomInventory first = inventory(1L , CHECK_IN , 0 , 1);
+            RoomInventory second = inventory(1L , CHECK_IN.plusDays(1) , 1 , 2);
+            when(roomInventoryRepository.lockNightsInOrder(new TreeSet<>(List.of(1L)), CHECK_IN, CHECK_OUT))
+                .thenReturn(List.of(first , second));
+
+            inventoryReservationService.reserve(List.of(1L), CHECK_IN, CHECK_OUT);
+
+            verify(roomInventoryRepository).setLocalLockTimeout("2000ms");
+            assertThat(first.getBooked_count()).isEqualTo(1);
+            assertThat(second.getBooked_count()).isEqualTo(2);
+            verify(roomInventoryRepository).saveAll(List.of(first , second));
+        }
+
+        @Test
+        @DisplayName("throws without changing counts when a night is sold out")
+        void throwsWhenSoldOut() {
+            RoomInventory open = inventory(1L , CHECK_IN , 0 , 1);
+            RoomInventory full = inventory(1L , CHECK_IN.plusDays(1) , 1 , 1);
+            when(roomInventoryRepository.lockNightsInOrder(new TreeSet<>(List.of(1L)), CHECK_IN, CHECK_OUT))
+                .thenReturn(List.of(open , full));
+
+            assertThatThrownBy(() -> inventoryReservationService.reserve(List.of(1L), CHECK_IN, CHECK_OUT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("is not available");
+
+            assertThat(open.getBooked_count()).isZero();
+            verify(roomInventoryRepository, never()).saveAll(anyList());
+        }
+
+        @Test
+        @DisplayName("throws when inventory rows are missing")
+        void throwsWhenRowsMissing() {
+            when(roomInventoryRepository.lockNightsInOrder(new TreeSet<>(List.of(1L)), CHECK_IN, CHECK_OUT))
+                .thenReturn(List.of(inventory(1L , CHECK_IN , 0 , 1)));
+
+            assertThatThrownBy(() -> inventoryReservationService.reserve(List.of(1L), CHECK_IN, CHECK_OUT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Found: 1/2");
+        }
+    }
+
+    @Nested
+    @DisplayName("OPTIMISTIC mode")
+    class OptimisticMode {
+
+        @BeforeEach
+        void useOptimisticMode() {
+            ReflectionTestUtils.setField(inventoryReservationService, "lockMode", InventoryLockMode.OPTIMISTIC);
+        }
+
+        @Test
+        @DisplayName("reads without locks and flushes version-checked increments")
+        void incrementsAndFlushes() {
+            RoomInventory night = inventory(1L , CHECK_IN , 0 , 1);
+            RoomInventory nextNight = inventory(1L , CHECK_IN.plusDays(1) , 0 , 1);
+            when(roomInventoryRepository.findNightsInOrder(new TreeSet<>(List.of(1L)), CHECK_IN, CHECK_OUT))
+                .thenReturn(List.of(night , nextNight));
+
+            inventoryReservationService.reserve(List.of(1L), CHECK_IN, CHECK_OUT);
+
+            assertThat(night.getBooked_count()).isEqualTo(1);
+            verify(roomInventoryRepository).saveAllAndFlush(List.of(night , nextNight));
+            verify(roomInventoryRepository, never()).setLocalLockTimeout("2000ms");
+        }
+    }
+
+    private static RoomInventory inventory(Long roomId , LocalDate night , int booked , int allotment) {
+        Room room = new Room();
+        room.setId(roomId);
+        RoomInventory inventory = new RoomInventory(night , booked , allotment);
+        inventory.setRoom(room);
+        return inventory;
+    }
+}
@@ -22,6 +22,8 @@ import static org.mockito.Mockito.when;
 class RoomInventoryServiceTest {
     @Mock 
     private RoomInventoryRepository roomInventoryRepository;
+    @Mock
+    private AvailabilityLedger availabilityLedger;
 
     @InjectMocks
     private RoomInventoryService roomInventoryService;
@@ -0,0 +1,123 @@
+package com.example.reservation_system.business_logic.search_room;
+
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
+import com.example.reservation_system.business_logic.room.RoomCatalogRefreshedEvent;
+import com.example.reservation_system.business_logic.room_inventory.AvailabilityChangedEvent;
+import com.example.reservation_system.business_logic.room_inventory.AvailabilityLedger;
+import com.example.reservation_system.business_logic.room_inventory.AvailabilityLedgerWarmedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RoomAvailabilityIndex")
+class RoomAvailabilityIndexTest {
+    @Mock
+    private RoomCatalog roomCatalog;
+    @Mock
+    private AvailabilityLedger availabilityLedger;
+
+    @InjectMocks
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private static final LocalDate FROM = LocalDate.of(2025 , 7 , 1);
+    private static final int ROOMS = 70;
+
+    private final List<Room> rooms = new ArrayList<>();
+
+    @BeforeEach
+    void build() {
+        for (long id = 1; id <= ROOMS; id++) {
+            Room room = new Room();
+            room.setId(id);
+            room.setType(id % 2 == 0 ? "DOUBLE" : "SINGLE");
+            rooms.add(room);
+        }
+        when(roomCatalog.findAll()).thenReturn(rooms);
+        // room 66 is sold out on the 2nd night, everything else is free
+        lenient().when(availabilityLedger.isAvailable(anyLong(), any(LocalDate.class), any(LocalDate.class)))
+            .thenAnswer(inv -> !(inv.getArgument(0).equals(66L) && inv.getArgument(1).equals(FROM.plusDays(1))));
+
+        roomAvailabilityIndex.onLedgerWarmed(new AvailabilityLedgerWarmedEvent(FROM, FROM.plusDays(10)));
+    }
+
+    @Test
+    @DisplayName("returns rooms of the type free on every night, across bitmap words")
+    void findsFreeRoomsOfType() {
+        List<Room> free = roomAvailabilityIndex.findFreeRooms("DOUBLE", FROM, FROM.plusDays(3));
+
+        assertThat(free).hasSize(ROOMS / 2 - 1);
+        assertThat(free).allMatch(room -> room.getType().equals("DOUBLE"));
+        assertThat(free).extracting(Room::getId).doesNotContain(66L).contains(2L , 64L , 68L , 70L);
+        assertThat(roomAvailabilityIndex.findFreeRooms("DOUBLE", FROM.plusDays(2), FROM.plusDays(3))).hasSize(ROOMS / 2);
+    }
+
+    @Test
+    @DisplayName("patches bits when the ledger applied a change")
+    void patchesOnChange() {
+        when(availabilityLedger.isAvailable(anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(false);
+
+        roomAvailabilityIndex.onAvailabilityChanged(new AvailabilityChangedEvent(Set.of(2L), FROM.plusDays(5), FROM.plusDays(6)));
+
+        assertThat(roomAvailabilityIndex.findFreeRooms("DOUBLE", FROM.plusDays(4), FROM.plusDays(7)))
+            .extracting(Room::getId)
+            .doesNotContain(2L)
+            .hasSize(ROOMS / 2 - 1);
+    }
+
+    @Test
+    @DisplayName("keeps changes the ledger applied while the index was rebuilding")
+    void keepsChangesDuringRebuild() {
+        AtomicBoolean room2SoldOut = new AtomicBoolean();
+        AtomicInteger reads = new AtomicInteger();
+        // room 2 sells out on night 5 after the rebuild already read it as free
+        when(availabilityLedger.isAvailable(anyLong(), any(LocalDate.class), any(LocalDate.class))).thenAnswer(inv -> {
+            if (reads.incrementAndGet() == ROOMS * 10) {
+                room2SoldOut.set(true);
+                roomAvailabilityIndex.onAvailabilityChanged(new AvailabilityChangedEvent(Set.of(2L), FROM.plusDays(5), FROM.plusDays(6)));
+            }
+            return !(room2SoldOut.get() && inv.getArgument(0).equals(2L) && inv.getArgument(1).equals(FROM.plusDays(5)));
+        });
+
+        roomAvailabilityIndex.onRoomCatalogRefreshed(new RoomCatalogRefreshedEvent(2));
+
+        assertThat(roomAvailabilityIndex.findFreeRooms("DOUBLE", FROM.plusDays(5), FROM.plusDays(6)))
+            .extracting(Room::getId)
+            .doesNotContain(2L)
+            .hasSize(ROOMS / 2 - 1);
+    }
+
+    @Test
+    @DisplayName("covers only stays inside the indexed horizon")
+    void coversHorizon() {
+        assertThat(roomAvailabilityIndex.covers(FROM, FROM.plusDays(10))).isTrue();
+        assertThat(roomAvailabilityIndex.covers(FROM.plusDays(8), FROM.plusDays(12))).isFalse();
+        assertThat(roomAvailabilityIndex.covers(FROM.minusDays(1), FROM.plusDays(1))).isFalse();
+        assertThat(new RoomAvailabilityIndex(roomCatalog, availabilityLedger).covers(FROM, FROM.plusDays(1))).isFalse();
+    }
+
+    @Test
+    @DisplayName("returns nothing outside the horizon or for unknown types")
+    void emptyOutsideHorizon() {
+        assertThat(roomAvailabilityIndex.findFreeRooms("DOUBLE", FROM.plusDays(8), FROM.plusDays(12))).isEmpty();
+        assertThat(roomAvailabilityIndex.findFreeRooms("SUITE", FROM, FROM.plusDays(1))).isEmpty();
+    }
+}
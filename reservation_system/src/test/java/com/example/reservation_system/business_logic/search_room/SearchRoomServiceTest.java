@@ -0,0 +1,75 @@
+package com.example.reservation_system.business_logic.search_room;
+
+import com.example.reservation_system.business_logic.bookings.Booking;
+import com.example.reservation_system.business_logic.bookings.BookingRepository;
+import com.example.reservation_system.business_logic.booking_rooms.BookingRoomsRepository;
+import com.example.reservation_system.business_logic.room.Room;
+import com.example.reservation_system.business_logic.room.RoomCatalog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SearchRoomService")
+class SearchRoomServiceTest {
+    @Mock
+    private RoomCatalog roomCatalog;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingRoomsRepository bookingRoomsRepository;
+    @Mock
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @InjectMocks
+    private SearchRoomService searchRoomService;
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2025 , 7 , 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2025 , 7 , 4);
+
+    @Test
+    @DisplayName("answers from the index when it covers the stay")
+    void usesIndex() {
+        Room room = room(1L);
+        when(roomAvailabilityIndex.covers(CHECK_IN, CHECK_OUT)).thenReturn(true);
+        when(roomAvailabilityIndex.findFreeRooms("DOUBLE", CHECK_IN, CHECK_OUT)).thenReturn(List.of(room));
+
+        assertThat(searchRoomService.findAvailableRoom(CHECK_IN, CHECK_OUT, "DOUBLE")).containsExactly(room);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    @DisplayName("falls back to the booking query for stays beyond the indexed horizon")
+    void fallsBackBeyondHorizon() {
+        Room free = room(1L);
+        Room booked = room(2L);
+        Booking booking = new Booking();
+        booking.setId(10L);
+        when(roomAvailabilityIndex.covers(CHECK_IN, CHECK_OUT)).thenReturn(false);
+        when(roomCatalog.findAllByType("DOUBLE")).thenReturn(List.of(free, booked));
+        when(bookingRepository.findRoomsBookedBetween(CHECK_IN, CHECK_OUT)).thenReturn(List.of(booking));
+        when(bookingRoomsRepository.findRoomIdsByBookingIn(List.of(booking))).thenReturn(List.of(2L));
+
+        assertThat(searchRoomService.findAvailableRoom(CHECK_IN, CHECK_OUT, "DOUBLE")).containsExactly(free);
+        verify(roomAvailabilityIndex, never()).findFreeRooms("DOUBLE", CHECK_IN, CHECK_OUT);
+    }
+
+    private static Room room(Long id) {
+        Room room = new Room();
+        room.setId(id);
+        room.setType("DOUBLE");
+        return room;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.reservation_system.controller;
+
+import com.example.reservation_system.business_logic.rates.PriceCalendarService;
+import com.example.reservation_system.business_logic.room_inventory.RoomInventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AvailabilityController price calendar")
+class AvailabilityControllerTest {
+    @Mock
+    private RoomInventoryService roomInventoryService;
+    @Mock
+    private PriceCalendarService priceCalendarService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new AvailabilityController(roomInventoryService, priceCalendarService)).build();
+    }
+
+    @Test
+    @DisplayName("serves a calendar of exactly the maximum span")
+    void servesMaximumSpan() throws Exception {
+        when(priceCalendarService.findCalendar(any(), any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/availability/prices")
+                .param("roomType", "DOUBLE").param("from", "2025-01-01").param("to", LocalDate.of(2025, 1, 1).plusDays(365).toString()))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("rejects a calendar one day longer than the maximum span")
+    void rejectsLongerSpan() throws Exception {
+        mockMvc.perform(get("/api/availability/prices")
+                .param("roomType", "DOUBLE").param("from", "2025-01-01").param("to", LocalDate.of(2025, 1, 1).plusDays(366).toString()))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("At most 366 days per calendar request"));
+
+        verifyNoInteractions(priceCalendarService);
+    }
+
+    @Test
+    @DisplayName("rejects a from date after the to date")
+    void rejectsReversedRange() throws Exception {
+        mockMvc.perform(get("/api/availability/prices")
+                .param("roomType", "DOUBLE").param("from", "2025-02-01").param("to", "2025-01-01"))
+            .andExpect(status().isBadRequest());
+    }
+}
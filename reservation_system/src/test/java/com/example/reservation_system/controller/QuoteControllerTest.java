@@ -0,0 +1,69 @@
+package com.example.reservation_system.controller;
+
+import com.example.reservation_system.business_logic.pricing.QuoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuoteController")
+class QuoteControllerTest {
+    @Mock
+    private QuoteService quoteService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new QuoteController(quoteService)).build();
+    }
+
+    @Test
+    @DisplayName("answers a batch with the quotes in request order")
+    void quotesBatch() throws Exception {
+        when(quoteService.quoteBatch(anyList())).thenReturn(List.of());
+
+        mockMvc.perform(post("/api/quotes/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"checkIn\": \"2025-07-01\", \"checkOut\": \"2025-07-03\", \"roomIds\": [1]}]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    @DisplayName("rejects an oversized batch with 400")
+    void rejectsOversizedBatch() throws Exception {
+        when(quoteService.quoteBatch(anyList())).thenThrow(new IllegalArgumentException("At most 500 quotes per batch"));
+
+        mockMvc.perform(post("/api/quotes/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"checkIn\": \"2025-07-01\", \"checkOut\": \"2025-07-03\", \"roomIds\": [1]}]"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("At most 500 quotes per batch"));
+    }
+
+    @Test
+    @DisplayName("rejects a null or empty batch with 400")
+    void rejectsMissingBatch() throws Exception {
+        mockMvc.perform(post("/api/quotes/batch").contentType(MediaType.APPLICATION_JSON).content("null"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/quotes/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(quoteService);
+    }
+}
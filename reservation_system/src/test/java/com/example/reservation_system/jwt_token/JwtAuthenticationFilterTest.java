@@ -0,0 +1,123 @@
+package com.example.reservation_system.jwt_token;
+
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.model.AppUserRole;
+import com.example.reservation_system.security.CurrentUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtAuthenticationFilter")
+class JwtAuthenticationFilterTest {
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private JwtService jwtService;
+    private TokenRevocations tokenRevocations;
+    private JwtAuthenticationFilter filter;
+    private AppUser guest;
+    private UUID session;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(new ObjectMapper(), "test-secret-that-is-at-least-32-bytes", 900_000, 100);
+        tokenRevocations = new TokenRevocations(refreshTokenRepository, jwtService);
+        when(refreshTokenRepository.findFamiliesRevokedSince(any())).thenReturn(List.of());
+        tokenRevocations.reload();
+        filter = new JwtAuthenticationFilter(jwtService, tokenRevocations);
+
+        guest = new AppUser("guest", "Guest User", "guest@example.com", "hash", LocalDate.of(2025, 1, 1), AppUserRole.GUEST);
+        guest.setId(7L);
+        session = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("resolves the user from the token claims without a query")
+    void authenticatesFromClaims() {
+        String token = jwtService.issue(guest, session);
+
+        CurrentUser first = filter.authenticate(token);
+        CurrentUser second = filter.authenticate(token);
+
+        assertThat(first).isEqualTo(new CurrentUser(7L, "guest", AppUserRole.GUEST));
+        assertThat(second).isEqualTo(first);
+        verify(refreshTokenRepository, never()).isFamilyRevoked(any());
+    }
+
+    @Test
+    @DisplayName("rejects tokens of a revoked session")
+    void rejectsRevokedSession() {
+        String token = jwtService.issue(guest, session);
+        filter.authenticate(token);
+        when(refreshTokenRepository.isFamilyRevoked(session)).thenReturn(true);
+
+        tokenRevocations.revokedAfterCommit(List.of(session));
+
+        assertThatThrownBy(() -> filter.authenticate(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("keeps sessions revoked in the table after a reload")
+    void reloadsRevocations() {
+        String token = jwtService.issue(guest, session);
+        when(refreshTokenRepository.findFamiliesRevokedSince(any())).thenReturn(List.of(session.toString()));
+        when(refreshTokenRepository.isFamilyRevoked(session)).thenReturn(true);
+
+        tokenRevocations.reload();
+
+        assertThatThrownBy(() -> filter.authenticate(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("rejects tokens with altered claims or signed with another key")
+    void rejectsForgedTokens() {
+        String token = jwtService.issue(guest, session);
+        AppUser admin = new AppUser("guest", "Guest User", "guest@example.com", "hash", LocalDate.of(2025, 1, 1), AppUserRole.ADMIN);
+        admin.setId(7L);
+        String otherClaims = jwtService.issue(admin, session).split("\\.")[1];
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + otherClaims + "." + parts[2];
+        JwtService otherKey = new JwtService(new ObjectMapper(), "another-secret-that-is-at-least-32-bytes", 900_000, 100);
+
+        assertThatThrownBy(() -> jwtService.verify(forged)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> jwtService.verify(otherKey.issue(guest, session))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> jwtService.verify("not-a-token")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("rejects expired tokens")
+    void rejectsExpiredToken() {
+        JwtService expired = new JwtService(new ObjectMapper(), "test-secret-that-is-at-least-32-bytes", 0, 100);
+
+        assertThatThrownBy(() -> jwtService.verify(expired.issue(guest, session))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("the revocation filter never misses a revoked session and rarely matches others")
+    void bloomFilterFalsePositiveRate() {
+        RevocationBloomFilter bloom = new RevocationBloomFilter(10_000, 0.01);
+        List<UUID> revoked = Stream.generate(UUID::randomUUID).limit(10_000).toList();
+        revoked.forEach(bloom::add);
+
+        assertThat(revoked).allMatch(bloom::mightContain);
+        long falsePositives = Stream.generate(UUID::randomUUID).limit(100_000).filter(bloom::mightContain).count();
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.reservation_system.jwt_token;
+
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.model.AppUserRepository;
+import com.example.reservation_system.model.AppUserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService")
+class RefreshTokenServiceTest {
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private AppUserRepository appUserRepository;
+    @Mock
+    private JwtService jwtService;
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private static final Long USER_ID = 1L;
+    private static final UUID FAMILY = UUID.randomUUID();
+
+    private AppUser user;
+
+    @BeforeEach
+    void setUp() {
+        user = new AppUser("user" , "Full Name" , "user@example.com" , "encoded" , LocalDate.now() , AppUserRole.GUEST);
+        user.setId(USER_ID);
+        lenient().when(jwtService.issue(any(AppUser.class), any(UUID.class))).thenReturn("access-token");
+    }
+
+    @Test
+    @DisplayName("issues a new session and stores only the hash of the refresh token")
+    void issuesSession() {
+        TokenPair pair = refreshTokenService.issue(user);
+
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<UUID> family = ArgumentCaptor.forClass(UUID.class);
+        verify(refreshTokenRepository).insert(hash.capture(), family.capture(), eq(USER_ID), any(LocalDateTime.class));
+        verify(jwtService).issue(user, family.getValue());
+        assertThat(pair.accessToken()).isEqualTo("access-token");
+        assertThat(pair.refreshToken()).isNotBlank().isNotEqualTo(hash.getValue());
+        assertThat(hash.getValue()).hasSize(43);
+    }
+
+    @Nested
+    @DisplayName("refresh")
+    class Refresh {
+        @Test
+        @DisplayName("rotates the token within the same session")
+        void rotates() {
+            TokenPair first = refreshTokenService.issue(user);
+            String firstHash = insertedHash();
+            when(refreshTokenRepository.claim(firstHash)).thenReturn(List.of(token(firstHash, null, null)));
+            when(appUserRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+            Optional<TokenPair> next = refreshTokenService.refresh(first.refreshToken());
+
+            assertThat(next).isPresent();
+            assertThat(next.get().refreshToken()).isNotEqualTo(first.refreshToken());
+            verify(refreshTokenRepository).insert(anyString(), eq(FAMILY), eq(USER_ID), any(LocalDateTime.class));
+            verify(jwtService).issue(user, FAMILY);
+            verify(tokenRevocations, never()).revokedAfterCommit(any());
+        }
+
+        @Test
+        @DisplayName("revokes the whole session when a used token is presented again")
+        void detectsReuse() {
+            TokenPair first = refreshTokenService.issue(user);
+            String firstHash = insertedHash();
+            when(refreshTokenRepository.claim(firstHash)).thenReturn(List.of());
+            when(refreshTokenRepository.findById(firstHash)).thenReturn(Optional.of(token(firstHash, LocalDateTime.now(), null)));
+
+            assertThat(refreshTokenService.refresh(first.refreshToken())).isEmpty();
+
+            verify(refreshTokenRepository).revokeFamily(FAMILY);
+            verify(tokenRevocations).revokedAfterCommit(List.of(FAMILY));
+        }
+
+        @Test
+        @DisplayName("does not revoke again for a token of an already revoked session")
+        void ignoresRevokedReplay() {
+            TokenPair first = refreshTokenService.issue(user);
+            String firstHash = insertedHash();
+            when(refreshTokenRepository.claim(firstHash)).thenReturn(List.of());
+            when(refreshTokenRepository.findById(firstHash))
+                .thenReturn(Optional.of(token(firstHash, LocalDateTime.now(), LocalDateTime.now())));
+
+            assertThat(refreshTokenService.refresh(first.refreshToken())).isEmpty();
+
+            verify(refreshTokenRepository, never()).revokeFamily(any());
+        }
+
+        @Test
+        @DisplayName("rejects unknown and blank tokens without revoking anything")
+        void rejectsUnknown() {
+            when(refreshTokenRepository.claim(anyString())).thenReturn(List.of());
+            when(refreshTokenRepository.findById(anyString())).thenReturn(Optional.empty());
+
+            assertThat(refreshTokenService.refresh("unknown")).isEmpty();
+            assertThat(refreshTokenService.refresh(" ")).isEmpty();
+
+            verify(refreshTokenRepository, never()).revokeFamily(any());
+            verify(tokenRevocations, never()).revokedAfterCommit(any());
+        }
+
+        @Test
+        @DisplayName("ends the session of a locked user")
+        void rejectsLockedUser() {
+            user.setLocked(true);
+            assertSessionEnded();
+        }
+
+        @Test
+        @DisplayName("ends the session of a disabled user")
+        void rejectsDisabledUser() {
+            user.setEnabled(false);
+            assertSessionEnded();
+        }
+
+        @Test
+        @DisplayName("ends the session of a deleted user")
+        void rejectsDeletedUser() {
+            TokenPair first = refreshTokenService.issue(user);
+            String firstHash = insertedHash();
+            when(refreshTokenRepository.claim(firstHash)).thenReturn(List.of(token(firstHash, null, null)));
+            when(appUserRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+            assertThat(refreshTokenService.refresh(first.refreshToken())).isEmpty();
+            verify(refreshTokenRepository).revokeFamily(FAMILY);
+        }
+
+        private void assertSessionEnded() {
+            TokenPair first = refreshTokenService.issue(user);
+            String firstHash = insertedHash();
+            when(refreshTokenRepository.claim(firstHash)).thenReturn(List.of(token(firstHash, null, null)));
+            when(appUserRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+            assertThat(refreshTokenService.refresh(first.refreshToken())).isEmpty();
+
+            verify(refreshTokenRepository).revokeFamily(FAMILY);
+            verify(tokenRevocations).revokedAfterCommit(List.of(FAMILY));
+            verify(jwtService, never()).issue(user, FAMILY);
+        }
+    }
+
+    @Test
+    @DisplayName("revokes every session of a user once per family")
+    void revokesAllForUser() {
+        UUID other = UUID.randomUUID();
+        when(refreshTokenRepository.revokeAllForUser(USER_ID))
+            .thenReturn(List.of(FAMILY.toString(), FAMILY.toString(), other.toString()));
+
+        refreshTokenService.revokeAllForUser(USER_ID);
+
+        verify(tokenRevocations).revokedAfterCommit(List.of(FAMILY, other));
+    }
+
+    private String insertedHash() {
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(refreshTokenRepository).insert(hash.capture(), any(UUID.class), anyLong(), any(LocalDateTime.class));
+        return hash.getValue();
+    }
+
+    private static RefreshToken token(String hash, LocalDateTime usedAt, LocalDateTime revokedAt) {
+        RefreshToken token = new RefreshToken();
+        token.setToken_hash(hash);
+        token.setFamily_id(FAMILY);
+        token.setUser_id(USER_ID);
+        token.setExpires_at(LocalDateTime.now().plusDays(30));
+        token.setUsed_at(usedAt);
+        token.setRevoked_at(revokedAt);
+        return token;
+    }
+}
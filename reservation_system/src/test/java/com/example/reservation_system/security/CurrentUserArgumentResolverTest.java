@@ -0,0 +1,100 @@
+package com.example.reservation_system.security;
+
+import com.example.reservation_system.model.AppUser;
+import com.example.reservation_system.model.AppUserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CurrentUserArgumentResolver")
+class CurrentUserArgumentResolverTest {
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("supports CurrentUser parameters only")
+    void supportsCurrentUser() throws NoSuchMethodException {
+        assertThat(resolver.supportsParameter(parameter(0))).isTrue();
+        assertThat(resolver.supportsParameter(parameter(1))).isFalse();
+    }
+
+    @Test
+    @DisplayName("returns the CurrentUser principal of a bearer-token request")
+    void resolvesBearerPrincipal() throws NoSuchMethodException {
+        CurrentUser currentUser = new CurrentUser(7L, "guest", AppUserRole.GUEST);
+        authenticate(new UsernamePasswordAuthenticationToken(currentUser, null, currentUser.authorities()));
+
+        assertThat(resolve()).isSameAs(currentUser);
+    }
+
+    @Test
+    @DisplayName("converts the AppUser principal of a form-login session")
+    void resolvesFormLoginPrincipal() throws NoSuchMethodException {
+        AppUser appUser = new AppUser("admin", "Admin", "admin@example.com", "secret", LocalDate.now(), AppUserRole.ADMIN);
+        appUser.setId(3L);
+        authenticate(new UsernamePasswordAuthenticationToken(appUser, null, appUser.getAuthorities()));
+
+        assertThat(resolve()).isEqualTo(new CurrentUser(3L, "admin", AppUserRole.ADMIN));
+    }
+
+    @Test
+    @DisplayName("rejects anonymous requests")
+    void rejectsAnonymous() {
+        authenticate(new AnonymousAuthenticationToken("key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        assertThatThrownBy(this::resolve).isInstanceOf(AuthenticationCredentialsNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("rejects requests without or with an unauthenticated authentication")
+    void rejectsUnauthenticated() {
+        assertThatThrownBy(this::resolve).isInstanceOf(AuthenticationCredentialsNotFoundException.class);
+
+        authenticate(new UsernamePasswordAuthenticationToken("guest", "secret"));
+        assertThatThrownBy(this::resolve).isInstanceOf(AuthenticationCredentialsNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("rejects principals it cannot convert")
+    void rejectsUnsupportedPrincipal() {
+        authenticate(new UsernamePasswordAuthenticationToken("guest", null, AuthorityUtils.createAuthorityList("ROLE_GUEST")));
+
+        assertThatThrownBy(this::resolve)
+            .isInstanceOf(AuthenticationCredentialsNotFoundException.class)
+            .hasMessageContaining("String");
+    }
+
+    private CurrentUser resolve() throws NoSuchMethodException {
+        return resolver.resolveArgument(parameter(0), null, null, null);
+    }
+
+    private static void authenticate(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static MethodParameter parameter(int index) throws NoSuchMethodException {
+        return new MethodParameter(Handler.class.getDeclaredMethod("handle", CurrentUser.class, String.class), index);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handler {
+        void handle(CurrentUser currentUser, String other) {
+        }
+    }
+}
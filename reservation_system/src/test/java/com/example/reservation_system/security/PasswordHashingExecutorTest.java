@@ -0,0 +1,76 @@
+package com.example.reservation_system.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PasswordHashingExecutor")
+class PasswordHashingExecutorTest {
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("rejects tasks once the thread and the queue are taken")
+    void rejectsWhenQueueIsFull() throws Exception {
+        executor = new PasswordHashingExecutor(1, 1, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<String> running = executor.submit(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = executor.submit(() -> "second");
+
+        assertThatThrownBy(() -> executor.submit(() -> "third")).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(executor.stats().rejected()).isEqualTo(1);
+        assertThat(executor.stats().completed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("drops a task that waited in the queue longer than allowed")
+    void dropsExpiredTask() throws Exception {
+        executor = new PasswordHashingExecutor(1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> {
+            await(release);
+            return "first";
+        });
+        CompletableFuture<String> queued = executor.submit(() -> "second");
+        Thread.sleep(200);
+        release.countDown();
+
+        assertThatThrownBy(queued::join)
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.stats().expired()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}